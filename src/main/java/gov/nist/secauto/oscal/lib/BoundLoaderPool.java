@@ -0,0 +1,300 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib;
+
+import gov.nist.secauto.metaschema.binding.IBindingContext;
+import gov.nist.secauto.metaschema.binding.io.DefaultBoundLoader;
+import gov.nist.secauto.metaschema.binding.io.DeserializationFeature;
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.metaschema.binding.io.IDeserializer;
+import gov.nist.secauto.metaschema.model.common.configuration.IConfiguration;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.metadata.ValueInterner;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * A pool of bound loaders that can be shared across threads.
+ * <p>
+ * Each loader is used by one thread at a time and caches the deserializers it creates by format and
+ * bound class, so repeated loads avoid the loader and deserializer setup. The pool grows to the
+ * number of concurrent loads.
+ */
+final class BoundLoaderPool {
+  @NonNull
+  private final IBindingContext bindingContext;
+  @NonNull
+  private final Queue<IBoundLoader> idleLoaders = new ConcurrentLinkedQueue<>();
+  @Nullable
+  private volatile ValueInterner valueInterner;
+
+  /**
+   * Construct a new pool whose loaders use the provided binding context.
+   *
+   * @param bindingContext
+   *          the binding context used to create loaders and deserializers
+   */
+  BoundLoaderPool(@NonNull IBindingContext bindingContext) {
+    this.bindingContext = bindingContext;
+  }
+
+  /**
+   * Get the table made active while loading, which shares repeated values across the loaded objects.
+   *
+   * @return the table, or {@code null} if values are not shared
+   */
+  @Nullable
+  ValueInterner getValueInterner() {
+    return valueInterner;
+  }
+
+  /**
+   * Set the table made active while loading, which shares repeated values across the loaded objects.
+   *
+   * @param interner
+   *          the table to use, or {@code null} to stop sharing values
+   */
+  void setValueInterner(@Nullable ValueInterner interner) {
+    this.valueInterner = interner;
+  }
+
+  /**
+   * Get an idle loader, creating a new one if none are available. The loader must be returned using
+   * {@link #release(IBoundLoader)} and must not be reconfigured.
+   *
+   * @return the loader
+   */
+  @NonNull
+  IBoundLoader acquire() {
+    IBoundLoader retval = idleLoaders.poll();
+    if (retval == null) {
+      retval = new CachingBoundLoader(bindingContext);
+    }
+    return retval;
+  }
+
+  /**
+   * Return a loader obtained from {@link #acquire()} to the pool.
+   *
+   * @param loader
+   *          the loader to return
+   */
+  void release(@NonNull IBoundLoader loader) {
+    idleLoaders.offer(loader);
+  }
+
+  @SuppressWarnings("try") // the scope is only closed
+  @NonNull
+  <CLASS> CLASS load(@NonNull Class<CLASS> clazz, @NonNull URL url) throws IOException, URISyntaxException {
+    IBoundLoader loader = acquire();
+    try (ValueInterner.Scope scope = activateInterner()) {
+      return loader.load(clazz, url);
+    } finally {
+      release(loader);
+    }
+  }
+
+  @SuppressWarnings("try") // the scope is only closed
+  @NonNull
+  <CLASS> CLASS load(@NonNull Class<CLASS> clazz, @NonNull Path path) throws IOException {
+    IBoundLoader loader = acquire();
+    try (ValueInterner.Scope scope = activateInterner()) {
+      return loader.load(clazz, path);
+    } finally {
+      release(loader);
+    }
+  }
+
+  @NonNull
+  <CLASS> CLASS load(@NonNull Class<CLASS> clazz, @NonNull File file) throws IOException {
+    return load(clazz, ObjectUtils.notNull(file.toPath()));
+  }
+
+  /**
+   * Load the provided files in parallel, passing the result for each file to the provided handler on
+   * the calling thread. A file that fails to load produces a failed result and does not affect the
+   * other files.
+   * <p>
+   * At most twice the parallelism of files are loaded or awaiting delivery at any time, so the
+   * stream is consumed as results are delivered.
+   *
+   * @param <CLASS>
+   *          the bound class to load
+   * @param paths
+   *          the files to load
+   * @param clazz
+   *          the bound class to load
+   * @param parallelism
+   *          the number of threads to load with
+   * @param ordered
+   *          {@code true} if results are delivered in the order of the stream, or {@code false} if
+   *          results are delivered as they complete
+   * @param handler
+   *          the handler called with each result
+   * @throws InterruptedException
+   *           if the calling thread was interrupted while waiting for a result, in which case the
+   *           remaining loads are cancelled
+   */
+  <CLASS> void loadAll(
+      @NonNull Stream<Path> paths,
+      @NonNull Class<CLASS> clazz,
+      int parallelism,
+      boolean ordered,
+      @NonNull Consumer<? super LoadResult<CLASS>> handler) throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism, LoadThreadFactory.INSTANCE);
+    CompletionService<LoadResult<CLASS>> completionService = new ExecutorCompletionService<>(executor);
+    Deque<Future<LoadResult<CLASS>>> pending = new ArrayDeque<>();
+    int window = parallelism * 2;
+    try {
+      Iterator<Path> iterator = paths.iterator();
+      while (iterator.hasNext()) {
+        if (pending.size() >= window) {
+          handler.accept(nextResult(pending, completionService, ordered));
+        }
+        Path path = ObjectUtils.requireNonNull(iterator.next(), "path");
+        Callable<LoadResult<CLASS>> task = () -> loadResult(clazz, path);
+        pending.add(ordered ? executor.submit(task) : completionService.submit(task));
+      }
+      while (!pending.isEmpty()) {
+        handler.accept(nextResult(pending, completionService, ordered));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @NonNull
+  private <CLASS> LoadResult<CLASS> loadResult(@NonNull Class<CLASS> clazz, @NonNull Path path) {
+    LoadResult<CLASS> retval;
+    try {
+      retval = LoadResult.success(path, load(clazz, path));
+    } catch (Exception ex) { // NOPMD - isolate failures to the file
+      retval = LoadResult.failure(path, ex);
+    }
+    return retval;
+  }
+
+  @NonNull
+  private static <CLASS> LoadResult<CLASS> nextResult(
+      @NonNull Deque<Future<LoadResult<CLASS>>> pending,
+      @NonNull CompletionService<LoadResult<CLASS>> completionService,
+      boolean ordered) throws InterruptedException {
+    Future<LoadResult<CLASS>> future;
+    if (ordered) {
+      future = pending.removeFirst();
+    } else {
+      future = completionService.take();
+      pending.remove(future);
+    }
+
+    try {
+      return ObjectUtils.notNull(future.get());
+    } catch (ExecutionException ex) {
+      // load failures are captured in the result, so only errors reach here
+      Throwable cause = ex.getCause();
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * Creates the daemon threads used for parallel loads.
+   */
+  private static final class LoadThreadFactory implements ThreadFactory {
+    @NonNull
+    private static final LoadThreadFactory INSTANCE = new LoadThreadFactory();
+    @NonNull
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread retval = new Thread(runnable, "oscal-loader-" + count.incrementAndGet());
+      retval.setDaemon(true);
+      return retval;
+    }
+  }
+
+  @Nullable
+  private ValueInterner.Scope activateInterner() {
+    ValueInterner interner = valueInterner;
+    return interner == null ? null : interner.activate();
+  }
+
+  /**
+   * A loader that reuses its deserializers. This is safe since pooled loaders keep their default
+   * configuration.
+   */
+  private static final class CachingBoundLoader
+      extends DefaultBoundLoader {
+    @NonNull
+    private final Map<Format, Map<Class<?>, IDeserializer<?>>> deserializers = new EnumMap<>(Format.class);
+
+    public CachingBoundLoader(@NonNull IBindingContext bindingContext) {
+      super(bindingContext);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected <CLASS> IDeserializer<CLASS> getDeserializer(
+        Class<CLASS> clazz,
+        Format format,
+        IConfiguration<DeserializationFeature<?>> config) {
+      return (IDeserializer<CLASS>) deserializers
+          .computeIfAbsent(format, key -> new HashMap<>())
+          .computeIfAbsent(clazz, key -> super.getDeserializer(clazz, format, config));
+    }
+  }
+}
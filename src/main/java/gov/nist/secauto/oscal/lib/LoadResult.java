@@ -0,0 +1,131 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib;
+
+import java.nio.file.Path;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * The outcome of loading one file as part of a multi-document load, holding either the loaded
+ * object or the exception that prevented it from loading.
+ *
+ * @param <T>
+ *          the bound class of the loaded object
+ * @see OscalBindingContext#loadAll(java.util.stream.Stream, Class)
+ */
+public final class LoadResult<T> {
+  @NonNull
+  private final Path path;
+  @Nullable
+  private final T value;
+  @Nullable
+  private final Exception exception;
+
+  private LoadResult(@NonNull Path path, @Nullable T value, @Nullable Exception exception) {
+    this.path = path;
+    this.value = value;
+    this.exception = exception;
+  }
+
+  /**
+   * Create a result for a file that loaded successfully.
+   *
+   * @param <T>
+   *          the bound class of the loaded object
+   * @param path
+   *          the loaded file
+   * @param value
+   *          the loaded object
+   * @return the result
+   */
+  @NonNull
+  static <T> LoadResult<T> success(@NonNull Path path, @NonNull T value) {
+    return new LoadResult<>(path, value, null);
+  }
+
+  /**
+   * Create a result for a file that failed to load.
+   *
+   * @param <T>
+   *          the bound class that was to be loaded
+   * @param path
+   *          the file that failed to load
+   * @param exception
+   *          the reason the file failed to load
+   * @return the result
+   */
+  @NonNull
+  static <T> LoadResult<T> failure(@NonNull Path path, @NonNull Exception exception) {
+    return new LoadResult<>(path, null, exception);
+  }
+
+  /**
+   * Get the file that was loaded.
+   *
+   * @return the file
+   */
+  @NonNull
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * Determine if the file loaded successfully.
+   *
+   * @return {@code true} if the file loaded, or {@code false} if an exception occurred
+   */
+  public boolean isSuccessful() {
+    return exception == null;
+  }
+
+  /**
+   * Get the loaded object.
+   *
+   * @return the loaded object, or {@code null} if the file failed to load
+   */
+  @Nullable
+  public T getValue() {
+    return value;
+  }
+
+  /**
+   * Get the exception that prevented the file from loading.
+   *
+   * @return the exception, or {@code null} if the file loaded successfully
+   */
+  @Nullable
+  public Exception getException() {
+    return exception;
+  }
+
+  @Override
+  public String toString() {
+    return isSuccessful() ? "loaded " + path : "failed " + path + ": " + exception;
+  }
+}
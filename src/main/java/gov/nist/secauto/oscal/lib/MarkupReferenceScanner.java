@@ -0,0 +1,123 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib;
+
+import com.vladsch.flexmark.ast.InlineLinkNode;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+
+import gov.nist.secauto.metaschema.model.common.datatype.markup.IMarkupString;
+import gov.nist.secauto.metaschema.model.common.datatype.markup.flexmark.InsertAnchorExtension.InsertAnchorNode;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Finds the inserts and inline links in markup, scanning the markup's source text first to avoid
+ * walking the markup tree when it cannot contain any.
+ * <p>
+ * Markup is parsed from Markdown source, which the parsed document retains. An insert is always
+ * written as <code>{{ insert: type, id }}</code> and an inline link as <code>[text](href)</code>,
+ * so source text without their opening characters has no such nodes. Changes made to nodes after
+ * parsing, such as updating an insert's identifier, do not add or remove nodes, so the source text
+ * remains a reliable test.
+ */
+public final class MarkupReferenceScanner {
+  @NonNull
+  private static final String INSERT_START = "{{";
+  @NonNull
+  private static final String INLINE_LINK_START = "](";
+
+  private MarkupReferenceScanner() {
+    // disable construction
+  }
+
+  /**
+   * Determine if the markup's source text could contain an insert.
+   *
+   * @param markup
+   *          the markup to check
+   * @return {@code true} if the markup could contain an insert, or {@code false} if it does not
+   */
+  public static boolean mayContainInserts(@NonNull IMarkupString<?> markup) {
+    return sourceContains(markup.getDocument(), INSERT_START);
+  }
+
+  /**
+   * Get the inserts in the markup that match the provided filter.
+   *
+   * @param markup
+   *          the markup to search
+   * @param filter
+   *          the filter used to select inserts
+   * @return the matching inserts, in document order
+   */
+  @NonNull
+  public static List<InsertAnchorNode> getInserts(
+      @NonNull IMarkupString<?> markup,
+      @NonNull Predicate<InsertAnchorNode> filter) {
+    return mayContainInserts(markup) ? markup.getInserts(filter) : CollectionUtil.emptyList();
+  }
+
+  /**
+   * Pass each insert and inline link in the markup to the provided handlers, in document order.
+   *
+   * @param markup
+   *          the markup to search
+   * @param insertHandler
+   *          the handler called for each insert
+   * @param linkHandler
+   *          the handler called for each inline link
+   */
+  public static void forEachReference(
+      @NonNull IMarkupString<?> markup,
+      @NonNull Consumer<InsertAnchorNode> insertHandler,
+      @NonNull Consumer<InlineLinkNode> linkHandler) {
+    Document document = markup.getDocument();
+    boolean inserts = sourceContains(document, INSERT_START);
+    boolean links = sourceContains(document, INLINE_LINK_START);
+    if (inserts || links) {
+      for (Node node : document.getDescendants()) {
+        if (inserts && node instanceof InsertAnchorNode) {
+          insertHandler.accept((InsertAnchorNode) node);
+        } else if (links && node instanceof InlineLinkNode) {
+          linkHandler.accept((InlineLinkNode) node);
+        }
+      }
+    }
+  }
+
+  private static boolean sourceContains(@NonNull Document document, @NonNull String token) {
+    BasedSequence source = document.getChars();
+    return source.indexOf(token) >= 0;
+  }
+}
@@ -29,6 +29,9 @@ package gov.nist.secauto.oscal.lib;
 import gov.nist.secauto.metaschema.binding.DefaultBindingContext;
 import gov.nist.secauto.metaschema.binding.IBindingMatcher;
 import gov.nist.secauto.metaschema.model.common.constraint.IConstraintSet;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.io.BinaryDeserializer;
+import gov.nist.secauto.oscal.lib.io.BinarySerializer;
 import gov.nist.secauto.oscal.lib.model.AssessmentPlan;
 import gov.nist.secauto.oscal.lib.model.AssessmentResults;
 import gov.nist.secauto.oscal.lib.model.Catalog;
@@ -36,21 +39,32 @@ import gov.nist.secauto.oscal.lib.model.ComponentDefinition;
 import gov.nist.secauto.oscal.lib.model.PlanOfActionAndMilestones;
 import gov.nist.secauto.oscal.lib.model.Profile;
 import gov.nist.secauto.oscal.lib.model.SystemSecurityPlan;
+import gov.nist.secauto.oscal.lib.model.metadata.ValueInterner;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 
 public class OscalBindingContext
     extends DefaultBindingContext {
   @NonNull
+  private static final String OSCAL_NAMESPACE = "http://csrc.nist.gov/ns/oscal/1.0";
+  @NonNull
   private static final OscalBindingContext SINGLETON = new OscalBindingContext();
 
   @NonNull
@@ -58,6 +72,9 @@ public class OscalBindingContext
     return SINGLETON;
   }
 
+  @NonNull
+  private final BoundLoaderPool loaderPool = new BoundLoaderPool(this);
+
   /**
    * Construct a new OSCAL-flavored binding context with custom constraints.
    *
@@ -76,140 +93,269 @@ public class OscalBindingContext
     registerBindingMatcher(new Matcher());
   }
 
+  /**
+   * Get the table used by the load methods to share repeated property, link, and namespace values
+   * across the loaded objects.
+   *
+   * @return the table, or {@code null} if values are not shared
+   */
+  @Nullable
+  public ValueInterner getValueInterner() {
+    return loaderPool.getValueInterner();
+  }
+
+  /**
+   * Set the table used by the load methods to share repeated property, link, and namespace values
+   * across the loaded objects. Sharing is disabled by default. A table may be shared by multiple
+   * binding contexts.
+   *
+   * @param interner
+   *          the table to use, or {@code null} to stop sharing values
+   */
+  public void setValueInterner(@Nullable ValueInterner interner) {
+    loaderPool.setValueInterner(interner);
+  }
+
+  /**
+   * Determine the OSCAL model contained in the provided file, by scanning the start of the file for
+   * the name of the root object. This is much faster than loading the file, but does not check that
+   * the file is valid.
+   *
+   * @param path
+   *          the file to examine
+   * @return the bound class of the root object, or {@code null} if the file does not appear to
+   *         contain a recognized OSCAL model in XML, JSON, or YAML
+   * @throws IOException
+   *           if an error occurred while reading the file
+   */
+  @Nullable
+  public Class<?> detectModel(@NonNull Path path) throws IOException {
+    try (InputStream is = Files.newInputStream(path)) {
+      return detectModel(ObjectUtils.notNull(is));
+    }
+  }
+
+  /**
+   * Determine the OSCAL model contained in the provided stream, by scanning the start of the stream
+   * for the name of the root object. At most a few kilobytes are read from the stream, which is not
+   * closed.
+   *
+   * @param is
+   *          the stream to examine
+   * @return the bound class of the root object, or {@code null} if the stream does not appear to
+   *         contain a recognized OSCAL model in XML, JSON, or YAML
+   * @throws IOException
+   *           if an error occurred while reading the stream
+   */
+  @Nullable
+  public Class<?> detectModel(@NonNull InputStream is) throws IOException {
+    byte[] bytes = new byte[RootNameScanner.SCAN_BYTES];
+    int length = is.readNBytes(bytes, 0, bytes.length);
+
+    QName rootName = RootNameScanner.scan(bytes, length);
+    Class<?> retval = null;
+    // JSON and YAML names have no namespace
+    if (rootName != null && (XMLConstants.NULL_NS_URI.equals(rootName.getNamespaceURI())
+        || OSCAL_NAMESPACE.equals(rootName.getNamespaceURI()))) {
+      retval = Matcher.getRootClass(ObjectUtils.notNull(rootName.getLocalPart()));
+    }
+    return retval;
+  }
+
+  /**
+   * Get a new serializer that writes documents of the provided type using a compact binary encoding.
+   *
+   * @param <CLASS>
+   *          the Java type of the document's root assembly
+   * @param clazz
+   *          the bound class of the document's root assembly
+   * @return the serializer
+   */
+  @NonNull
+  public <CLASS> BinarySerializer<CLASS> newBinarySerializer(@NonNull Class<CLASS> clazz) {
+    return new BinarySerializer<>(this, clazz);
+  }
+
+  /**
+   * Get a new deserializer that reads documents of the provided type written by a
+   * {@link BinarySerializer}.
+   *
+   * @param <CLASS>
+   *          the Java type of the document's root assembly
+   * @param clazz
+   *          the bound class of the document's root assembly
+   * @return the deserializer
+   */
+  @NonNull
+  public <CLASS> BinaryDeserializer<CLASS> newBinaryDeserializer(@NonNull Class<CLASS> clazz) {
+    return new BinaryDeserializer<>(this, clazz);
+  }
+
   @NonNull
   public Catalog loadCatalog(@NonNull URL url) throws IOException, URISyntaxException {
-    return newBoundLoader().load(Catalog.class, url);
+    return loaderPool.load(Catalog.class, url);
   }
 
   @NonNull
   public Catalog loadCatalog(@NonNull Path path) throws IOException {
-    return newBoundLoader().load(Catalog.class, path);
+    return loaderPool.load(Catalog.class, path);
   }
 
   @NonNull
   public Catalog loadCatalog(@NonNull File file) throws IOException {
-    return newBoundLoader().load(Catalog.class, file);
+    return loaderPool.load(Catalog.class, file);
   }
 
   @NonNull
   public Profile loadProfile(@NonNull URL url) throws IOException, URISyntaxException {
-    return newBoundLoader().load(Profile.class, url);
+    return loaderPool.load(Profile.class, url);
   }
 
   @NonNull
   public Profile loadProfile(@NonNull Path path) throws IOException {
-    return newBoundLoader().load(Profile.class, path);
+    return loaderPool.load(Profile.class, path);
   }
 
   @NonNull
   public Profile loadProfile(@NonNull File file) throws IOException {
-    return newBoundLoader().load(Profile.class, file);
+    return loaderPool.load(Profile.class, file);
   }
 
   @NonNull
   public SystemSecurityPlan loadSystemSecurityPlan(@NonNull URL url) throws IOException, URISyntaxException {
-    return newBoundLoader().load(SystemSecurityPlan.class, url);
+    return loaderPool.load(SystemSecurityPlan.class, url);
   }
 
   @NonNull
   public SystemSecurityPlan loadSystemSecurityPlan(@NonNull Path path) throws IOException {
-    return newBoundLoader().load(SystemSecurityPlan.class, path);
+    return loaderPool.load(SystemSecurityPlan.class, path);
   }
 
   @NonNull
   public SystemSecurityPlan loadSystemSecurityPlan(@NonNull File file) throws IOException {
-    return newBoundLoader().load(SystemSecurityPlan.class, file);
+    return loaderPool.load(SystemSecurityPlan.class, file);
   }
 
   @NonNull
   public ComponentDefinition loadComponentDefinition(@NonNull URL url) throws IOException, URISyntaxException {
-    return newBoundLoader().load(ComponentDefinition.class, url);
+    return loaderPool.load(ComponentDefinition.class, url);
   }
 
   @NonNull
   public ComponentDefinition loadComponentDefinition(@NonNull Path path) throws IOException {
-    return newBoundLoader().load(ComponentDefinition.class, path);
+    return loaderPool.load(ComponentDefinition.class, path);
   }
 
   @NonNull
   public ComponentDefinition loadComponentDefinition(@NonNull File file) throws IOException {
-    return newBoundLoader().load(ComponentDefinition.class, file);
+    return loaderPool.load(ComponentDefinition.class, file);
   }
 
   @NonNull
   public AssessmentPlan loadAssessmentPlan(@NonNull URL url) throws IOException, URISyntaxException {
-    return newBoundLoader().load(AssessmentPlan.class, url);
+    return loaderPool.load(AssessmentPlan.class, url);
   }
 
   @NonNull
   public AssessmentPlan loadAssessmentPlan(@NonNull Path path) throws IOException {
-    return newBoundLoader().load(AssessmentPlan.class, path);
+    return loaderPool.load(AssessmentPlan.class, path);
   }
 
   @NonNull
   public AssessmentPlan loadAssessmentPlan(@NonNull File file) throws IOException {
-    return newBoundLoader().load(AssessmentPlan.class, file);
+    return loaderPool.load(AssessmentPlan.class, file);
   }
 
   @NonNull
   public AssessmentResults loadAssessmentResults(@NonNull URL url) throws IOException, URISyntaxException {
-    return newBoundLoader().load(AssessmentResults.class, url);
+    return loaderPool.load(AssessmentResults.class, url);
   }
 
   @NonNull
   public AssessmentResults loadAssessmentResults(@NonNull Path path) throws IOException {
-    return newBoundLoader().load(AssessmentResults.class, path);
+    return loaderPool.load(AssessmentResults.class, path);
   }
 
   @NonNull
   public AssessmentResults loadAssessmentResults(@NonNull File file) throws IOException {
-    return newBoundLoader().load(AssessmentResults.class, file);
+    return loaderPool.load(AssessmentResults.class, file);
   }
 
   @NonNull
   public PlanOfActionAndMilestones loadPlanOfActionAndMilestones(@NonNull URL url)
       throws IOException, URISyntaxException {
-    return newBoundLoader().load(PlanOfActionAndMilestones.class, url);
+    return loaderPool.load(PlanOfActionAndMilestones.class, url);
   }
 
   @NonNull
   public PlanOfActionAndMilestones loadPlanOfActionAndMilestones(@NonNull Path path) throws IOException {
-    return newBoundLoader().load(PlanOfActionAndMilestones.class, path);
+    return loaderPool.load(PlanOfActionAndMilestones.class, path);
   }
 
   @NonNull
   public PlanOfActionAndMilestones loadPlanOfActionAndMilestones(@NonNull File file) throws IOException {
-    return newBoundLoader().load(PlanOfActionAndMilestones.class, file);
+    return loaderPool.load(PlanOfActionAndMilestones.class, file);
+  }
+
+  /**
+   * Load the provided files in parallel using one thread per available processor, returning the
+   * results in the order of the stream. A file that fails to load produces a failed result and does
+   * not affect the other files.
+   *
+   * @param <T>
+   *          the bound class to load
+   * @param paths
+   *          the files to load
+   * @param clazz
+   *          the bound class to load, such as {@link ComponentDefinition}
+   * @return the result for each file
+   * @throws InterruptedException
+   *           if the calling thread was interrupted while waiting for a result, in which case the
+   *           remaining loads are cancelled
+   */
+  @NonNull
+  public <T> List<LoadResult<T>> loadAll(@NonNull Stream<Path> paths, @NonNull Class<T> clazz)
+      throws InterruptedException {
+    List<LoadResult<T>> retval = new LinkedList<>();
+    loaderPool.loadAll(paths, clazz, getLoadParallelism(), true, retval::add);
+    return retval;
+  }
+
+  /**
+   * Load the provided files in parallel using one thread per available processor, passing each
+   * result to the provided handler as its file finishes loading. The handler is called on the calling
+   * thread. A file that fails to load produces a failed result and does not affect the other files.
+   *
+   * @param <T>
+   *          the bound class to load
+   * @param paths
+   *          the files to load
+   * @param clazz
+   *          the bound class to load, such as {@link ComponentDefinition}
+   * @param handler
+   *          the handler called with each result
+   * @throws InterruptedException
+   *           if the calling thread was interrupted while waiting for a result, in which case the
+   *           remaining loads are cancelled
+   */
+  public <T> void loadAll(
+      @NonNull Stream<Path> paths,
+      @NonNull Class<T> clazz,
+      @NonNull Consumer<? super LoadResult<T>> handler) throws InterruptedException {
+    loaderPool.loadAll(paths, clazz, getLoadParallelism(), false, handler);
+  }
+
+  private static int getLoadParallelism() {
+    return Runtime.getRuntime().availableProcessors();
   }
 
   private static final class Matcher implements IBindingMatcher {
     @Override
     public Class<?> getBoundClassForXmlQName(QName startElementQName) {
       Class<?> clazz = null;
-      if ("http://csrc.nist.gov/ns/oscal/1.0".equals(startElementQName.getNamespaceURI())) {
-        switch (startElementQName.getLocalPart()) {
-        case "catalog":
-          clazz = Catalog.class;
-          break;
-        case "profile":
-          clazz = Profile.class;
-          break;
-        case "system-security-plan":
-          clazz = SystemSecurityPlan.class;
-          break;
-        case "component-definition":
-          clazz = ComponentDefinition.class;
-          break;
-        case "assessment-plan":
-          clazz = AssessmentPlan.class;
-          break;
-        case "assessment-results":
-          clazz = AssessmentResults.class;
-          break;
-        case "plan-of-action-and-milestones":
-          clazz = PlanOfActionAndMilestones.class;
-          break;
-        default:
+      if (OSCAL_NAMESPACE.equals(startElementQName.getNamespaceURI())) {
+        clazz = getRootClass(ObjectUtils.notNull(startElementQName.getLocalPart()));
+        if (clazz == null) {
           throw new UnsupportedOperationException("Unrecognized element name: " + startElementQName.toString());
         }
       }
@@ -218,6 +364,15 @@ public class OscalBindingContext
 
     @Override
     public Class<?> getBoundClassForJsonName(String name) {
+      Class<?> retval = getRootClass(name);
+      if (retval == null) {
+        throw new UnsupportedOperationException("Unrecognized field name: " + name);
+      }
+      return retval;
+    }
+
+    @Nullable
+    private static Class<?> getRootClass(@NonNull String name) {
       Class<?> retval;
       switch (name) {
       case "catalog":
@@ -242,10 +397,9 @@ public class OscalBindingContext
         retval = PlanOfActionAndMilestones.class;
         break;
       default:
-        throw new UnsupportedOperationException("Unrecognized field name: " + name);
+        retval = null;
       }
       return retval;
     }
-
   }
 }
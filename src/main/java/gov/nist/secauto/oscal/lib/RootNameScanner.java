@@ -0,0 +1,304 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib;
+
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * A lightweight scanner that finds the name of the root object in the start of an XML, JSON, or YAML
+ * document without setting up a parser.
+ * <p>
+ * Only the document prolog and the start of the root object are examined. The scanner does not
+ * validate the content, and returns {@code null} for anything it does not recognize.
+ */
+final class RootNameScanner {
+  /**
+   * The number of bytes that are scanned.
+   */
+  static final int SCAN_BYTES = 8192;
+
+  private static final String JSON_SCHEMA_KEY = "$schema";
+
+  @NonNull
+  private final String text;
+  private int pos;
+
+  private RootNameScanner(@NonNull String text) {
+    this.text = text;
+  }
+
+  /**
+   * Find the name of the root object in the provided document start. For XML, the name includes the
+   * namespace of the root element, and a root element without a namespace is not recognized. For
+   * JSON and YAML, the name has no namespace and is the first property other than {@code $schema}.
+   *
+   * @param bytes
+   *          the buffer containing the start of the document
+   * @param length
+   *          the number of bytes in the buffer to scan
+   * @return the root name, or {@code null} if it could not be found
+   */
+  @Nullable
+  static QName scan(@NonNull byte[] bytes, int length) {
+    String text;
+    if (length >= 2 && (bytes[0] & 0xFF) == 0xFE && (bytes[1] & 0xFF) == 0xFF
+        || length >= 2 && (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xFE) {
+      // the UTF-16 decoder uses the byte order mark
+      text = new String(bytes, 0, length, StandardCharsets.UTF_16);
+    } else {
+      text = new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+    if (text.startsWith("\uFEFF")) {
+      // skip the byte order mark
+      text = text.substring(1);
+    }
+    return new RootNameScanner(ObjectUtils.notNull(text)).scan();
+  }
+
+  @Nullable
+  private QName scan() {
+    skipWhitespace();
+
+    QName retval;
+    if (pos >= text.length()) {
+      retval = null;
+    } else if (text.charAt(pos) == '<') {
+      retval = scanXml();
+    } else if (text.charAt(pos) == '{') {
+      retval = scanJson();
+    } else {
+      retval = scanYaml();
+    }
+    return retval;
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn") // readability
+  @Nullable
+  private QName scanXml() {
+    // skip the XML declaration, processing instructions, comments, and the document type declaration
+    while (text.startsWith("<?", pos) || text.startsWith("<!", pos)) {
+      String terminator;
+      if (text.startsWith("<?", pos)) {
+        terminator = "?>";
+      } else if (text.startsWith("<!--", pos)) {
+        terminator = "-->";
+      } else {
+        // a document type declaration may have an internal subset
+        int subset = text.indexOf('[', pos);
+        terminator = subset >= 0 && subset < text.indexOf('>', pos) ? "]>" : ">";
+      }
+
+      int end = text.indexOf(terminator, pos);
+      if (end < 0) {
+        return null;
+      }
+      pos = end + terminator.length();
+      skipWhitespace();
+    }
+
+    if (!text.startsWith("<", pos)) {
+      return null;
+    }
+    pos++;
+
+    String name = readXmlName();
+    int tagEnd = text.indexOf('>', pos);
+    if (name.isEmpty() || tagEnd < 0) {
+      return null;
+    }
+
+    int colon = name.indexOf(':');
+    String prefix = colon < 0 ? XMLConstants.DEFAULT_NS_PREFIX : name.substring(0, colon);
+    String localName = colon < 0 ? name : name.substring(colon + 1);
+    String namespaceAttribute = prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix;
+
+    // find the namespace declaration among the attributes
+    String namespace = XMLConstants.NULL_NS_URI;
+    while (pos < tagEnd) {
+      skipWhitespace();
+      String attribute = readXmlName();
+      if (attribute.isEmpty()) {
+        break;
+      }
+      skipWhitespace();
+      String value = text.startsWith("=", pos) ? readXmlAttributeValue() : null;
+      if (value == null) {
+        return null;
+      }
+      if (namespaceAttribute.equals(attribute)) {
+        namespace = value;
+      }
+    }
+    return namespace.isEmpty() ? null : new QName(namespace, localName, prefix);
+  }
+
+  @NonNull
+  private String readXmlName() {
+    int start = pos;
+    while (pos < text.length()) {
+      char ch = text.charAt(pos);
+      if (Character.isWhitespace(ch) || ch == '>' || ch == '/' || ch == '=') {
+        break;
+      }
+      pos++;
+    }
+    return text.substring(start, pos);
+  }
+
+  @Nullable
+  private String readXmlAttributeValue() {
+    // skip the '='
+    pos++;
+    skipWhitespace();
+
+    String retval = null;
+    if (pos < text.length()) {
+      char quote = text.charAt(pos);
+      int end = quote == '"' || quote == '\'' ? text.indexOf(quote, pos + 1) : -1;
+      if (end >= 0) {
+        retval = text.substring(pos + 1, end);
+        pos = end + 1;
+      }
+    }
+    return retval;
+  }
+
+  @Nullable
+  private QName scanJson() {
+    // skip the '{'
+    pos++;
+
+    String retval = null;
+    while (retval == null) {
+      skipWhitespace();
+      String key = readJsonString();
+      skipWhitespace();
+      if (key == null || !text.startsWith(":", pos)) {
+        break;
+      }
+      pos++;
+
+      if (JSON_SCHEMA_KEY.equals(key)) {
+        skipWhitespace();
+        if (readJsonString() == null) {
+          break;
+        }
+        skipWhitespace();
+        if (!text.startsWith(",", pos)) {
+          break;
+        }
+        pos++;
+      } else {
+        retval = key;
+      }
+    }
+    return retval == null ? null : new QName(retval);
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn") // readability
+  @Nullable
+  private String readJsonString() {
+    if (!text.startsWith("\"", pos)) {
+      return null;
+    }
+
+    StringBuilder builder = new StringBuilder();
+    for (int index = pos + 1; index < text.length(); index++) {
+      char ch = text.charAt(index);
+      if (ch == '"') {
+        pos = index + 1;
+        return builder.toString();
+      } else if (ch == '\\') {
+        // root names do not require escapes, so unescape just the escaped character
+        index++;
+        if (index < text.length()) {
+          builder.append(text.charAt(index));
+        }
+      } else {
+        builder.append(ch);
+      }
+    }
+    return null;
+  }
+
+  @Nullable
+  private QName scanYaml() {
+    String retval = null;
+    // YAML keys are sensitive to indentation, so start from the beginning of the line
+    int lineStart = text.lastIndexOf('\n', pos) + 1;
+    for (String line : text.substring(lineStart).split("\\r?\\n")) {
+      if (line.isBlank() || line.startsWith("#") || line.startsWith("---") || line.startsWith("%")) {
+        // skip blank lines, comments, document markers, and directives
+        continue;
+      }
+
+      String key = readYamlKey(line);
+      if (key == null) {
+        // the first line is not a top-level key
+        break;
+      } else if (!JSON_SCHEMA_KEY.equals(key)) {
+        retval = key;
+        break;
+      }
+    }
+    return retval == null ? null : new QName(retval);
+  }
+
+  @Nullable
+  private static String readYamlKey(@NonNull String line) {
+    String retval = null;
+    if (!line.isEmpty() && !Character.isWhitespace(line.charAt(0))) {
+      char quote = line.charAt(0);
+      if (quote == '"' || quote == '\'') {
+        int end = line.indexOf(quote, 1);
+        if (end > 0 && line.startsWith(":", end + 1)) {
+          retval = line.substring(1, end);
+        }
+      } else {
+        int colon = line.indexOf(':');
+        if (colon > 0) {
+          retval = line.substring(0, colon).trim();
+        }
+      }
+    }
+    return retval;
+  }
+
+  private void skipWhitespace() {
+    while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+      pos++;
+    }
+  }
+}
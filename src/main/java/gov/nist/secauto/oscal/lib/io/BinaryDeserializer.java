@@ -0,0 +1,110 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.io;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import gov.nist.secauto.metaschema.binding.IBindingContext;
+import gov.nist.secauto.metaschema.binding.io.json.DefaultJsonParsingContext;
+import gov.nist.secauto.metaschema.binding.io.json.DefaultJsonProblemHandler;
+import gov.nist.secauto.metaschema.binding.model.IAssemblyClassBinding;
+import gov.nist.secauto.metaschema.binding.model.RootAssemblyDefinition;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Reads a bound document written by a {@link BinarySerializer}.
+ * <p>
+ * Constraints are not validated, since the encoding is intended for moving documents that were
+ * already loaded.
+ *
+ * @param <CLASS>
+ *          the Java type of the document's root assembly
+ */
+public class BinaryDeserializer<CLASS> {
+  @NonNull
+  private final Class<CLASS> rootClass;
+  @NonNull
+  private final IAssemblyClassBinding rootBinding;
+
+  /**
+   * Construct a new deserializer for the provided root class.
+   *
+   * @param bindingContext
+   *          the binding context used to get the class binding
+   * @param rootClass
+   *          the bound class of the document's root assembly
+   * @throws IllegalArgumentException
+   *           if the class is not a bound root assembly
+   */
+  public BinaryDeserializer(@NonNull IBindingContext bindingContext, @NonNull Class<CLASS> rootClass) {
+    this.rootClass = rootClass;
+    this.rootBinding = BinaryEncoding.getRootBinding(bindingContext, rootClass);
+  }
+
+  /**
+   * Read a document from the stream. The stream is not closed.
+   *
+   * @param is
+   *          the stream to read from
+   * @return the document
+   * @throws IOException
+   *           if an error occurred while reading, or if the content is not a binary encoded
+   *           document
+   */
+  @NonNull
+  public CLASS deserialize(@NonNull InputStream is) throws IOException {
+    try (JsonParser parser = BinaryEncoding.newParser(is)) {
+      Object root = new RootAssemblyDefinition(rootBinding).readRoot(
+          new DefaultJsonParsingContext(parser, new DefaultJsonProblemHandler()));
+      return ObjectUtils.notNull(rootClass.cast(ObjectUtils.requireNonNull(root)));
+    }
+  }
+
+  /**
+   * Read a document from a file.
+   *
+   * @param path
+   *          the file to read
+   * @return the document
+   * @throws IOException
+   *           if an error occurred while reading, or if the content is not a binary encoded
+   *           document
+   */
+  @NonNull
+  public CLASS deserialize(@NonNull Path path) throws IOException {
+    try (InputStream is = Files.newInputStream(path)) {
+      return deserialize(ObjectUtils.notNull(is));
+    }
+  }
+}
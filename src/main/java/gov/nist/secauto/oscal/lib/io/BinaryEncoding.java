@@ -0,0 +1,109 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+
+import gov.nist.secauto.metaschema.binding.IBindingContext;
+import gov.nist.secauto.metaschema.binding.model.IAssemblyClassBinding;
+import gov.nist.secauto.metaschema.binding.model.IClassBinding;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Provides the compact binary encoding of a bound document.
+ * <p>
+ * The encoding is the <a href="https://github.com/FasterXML/smile-format-specification">Smile</a>
+ * form of the JSON token stream. Each document starts with the Smile header, and repeated property
+ * names and short string values are written as back references. This stores repeated identifiers,
+ * property names, and namespaces once.
+ */
+final class BinaryEncoding {
+  @NonNull
+  private static final SmileFactory FACTORY = ObjectUtils.notNull(SmileFactory.builder()
+      .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+      .enable(SmileParser.Feature.REQUIRE_HEADER)
+      // the streams are owned by the caller
+      .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+      .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+      .build());
+
+  private BinaryEncoding() {
+    // disable construction
+  }
+
+  @NonNull
+  static IAssemblyClassBinding getRootBinding(@NonNull IBindingContext bindingContext, @NonNull Class<?> rootClass) {
+    IClassBinding classBinding = bindingContext.getClassBinding(rootClass);
+    if (!(classBinding instanceof IAssemblyClassBinding) || !((IAssemblyClassBinding) classBinding).isRoot()) {
+      throw new IllegalArgumentException(
+          String.format("The class '%s' is not a bound root assembly.", rootClass.getName()));
+    }
+    return (IAssemblyClassBinding) classBinding;
+  }
+
+  /**
+   * Create a generator that writes the binary encoding to the stream. Closing the generator does not
+   * close the stream.
+   *
+   * @param os
+   *          the stream to write to
+   * @return the generator
+   * @throws IOException
+   *           if an error occurred while writing the header
+   */
+  @NonNull
+  static JsonGenerator newGenerator(@NonNull OutputStream os) throws IOException {
+    return ObjectUtils.notNull(FACTORY.createGenerator(os));
+  }
+
+  /**
+   * Create a parser that reads the binary encoding from the stream. Closing the parser does not close
+   * the stream.
+   *
+   * @param is
+   *          the stream to read from
+   * @return the parser
+   * @throws IOException
+   *           if an error occurred while reading, or if the content does not start with the header
+   */
+  @NonNull
+  static JsonParser newParser(@NonNull InputStream is) throws IOException {
+    return ObjectUtils.notNull(FACTORY.createParser(is));
+  }
+}
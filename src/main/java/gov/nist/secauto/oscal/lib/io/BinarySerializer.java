@@ -0,0 +1,106 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import gov.nist.secauto.metaschema.binding.IBindingContext;
+import gov.nist.secauto.metaschema.binding.io.json.DefaultJsonWritingContext;
+import gov.nist.secauto.metaschema.binding.model.IAssemblyClassBinding;
+import gov.nist.secauto.metaschema.binding.model.RootAssemblyDefinition;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Writes a bound document using a compact binary encoding, which can be read using a
+ * {@link BinaryDeserializer}.
+ * <p>
+ * The encoding holds the same content as the JSON format, written using Jackson's Smile format, so a
+ * document read back from the binary form serializes to the same XML, JSON, or YAML as the original.
+ * Repeated property names and short values are stored once.
+ *
+ * @param <CLASS>
+ *          the Java type of the document's root assembly
+ */
+public class BinarySerializer<CLASS> {
+  @NonNull
+  private final IAssemblyClassBinding rootBinding;
+
+  /**
+   * Construct a new serializer for the provided root class.
+   *
+   * @param bindingContext
+   *          the binding context used to get the class binding
+   * @param rootClass
+   *          the bound class of the document's root assembly
+   * @throws IllegalArgumentException
+   *           if the class is not a bound root assembly
+   */
+  public BinarySerializer(@NonNull IBindingContext bindingContext, @NonNull Class<CLASS> rootClass) {
+    this.rootBinding = BinaryEncoding.getRootBinding(bindingContext, rootClass);
+  }
+
+  /**
+   * Write the provided document to the stream. The stream is not closed.
+   *
+   * @param data
+   *          the document to write
+   * @param os
+   *          the stream to write to
+   * @throws IOException
+   *           if an error occurred while writing
+   */
+  public void serialize(@NonNull CLASS data, @NonNull OutputStream os) throws IOException {
+    try (JsonGenerator generator = BinaryEncoding.newGenerator(os)) {
+      new RootAssemblyDefinition(rootBinding).writeRoot(data, new DefaultJsonWritingContext(generator));
+    }
+  }
+
+  /**
+   * Write the provided document to a file.
+   *
+   * @param data
+   *          the document to write
+   * @param path
+   *          the file to write to
+   * @param options
+   *          options specifying how the file is opened
+   * @throws IOException
+   *           if an error occurred while writing
+   */
+  public void serialize(@NonNull CLASS data, @NonNull Path path, OpenOption... options) throws IOException {
+    try (OutputStream os = Files.newOutputStream(path, options)) {
+      serialize(data, os);
+    }
+  }
+}
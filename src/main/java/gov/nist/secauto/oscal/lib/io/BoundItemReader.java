@@ -0,0 +1,463 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.io;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import gov.nist.secauto.metaschema.binding.IBindingContext;
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.binding.io.json.DefaultJsonParsingContext;
+import gov.nist.secauto.metaschema.binding.io.json.DefaultJsonProblemHandler;
+import gov.nist.secauto.metaschema.binding.io.json.IJsonParsingContext;
+import gov.nist.secauto.metaschema.binding.io.json.JsonFactoryFactory;
+import gov.nist.secauto.metaschema.binding.io.json.JsonUtil;
+import gov.nist.secauto.metaschema.binding.io.xml.CommentFilter;
+import gov.nist.secauto.metaschema.binding.io.xml.DefaultXmlParsingContext;
+import gov.nist.secauto.metaschema.binding.io.xml.DefaultXmlProblemHandler;
+import gov.nist.secauto.metaschema.binding.io.xml.IXmlParsingContext;
+import gov.nist.secauto.metaschema.binding.io.yaml.YamlFactoryFactory;
+import gov.nist.secauto.metaschema.binding.model.IAssemblyClassBinding;
+import gov.nist.secauto.metaschema.binding.model.IBoundAssemblyInstance;
+import gov.nist.secauto.metaschema.binding.model.IBoundNamedModelInstance;
+import gov.nist.secauto.metaschema.binding.model.IClassBinding;
+import gov.nist.secauto.metaschema.model.common.JsonGroupAsBehavior;
+import gov.nist.secauto.metaschema.model.common.XmlGroupAsBehavior;
+import gov.nist.secauto.metaschema.model.common.configuration.DefaultConfiguration;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.metaschema.model.common.util.XmlEventUtil;
+
+import org.codehaus.stax2.XMLEventReader2;
+import org.codehaus.stax2.XMLInputFactory2;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Reads the items found at a path in a document one at a time, without binding the rest of the
+ * document.
+ * <p>
+ * The item path is a {@code /} separated list of model instance names, starting below the
+ * document's root assembly. For example, {@code result/finding} identifies each finding in an
+ * assessment results document and {@code poam-item} identifies each POA&amp;M item in a plan of
+ * action and milestones. Only one item is held in memory at a time. Content outside of the path is
+ * skipped.
+ * <p>
+ * The root assembly is detected using the binding context's registered binding matchers.
+ */
+public class BoundItemReader {
+  private static final String JSON_SCHEMA_PROPERTY = "$schema";
+  /**
+   * The number of bytes examined to determine the format of a document.
+   */
+  private static final int LOOK_AHEAD_BYTES = 256;
+
+  @NonNull
+  private final IBindingContext bindingContext;
+
+  /**
+   * Construct a new reader using the provided binding context.
+   *
+   * @param bindingContext
+   *          the binding context used to detect the document's root and bind items
+   */
+  public BoundItemReader(@NonNull IBindingContext bindingContext) {
+    this.bindingContext = bindingContext;
+  }
+
+  /**
+   * Read the items at the provided path in the document.
+   *
+   * @param <T>
+   *          the Java type of the items
+   * @param path
+   *          the document to read
+   * @param itemPath
+   *          the {@code /} separated model instance names of the items
+   * @param itemClass
+   *          the bound class of the items
+   * @param handler
+   *          the handler to call with each item, in document order
+   * @throws IOException
+   *           if an error occurred while reading the document or handling an item
+   * @throws IllegalArgumentException
+   *           if the item path does not identify assemblies of the provided class in the document's
+   *           model
+   */
+  public <T> void read(
+      @NonNull Path path,
+      @NonNull String itemPath,
+      @NonNull Class<T> itemClass,
+      @NonNull IItemHandler<? super T> handler) throws IOException {
+    try (InputStream is = Files.newInputStream(path)) {
+      read(ObjectUtils.notNull(is), itemPath, itemClass, handler);
+    }
+  }
+
+  /**
+   * Read the items at the provided path in the document. The stream is not closed.
+   *
+   * @param <T>
+   *          the Java type of the items
+   * @param is
+   *          the document to read
+   * @param itemPath
+   *          the {@code /} separated model instance names of the items
+   * @param itemClass
+   *          the bound class of the items
+   * @param handler
+   *          the handler to call with each item, in document order
+   * @throws IOException
+   *           if an error occurred while reading the document or handling an item
+   * @throws IllegalArgumentException
+   *           if the item path does not identify assemblies of the provided class in the document's
+   *           model
+   */
+  public <T> void read(
+      @NonNull InputStream is,
+      @NonNull String itemPath,
+      @NonNull Class<T> itemClass,
+      @NonNull IItemHandler<? super T> handler) throws IOException {
+    BufferedInputStream bis = new BufferedInputStream(is);
+    Format format = detectFormat(bis);
+
+    switch (format) {
+    case XML:
+      readXml(bis, itemPath, itemClass, handler);
+      break;
+    case JSON:
+      readJson(JsonFactoryFactory.instance(), bis, itemPath, itemClass, handler);
+      break;
+    case YAML:
+      readJson(YamlFactoryFactory.newParserFactoryInstance(new DefaultConfiguration<>()), bis, itemPath, itemClass,
+          handler);
+      break;
+    default:
+      throw new UnsupportedOperationException(String.format("Unsupported format '%s'.", format));
+    }
+  }
+
+  /**
+   * Determine the format of the document from its first character, leaving the stream at its start.
+   * <p>
+   * This uses the same rule as the root name scan used by
+   * {@link gov.nist.secauto.oscal.lib.OscalBindingContext#detectModel(InputStream)}, and avoids
+   * creating a bound loader for each read.
+   *
+   * @param bis
+   *          the stream containing the document
+   * @return the format
+   * @throws IOException
+   *           if an error occurred while reading the stream or the stream is empty
+   */
+  @NonNull
+  private static Format detectFormat(@NonNull BufferedInputStream bis) throws IOException {
+    byte[] bytes = new byte[LOOK_AHEAD_BYTES];
+    bis.mark(bytes.length);
+    int length = bis.readNBytes(bytes, 0, bytes.length);
+    bis.reset();
+
+    String text;
+    if (length >= 2 && ((bytes[0] & 0xFF) == 0xFE && (bytes[1] & 0xFF) == 0xFF
+        || (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xFE)) {
+      // the UTF-16 decoder uses the byte order mark
+      text = new String(bytes, 0, length, StandardCharsets.UTF_16);
+    } else {
+      text = new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    Format retval = null;
+    for (int index = 0; index < text.length() && retval == null; index++) {
+      char ch = text.charAt(index);
+      if (ch == '<') {
+        retval = Format.XML;
+      } else if (ch == '{') {
+        retval = Format.JSON;
+      } else if (ch != '\uFEFF' && !Character.isWhitespace(ch)) {
+        retval = Format.YAML;
+      }
+    }
+
+    if (retval == null) {
+      throw new IOException("The document is empty.");
+    }
+    return retval;
+  }
+
+  /**
+   * Resolve the item path against the model of the root assembly.
+   *
+   * @param rootClass
+   *          the bound class of the document's root assembly
+   * @param itemPath
+   *          the {@code /} separated model instance names of the items
+   * @param itemClass
+   *          the expected bound class of the items
+   * @return the model instances along the path, ending with the instance of the items
+   */
+  @NonNull
+  protected List<IBoundAssemblyInstance> resolveItemPath(
+      @NonNull Class<?> rootClass,
+      @NonNull String itemPath,
+      @NonNull Class<?> itemClass) {
+    IClassBinding rootBinding = bindingContext.getClassBinding(rootClass);
+    if (!(rootBinding instanceof IAssemblyClassBinding)) {
+      throw new IllegalArgumentException(String.format("The class '%s' is not a bound assembly.", rootClass.getName()));
+    }
+
+    List<IBoundAssemblyInstance> retval = new ArrayList<>();
+    IAssemblyClassBinding current = (IAssemblyClassBinding) rootBinding;
+    for (String name : itemPath.split("/")) {
+      IBoundNamedModelInstance instance = current.getModelInstanceByName(name);
+      if (!(instance instanceof IBoundAssemblyInstance)) {
+        throw new IllegalArgumentException(
+            String.format("The assembly '%s' has no child assembly named '%s'.", current.getName(), name));
+      }
+      IBoundAssemblyInstance assembly = (IBoundAssemblyInstance) instance;
+      retval.add(assembly);
+      current = assembly.getDefinition();
+    }
+
+    if (!itemClass.isAssignableFrom(current.getBoundClass())) {
+      throw new IllegalArgumentException(String.format("The items at '%s' are bound to '%s', not '%s'.",
+          itemPath,
+          current.getBoundClass().getName(),
+          itemClass.getName()));
+    }
+    return retval;
+  }
+
+  private <T> void readXml(
+      @NonNull InputStream is,
+      @NonNull String itemPath,
+      @NonNull Class<T> itemClass,
+      @NonNull IItemHandler<? super T> handler) throws IOException {
+    XMLInputFactory2 factory = (XMLInputFactory2) XMLInputFactory.newInstance();
+    factory.configureForXmlConformance();
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+
+    try {
+      XMLEventReader2 reader
+          = (XMLEventReader2) factory.createFilteredReader(factory.createXMLEventReader(is), new CommentFilter());
+      try {
+        while (reader.hasNext() && !reader.peek().isStartElement()) {
+          reader.nextEvent();
+        }
+        if (!reader.hasNext()) {
+          throw new IOException("The document has no root element.");
+        }
+
+        StartElement root = reader.nextEvent().asStartElement();
+        Class<?> rootClass;
+        try {
+          rootClass = bindingContext.getBoundClassForXmlQName(root.getName());
+        } catch (UnsupportedOperationException ex) {
+          // some binding contexts reject unknown names in a known namespace
+          throw new IOException(String.format("Unrecognized root element '%s'.", root.getName()), ex);
+        }
+        if (rootClass == null) {
+          throw new IOException(String.format("Unrecognized root element '%s'.", root.getName()));
+        }
+
+        List<IBoundAssemblyInstance> instances = resolveItemPath(rootClass, itemPath, itemClass);
+        IXmlParsingContext context = new DefaultXmlParsingContext(reader, new DefaultXmlProblemHandler());
+        readXmlChildren(context, instances, 0, itemClass, handler);
+      } finally {
+        reader.close();
+      }
+    } catch (XMLStreamException ex) {
+      throw new IOException(ex);
+    }
+  }
+
+  /**
+   * Read the children of the current element, up to and including its end element.
+   */
+  private static <T> void readXmlChildren(
+      @NonNull IXmlParsingContext context,
+      @NonNull List<IBoundAssemblyInstance> instances,
+      int depth,
+      @NonNull Class<T> itemClass,
+      @NonNull IItemHandler<? super T> handler) throws IOException, XMLStreamException {
+    XMLEventReader2 reader = context.getReader();
+    IBoundAssemblyInstance instance = instances.get(depth);
+    boolean isItem = depth == instances.size() - 1;
+
+    while (reader.hasNext()) {
+      XMLEvent event = reader.nextEvent();
+      if (event.isEndElement()) {
+        return;
+      } else if (event.isStartElement()) {
+        StartElement start = event.asStartElement();
+        QName name = start.getName();
+        if (name.equals(instance.getXmlQName())) {
+          if (isItem) {
+            Object item = instance.getDefinition().readItem(null, start, context);
+            XmlEventUtil.consumeAndAssert(reader, XMLStreamConstants.END_ELEMENT, name);
+            handler.handle(ObjectUtils.notNull(itemClass.cast(item)));
+          } else {
+            readXmlChildren(context, instances, depth + 1, itemClass, handler);
+          }
+        } else if (XmlGroupAsBehavior.GROUPED.equals(instance.getXmlGroupAsBehavior())
+            && name.equals(instance.getXmlGroupAsQName())) {
+          // the items are wrapped by the group element
+          readXmlChildren(context, instances, depth, itemClass, handler);
+        } else {
+          skipXmlElement(reader);
+        }
+      }
+    }
+  }
+
+  private static void skipXmlElement(@NonNull XMLEventReader2 reader) throws XMLStreamException {
+    int level = 1;
+    while (level > 0) {
+      XMLEvent event = reader.nextEvent();
+      if (event.isStartElement()) {
+        level++;
+      } else if (event.isEndElement()) {
+        level--;
+      }
+    }
+  }
+
+  private <T> void readJson(
+      @NonNull JsonFactory factory,
+      @NonNull InputStream is,
+      @NonNull String itemPath,
+      @NonNull Class<T> itemClass,
+      @NonNull IItemHandler<? super T> handler) throws IOException {
+    try (JsonParser parser = factory.createParser(is)) {
+      IJsonParsingContext context = new DefaultJsonParsingContext(parser, new DefaultJsonProblemHandler());
+
+      parser.nextToken();
+      JsonUtil.assertAndAdvance(parser, JsonToken.START_OBJECT);
+      boolean foundRoot = false;
+      while (!JsonToken.END_OBJECT.equals(parser.currentToken())) {
+        String name = parser.currentName();
+        JsonUtil.assertAndAdvance(parser, JsonToken.FIELD_NAME);
+
+        Class<?> rootClass = JSON_SCHEMA_PROPERTY.equals(name) ? null : getBoundClassForJsonName(name);
+        if (rootClass == null) {
+          skipJsonValue(parser);
+        } else {
+          List<IBoundAssemblyInstance> instances = resolveItemPath(rootClass, itemPath, itemClass);
+          readJsonObject(context, instances, 0, itemClass, handler);
+          foundRoot = true;
+        }
+      }
+
+      if (!foundRoot) {
+        throw new IOException("The document has no recognized root property.");
+      }
+    }
+  }
+
+  @Nullable
+  private Class<?> getBoundClassForJsonName(@NonNull String name) throws IOException {
+    try {
+      return bindingContext.getBoundClassForJsonName(name);
+    } catch (UnsupportedOperationException ex) {
+      // some binding contexts reject unknown names instead of returning null
+      throw new IOException(String.format("Unrecognized root property '%s'.", name), ex);
+    }
+  }
+
+  /**
+   * Read the object at the current token, leaving the parser at the token following the object.
+   */
+  private static <T> void readJsonObject(
+      @NonNull IJsonParsingContext context,
+      @NonNull List<IBoundAssemblyInstance> instances,
+      int depth,
+      @NonNull Class<T> itemClass,
+      @NonNull IItemHandler<? super T> handler) throws IOException {
+    JsonParser parser = context.getReader();
+    IBoundAssemblyInstance instance = instances.get(depth);
+
+    JsonUtil.assertAndAdvance(parser, JsonToken.START_OBJECT);
+    while (!JsonToken.END_OBJECT.equals(parser.currentToken())) {
+      String name = parser.currentName();
+      JsonUtil.assertAndAdvance(parser, JsonToken.FIELD_NAME);
+
+      if (instance.getJsonName().equals(name)) {
+        if (JsonGroupAsBehavior.KEYED.equals(instance.getJsonGroupAsBehavior())) {
+          throw new IOException(String.format("Streaming the keyed JSON property '%s' is not supported.", name));
+        }
+
+        if (JsonToken.START_ARRAY.equals(parser.currentToken())) {
+          JsonUtil.assertAndAdvance(parser, JsonToken.START_ARRAY);
+          while (!JsonToken.END_ARRAY.equals(parser.currentToken())) {
+            readJsonItem(context, instances, depth, itemClass, handler);
+          }
+          JsonUtil.assertAndAdvance(parser, JsonToken.END_ARRAY);
+        } else {
+          readJsonItem(context, instances, depth, itemClass, handler);
+        }
+      } else {
+        skipJsonValue(parser);
+      }
+    }
+    JsonUtil.assertAndAdvance(parser, JsonToken.END_OBJECT);
+  }
+
+  private static <T> void readJsonItem(
+      @NonNull IJsonParsingContext context,
+      @NonNull List<IBoundAssemblyInstance> instances,
+      int depth,
+      @NonNull Class<T> itemClass,
+      @NonNull IItemHandler<? super T> handler) throws IOException {
+    if (depth == instances.size() - 1) {
+      Object item = instances.get(depth).getDefinition().readObject(context);
+      handler.handle(ObjectUtils.notNull(itemClass.cast(item)));
+    } else {
+      readJsonObject(context, instances, depth + 1, itemClass, handler);
+    }
+  }
+
+  private static void skipJsonValue(@NonNull JsonParser parser) throws IOException {
+    parser.skipChildren();
+    parser.nextToken();
+  }
+}
@@ -0,0 +1,437 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import gov.nist.secauto.metaschema.binding.IBindingContext;
+import gov.nist.secauto.metaschema.binding.io.BindingException;
+import gov.nist.secauto.metaschema.binding.io.json.DefaultJsonParsingContext;
+import gov.nist.secauto.metaschema.binding.io.json.DefaultJsonProblemHandler;
+import gov.nist.secauto.metaschema.binding.io.json.DefaultJsonWritingContext;
+import gov.nist.secauto.metaschema.binding.model.IAssemblyClassBinding;
+import gov.nist.secauto.metaschema.binding.model.RootAssemblyDefinition;
+import gov.nist.secauto.metaschema.model.common.metapath.item.DefaultNodeItemFactory;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.CatalogGroup;
+import gov.nist.secauto.oscal.lib.model.Control;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * An immutable snapshot of a catalog, such as a resolved profile, that is stored in a file and read
+ * through a memory mapping.
+ * <p>
+ * Each control is stored separately using the compact binary encoding, with its child controls
+ * stored as references. Controls are only read into objects when they are requested, so an open
+ * snapshot uses little heap beyond an index of the control identifiers. The mapping is shared with
+ * any other process that opens the same file.
+ * <p>
+ * The objects returned by a snapshot are new copies on each call, and changes to them do not
+ * affect the snapshot. A snapshot can be used by multiple threads.
+ */
+public final class CatalogSnapshot {
+  @NonNull
+  private static final byte[] MAGIC = { 'O', 'S', 'C', 'S' };
+  private static final int VERSION = 1;
+
+  @NonNull
+  private final IBindingContext bindingContext;
+  @NonNull
+  private final ByteBuffer buffer;
+  @NonNull
+  private final URI documentUri;
+  @NonNull
+  private final Map<String, Record> controlRecords;
+  @NonNull
+  private final Record catalogRecord;
+
+  /**
+   * Write a snapshot of the catalog in the provided document to a file.
+   *
+   * @param bindingContext
+   *          the binding context used to get the class bindings
+   * @param document
+   *          the document containing the catalog
+   * @param path
+   *          the file to write
+   * @throws IOException
+   *           if an error occurred while writing the file
+   * @throws IllegalArgumentException
+   *           if the document is not a catalog, or if a control does not have a unique identifier
+   */
+  public static void write(
+      @NonNull IBindingContext bindingContext,
+      @NonNull IDocumentNodeItem document,
+      @NonNull Path path) throws IOException {
+    Object value = document.getValue();
+    if (!(value instanceof Catalog)) {
+      throw new IllegalArgumentException("The document does not contain a catalog.");
+    }
+
+    // work on a copy, since each control's child controls are replaced with references
+    Catalog catalog;
+    try {
+      catalog = bindingContext.copyBoundObject((Catalog) value, null);
+    } catch (BindingException ex) {
+      throw new IOException(ex);
+    }
+
+    try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+      os.write(MAGIC);
+      os.writeInt(VERSION);
+      os.writeUTF(document.getDocumentUri().toString());
+
+      Writer writer = new Writer(bindingContext, os);
+      catalog.setControls(writer.writeControls(catalog.getControls()));
+      writer.writeGroups(catalog.getGroups());
+      Record catalogRecord = writer.writeCatalog(catalog);
+
+      // the index follows the records, and is located using the offset at the end of the file
+      long indexOffset = os.size();
+      os.writeInt(writer.getControlRecords().size());
+      for (Map.Entry<String, Record> entry : writer.getControlRecords().entrySet()) {
+        os.writeUTF(entry.getKey());
+        entry.getValue().write(os);
+      }
+      catalogRecord.write(os);
+      os.writeLong(indexOffset);
+    }
+  }
+
+  /**
+   * Open a snapshot written by {@link #write(IBindingContext, IDocumentNodeItem, Path)}.
+   *
+   * @param bindingContext
+   *          the binding context used to get the class bindings
+   * @param path
+   *          the snapshot file
+   * @return the snapshot
+   * @throws IOException
+   *           if an error occurred while reading the file, or if the file is not a snapshot
+   */
+  @NonNull
+  public static CatalogSnapshot open(@NonNull IBindingContext bindingContext, @NonNull Path path)
+      throws IOException {
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException(String.format("The snapshot '%s' is too large to map.", path));
+      }
+      // the mapping outlives the channel
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+    return new CatalogSnapshot(bindingContext, ObjectUtils.notNull(buffer));
+  }
+
+  private CatalogSnapshot(@NonNull IBindingContext bindingContext, @NonNull ByteBuffer buffer) throws IOException {
+    this.bindingContext = bindingContext;
+    this.buffer = buffer;
+
+    int headerLength = MAGIC.length + Integer.BYTES;
+    if (buffer.limit() < headerLength + Long.BYTES) {
+      throw new IOException("The content is not a catalog snapshot.");
+    }
+
+    try (DataInputStream is = new DataInputStream(newInputStream(0, buffer.limit()))) {
+      byte[] magic = new byte[MAGIC.length];
+      is.readFully(magic);
+      int version = is.readInt();
+      if (!Arrays.equals(MAGIC, magic) || version != VERSION) {
+        throw new IOException("The content is not a supported catalog snapshot.");
+      }
+      this.documentUri = ObjectUtils.notNull(URI.create(is.readUTF()));
+    }
+
+    long indexOffset = buffer.getLong(buffer.limit() - Long.BYTES);
+    if (indexOffset < headerLength || indexOffset > buffer.limit() - Long.BYTES) {
+      throw new IOException("The catalog snapshot index is invalid.");
+    }
+
+    try (DataInputStream is = new DataInputStream(newInputStream(indexOffset, buffer.limit()))) {
+      int count = is.readInt();
+      Map<String, Record> records = new LinkedHashMap<>();
+      for (int index = 0; index < count; index++) {
+        records.put(is.readUTF(), Record.read(is));
+      }
+      this.controlRecords = CollectionUtil.unmodifiableMap(records);
+      this.catalogRecord = Record.read(is);
+    }
+  }
+
+  /**
+   * Get the URI of the document the snapshot was written from.
+   *
+   * @return the document URI
+   */
+  @NonNull
+  public URI getDocumentUri() {
+    return documentUri;
+  }
+
+  /**
+   * Get the identifiers of all controls in the snapshot, in document order.
+   *
+   * @return the control identifiers
+   */
+  @NonNull
+  public Set<String> getControlIds() {
+    return ObjectUtils.notNull(controlRecords.keySet());
+  }
+
+  /**
+   * Read the control with the provided identifier, including its child controls.
+   *
+   * @param id
+   *          the control identifier
+   * @return a new copy of the control, or {@code null} if no control has the identifier
+   * @throws IOException
+   *           if an error occurred while reading the control
+   */
+  @Nullable
+  public Control getControl(@NonNull String id) throws IOException {
+    Record record = controlRecords.get(id);
+    return record == null ? null : readControl(record, null);
+  }
+
+  /**
+   * Read the complete catalog.
+   *
+   * @return a new copy of the catalog
+   * @throws IOException
+   *           if an error occurred while reading the catalog
+   */
+  @NonNull
+  public Catalog getCatalog() throws IOException {
+    Catalog retval;
+    try (InputStream is = newInputStream(catalogRecord.offset, catalogRecord.offset + catalogRecord.length)) {
+      retval = new BinaryDeserializer<>(bindingContext, Catalog.class).deserialize(is);
+    }
+    retval.setControls(resolveControls(retval.getControls(), null));
+    resolveGroups(retval.getGroups());
+    return retval;
+  }
+
+  /**
+   * Read the complete catalog as a document.
+   *
+   * @return a new document containing a copy of the catalog
+   * @throws IOException
+   *           if an error occurred while reading the catalog
+   */
+  @NonNull
+  public IDocumentNodeItem getDocument() throws IOException {
+    IAssemblyClassBinding catalogBinding = BinaryEncoding.getRootBinding(bindingContext, Catalog.class);
+    return DefaultNodeItemFactory.instance().newDocumentNodeItem(
+        new RootAssemblyDefinition(catalogBinding),
+        getCatalog(),
+        documentUri);
+  }
+
+  @NonNull
+  private Control readControl(@NonNull Record record, @Nullable Control parent) throws IOException {
+    IAssemblyClassBinding controlBinding = getControlBinding(bindingContext);
+
+    Control retval;
+    try (InputStream is = newInputStream(record.offset, record.offset + record.length);
+        JsonParser parser = BinaryEncoding.newParser(ObjectUtils.notNull(is))) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("The control record is invalid.");
+      }
+      retval = (Control) controlBinding.readObject(
+          new DefaultJsonParsingContext(parser, new DefaultJsonProblemHandler()));
+    }
+    retval.setParentControl(parent);
+    retval.setControls(resolveControls(retval.getControls(), retval));
+    return retval;
+  }
+
+  @Nullable
+  private List<Control> resolveControls(@Nullable List<Control> references, @Nullable Control parent)
+      throws IOException {
+    List<Control> retval = null;
+    if (references != null) {
+      retval = new ArrayList<>(references.size());
+      for (Control reference : references) {
+        String id = reference.getId();
+        Record record = id == null ? null : controlRecords.get(id);
+        if (record == null) {
+          throw new IOException(String.format("The catalog snapshot is missing the control '%s'.", id));
+        }
+        retval.add(readControl(record, parent));
+      }
+    }
+    return retval;
+  }
+
+  private void resolveGroups(@Nullable List<CatalogGroup> groups) throws IOException {
+    if (groups != null) {
+      for (CatalogGroup group : groups) {
+        group.setControls(resolveControls(group.getControls(), null));
+        resolveGroups(group.getGroups());
+      }
+    }
+  }
+
+  @NonNull
+  private InputStream newInputStream(long start, long end) {
+    ByteBuffer slice = buffer.duplicate();
+    slice.position((int) start);
+    slice.limit((int) end);
+    return new ByteBufferBackedInputStream(slice);
+  }
+
+  @NonNull
+  private static IAssemblyClassBinding getControlBinding(@NonNull IBindingContext bindingContext) {
+    return (IAssemblyClassBinding) ObjectUtils.requireNonNull(bindingContext.getClassBinding(Control.class));
+  }
+
+  /**
+   * The location of an encoded object in the snapshot.
+   */
+  private static final class Record {
+    private final long offset;
+    private final int length;
+
+    private Record(long offset, int length) {
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @NonNull
+    private static Record read(@NonNull DataInputStream is) throws IOException {
+      return new Record(is.readLong(), is.readInt());
+    }
+
+    private void write(@NonNull DataOutputStream os) throws IOException {
+      os.writeLong(offset);
+      os.writeInt(length);
+    }
+  }
+
+  /**
+   * Writes the records for a catalog's controls, replacing the child controls of each control with
+   * references containing only the identifier.
+   */
+  private static final class Writer {
+    @NonNull
+    private final IBindingContext bindingContext;
+    @NonNull
+    private final IAssemblyClassBinding controlBinding;
+    @NonNull
+    private final DataOutputStream os;
+    @NonNull
+    private final Map<String, Record> controlRecords = new LinkedHashMap<>();
+
+    private Writer(@NonNull IBindingContext bindingContext, @NonNull DataOutputStream os) {
+      this.bindingContext = bindingContext;
+      this.controlBinding = getControlBinding(bindingContext);
+      this.os = os;
+    }
+
+    @NonNull
+    private Map<String, Record> getControlRecords() {
+      return controlRecords;
+    }
+
+    @Nullable
+    private List<Control> writeControls(@Nullable List<Control> controls) throws IOException {
+      List<Control> retval = null;
+      if (controls != null) {
+        retval = new ArrayList<>(controls.size());
+        for (Control control : controls) {
+          retval.add(writeControl(ObjectUtils.notNull(control)));
+        }
+      }
+      return retval;
+    }
+
+    private void writeGroups(@Nullable List<CatalogGroup> groups) throws IOException {
+      if (groups != null) {
+        for (CatalogGroup group : groups) {
+          group.setControls(writeControls(group.getControls()));
+          writeGroups(group.getGroups());
+        }
+      }
+    }
+
+    @NonNull
+    private Control writeControl(@NonNull Control control) throws IOException {
+      String id = control.getId();
+      if (id == null || controlRecords.containsKey(id)) {
+        throw new IllegalArgumentException(
+            String.format("The control '%s' does not have a unique identifier.", id));
+      }
+      // reserve the control's position in the index, so the index is in document order
+      controlRecords.put(id, null);
+      control.setControls(writeControls(control.getControls()));
+
+      long offset = os.size();
+      try (JsonGenerator generator = BinaryEncoding.newGenerator(os)) {
+        controlBinding.writeItem(control, true, new DefaultJsonWritingContext(generator));
+      }
+      controlRecords.put(id, new Record(offset, (int) (os.size() - offset)));
+
+      Control reference = new Control();
+      reference.setId(id);
+      return reference;
+    }
+
+    @NonNull
+    private Record writeCatalog(@NonNull Catalog catalog) throws IOException {
+      long offset = os.size();
+      new BinarySerializer<>(bindingContext, Catalog.class).serialize(catalog, os);
+      return new Record(offset, (int) (os.size() - offset));
+    }
+  }
+}
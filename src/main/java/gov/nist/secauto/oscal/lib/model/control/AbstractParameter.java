@@ -30,6 +30,7 @@ import gov.nist.secauto.metaschema.model.common.datatype.markup.MarkupLine;
 import gov.nist.secauto.metaschema.model.common.datatype.markup.MarkupMultiline;
 import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.MarkupReferenceScanner;
 import gov.nist.secauto.oscal.lib.model.Link;
 import gov.nist.secauto.oscal.lib.model.Parameter;
 import gov.nist.secauto.oscal.lib.model.ParameterConstraint;
@@ -68,7 +69,9 @@ public abstract class AbstractParameter implements IParameter {
     } else {
       selectInsertIds = CollectionUtil.listOrEmpty(selection.getChoice()).stream()
           .filter(Objects::nonNull)
-          .flatMap(choice -> choice.getInserts(insert -> "param".equals(insert.getType().toString())).stream()
+          .flatMap(choice -> MarkupReferenceScanner.getInserts(
+              ObjectUtils.notNull(choice),
+              insert -> "param".equals(insert.getType().toString())).stream()
               .map(insert -> insert.getIdReference().toString()));
     }
     Stream<String> retval = Stream.concat(aggregatesIds, selectInsertIds)
@@ -31,6 +31,7 @@ import gov.nist.secauto.metaschema.model.common.datatype.markup.MarkupMultiline;
 import gov.nist.secauto.metaschema.model.common.datatype.markup.flexmark.InsertAnchorExtension.InsertAnchorNode;
 import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.MarkupReferenceScanner;
 import gov.nist.secauto.oscal.lib.model.ControlPart;
 import gov.nist.secauto.oscal.lib.model.Link;
 import gov.nist.secauto.oscal.lib.model.Property;
@@ -55,7 +56,7 @@ public abstract class AbstractPart implements IPart {
     if (prose == null) {
       retval = ObjectUtils.notNull(Stream.empty());
     } else {
-      List<InsertAnchorNode> result = prose.getInserts(filter);
+      List<InsertAnchorNode> result = MarkupReferenceScanner.getInserts(prose, filter);
       retval = ObjectUtils.notNull(result.stream());
     }
     return retval;
@@ -26,6 +26,7 @@
 
 package gov.nist.secauto.oscal.lib.model.metadata;
 
+import gov.nist.secauto.metaschema.binding.io.IDeserializationHandler;
 import gov.nist.secauto.metaschema.model.common.datatype.markup.MarkupLine;
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
 import gov.nist.secauto.oscal.lib.model.Link;
@@ -38,7 +39,22 @@ import java.util.stream.Stream;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 
-public abstract class AbstractLink implements ILink {
+public abstract class AbstractLink implements IDeserializationHandler, ILink {
+
+  @Override
+  public void beforeDeserialize(Object parent) { // NOPMD noop default
+    // do nothing
+  }
+
+  @Override
+  public void afterDeserialize(Object parent) {
+    ValueInterner interner = ValueInterner.active();
+    if (interner != null) {
+      Link link = (Link) this;
+      link.setRel(interner.intern(link.getRel()));
+      link.setMediaType(interner.intern(link.getMediaType()));
+    }
+  }
 
   public static List<Link> merge(@NonNull List<Link> original, @NonNull List<Link> additional) {
     return Stream.concat(original.stream(), additional.stream())
@@ -26,6 +26,7 @@
 
 package gov.nist.secauto.oscal.lib.model.metadata;
 
+import gov.nist.secauto.metaschema.binding.io.IDeserializationHandler;
 import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
 import gov.nist.secauto.oscal.lib.model.Property;
 
@@ -41,8 +42,15 @@ import java.util.stream.Stream;
 import javax.xml.namespace.QName;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 
-public abstract class AbstractProperty implements IProperty {
+public abstract class AbstractProperty implements IDeserializationHandler, IProperty {
+  /**
+   * The qualified name computed for the current name and namespace, which is replaced when either
+   * changes.
+   */
+  @Nullable
+  private CachedName cachedName;
 
   @NonNull
   public static QName qname(URI namespace, @NonNull String name) {
@@ -78,14 +86,61 @@ public abstract class AbstractProperty implements IProperty {
         .collect(Collectors.toCollection(LinkedList::new));
   }
 
+  @Override
+  public void beforeDeserialize(Object parent) { // NOPMD noop default
+    // do nothing
+  }
+
+  @Override
+  public void afterDeserialize(Object parent) {
+    ValueInterner interner = ValueInterner.active();
+    if (interner != null) {
+      Property prop = (Property) this;
+      prop.setName(interner.intern(prop.getName()));
+      prop.setNs(interner.intern(prop.getNs()));
+      prop.setClazz(interner.intern(prop.getClazz()));
+      prop.setGroup(interner.intern(prop.getGroup()));
+    }
+  }
+
   @Override
   public boolean isNamespaceEqual(@NonNull URI namespace) {
-    return normalizeNamespace(getNs()).equals(namespace);
+    return getCachedName().namespace.equals(namespace);
   }
 
   @NonNull
   public QName getQName() {
-    return new QName(normalizeNamespace(getNs()).toString(), getName());
+    return getCachedName().qname;
+  }
+
+  @NonNull
+  private CachedName getCachedName() {
+    URI namespace = getNs();
+    String name = getName();
+    CachedName retval = cachedName;
+    // identity checks suffice, since setting either value replaces the instance
+    if (retval == null || retval.rawNamespace != namespace || retval.name != name) { // NOPMD - identity comparison
+      retval = new CachedName(namespace, name);
+      cachedName = retval;
+    }
+    return retval;
+  }
+
+  private static final class CachedName {
+    @Nullable
+    private final URI rawNamespace;
+    private final String name;
+    @NonNull
+    private final URI namespace;
+    @NonNull
+    private final QName qname;
+
+    private CachedName(@Nullable URI rawNamespace, String name) {
+      this.rawNamespace = rawNamespace;
+      this.name = name;
+      this.namespace = normalizeNamespace(rawNamespace);
+      this.qname = new QName(namespace.toString(), name);
+    }
   }
 
   @NonNull
@@ -0,0 +1,176 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.model.metadata;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * A table of canonical instances for values that repeat across a document set, such as property
+ * names and namespaces, class values, link relations, and media types.
+ * <p>
+ * While the table is {@link #activate() active} on a thread, bound objects deserialized on that
+ * thread replace these values with the table's canonical instances, so each distinct value is
+ * retained once no matter how many times it appears. The table stops adding values once it holds
+ * its maximum number of entries, after which new values are returned as-is.
+ * <p>
+ * This class is safe for use by multiple threads.
+ */
+public final class ValueInterner {
+  /**
+   * The default maximum number of entries.
+   */
+  public static final int DEFAULT_MAX_ENTRIES = 16_384;
+
+  private static final ThreadLocal<ValueInterner> ACTIVE = new ThreadLocal<>();
+
+  @NonNull
+  private final ConcurrentMap<String, String> strings = new ConcurrentHashMap<>();
+  @NonNull
+  private final ConcurrentMap<URI, URI> uris = new ConcurrentHashMap<>();
+  private final int maxEntries;
+
+  /**
+   * Construct a new table holding at most {@link #DEFAULT_MAX_ENTRIES} values of each type.
+   */
+  public ValueInterner() {
+    this(DEFAULT_MAX_ENTRIES);
+  }
+
+  /**
+   * Construct a new table.
+   *
+   * @param maxEntries
+   *          the maximum number of values of each type to hold
+   */
+  public ValueInterner(int maxEntries) {
+    if (maxEntries < 0) {
+      throw new IllegalArgumentException("maxEntries must not be negative");
+    }
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Get the table that is active on the current thread.
+   *
+   * @return the active table, or {@code null} if no table is active
+   */
+  @Nullable
+  public static ValueInterner active() {
+    return ACTIVE.get();
+  }
+
+  /**
+   * Make this table active on the current thread until the returned scope is closed, at which point
+   * the previously active table, if any, is restored.
+   *
+   * @return the scope to close once deserialization is complete
+   */
+  @NonNull
+  public Scope activate() {
+    ValueInterner previous = ACTIVE.get();
+    ACTIVE.set(this);
+    return new Scope(previous);
+  }
+
+  /**
+   * Get the canonical instance of the provided value.
+   *
+   * @param value
+   *          the value to intern
+   * @return the canonical instance, or {@code null} if the value is {@code null}
+   */
+  @Nullable
+  public String intern(@Nullable String value) {
+    return intern(strings, value);
+  }
+
+  /**
+   * Get the canonical instance of the provided value.
+   *
+   * @param value
+   *          the value to intern
+   * @return the canonical instance, or {@code null} if the value is {@code null}
+   */
+  @Nullable
+  public URI intern(@Nullable URI value) {
+    return intern(uris, value);
+  }
+
+  /**
+   * Get the number of values held by this table.
+   *
+   * @return the number of values
+   */
+  public int size() {
+    return strings.size() + uris.size();
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn") // readability
+  @Nullable
+  private <T> T intern(@NonNull ConcurrentMap<T, T> table, @Nullable T value) {
+    if (value == null) {
+      return null;
+    }
+
+    T retval = table.get(value);
+    if (retval == null) {
+      if (table.size() < maxEntries) {
+        retval = table.putIfAbsent(value, value);
+      }
+      if (retval == null) {
+        retval = value;
+      }
+    }
+    return retval;
+  }
+
+  /**
+   * Restores the previously active table when closed.
+   */
+  public static final class Scope implements AutoCloseable {
+    @Nullable
+    private final ValueInterner previous;
+
+    private Scope(@Nullable ValueInterner previous) {
+      this.previous = previous;
+    }
+
+    @Override
+    public void close() {
+      if (previous == null) {
+        ACTIVE.remove();
+      } else {
+        ACTIVE.set(previous);
+      }
+    }
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import gov.nist.secauto.metaschema.model.common.metapath.item.INodeItem;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collection;
+import java.util.List;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Collects the non-fatal issues encountered during profile resolution.
+ * <p>
+ * Issues are aggregated by their {@link Kind} and a kind-specific key, such as a property name or
+ * link relation. Only the number of occurrences and a small sample of locations are retained for
+ * each distinct issue, which keeps reporting cost proportional to the number of distinct issues
+ * instead of the size of the resolved content.
+ * <p>
+ * Implementations must be safe for use by multiple threads.
+ */
+public interface IResolutionDiagnostics {
+  /**
+   * The types of issues that can be recorded.
+   */
+  enum Kind {
+    /**
+     * A property for which no reference policy is defined.
+     */
+    UNSUPPORTED_PROPERTY(Level.WARN, "Unsupported property '%s'"),
+    /**
+     * A link with a relation for which no reference policy is defined.
+     */
+    UNSUPPORTED_LINK(Level.WARN, "Unsupported link rel '%s'"),
+    /**
+     * A markup insert with an unsupported type.
+     */
+    UNSUPPORTED_INSERT(Level.WARN, "Unsupported insert type '%s'"),
+    /**
+     * A markup anchor that could not be handled.
+     */
+    UNSUPPORTED_ANCHOR(Level.WARN, "Unsupported anchor with href '%s'"),
+    /**
+     * A reference to an entity that is not in the index.
+     */
+    UNKNOWN_REFERENCE(Level.ERROR, "Unknown reference to %s"),
+    /**
+     * A link whose target identifier is not in the index.
+     */
+    UNRESOLVED_LINK(Level.WARN, "Link %s not found in the index"),
+    /**
+     * A property whose target identifier is not in the index.
+     */
+    UNRESOLVED_PROPERTY(Level.WARN, "Property %s not found in the index"),
+    /**
+     * An entity added to an index that already had an entity with the same identifier.
+     */
+    DUPLICATE_ENTITY(Level.WARN, "Duplicate %s found in index");
+
+    @NonNull
+    private final Level level;
+    @NonNull
+    private final String messageFormat;
+
+    Kind(@NonNull Level level, @NonNull String messageFormat) {
+      this.level = level;
+      this.messageFormat = messageFormat;
+    }
+
+    /**
+     * Get the log level used when reporting this kind of issue.
+     *
+     * @return the level
+     */
+    @NonNull
+    public Level getLevel() {
+      return level;
+    }
+
+    /**
+     * Generate the message for an issue of this kind having the provided key.
+     *
+     * @param key
+     *          the issue's key
+     * @return the message
+     */
+    @SuppressWarnings("null")
+    @NonNull
+    public String toMessage(@NonNull String key) {
+      return String.format(messageFormat, key);
+    }
+  }
+
+  /**
+   * A distinct recorded issue.
+   */
+  interface IDiagnostic {
+    @NonNull
+    Kind getKind();
+
+    @NonNull
+    String getKey();
+
+    /**
+     * Get the number of times this issue was recorded.
+     *
+     * @return the occurrence count
+     */
+    long getOccurrenceCount();
+
+    /**
+     * Get the Metapath of a bounded sample of the locations where this issue occurred.
+     * <p>
+     * The paths are generated when this method is called.
+     *
+     * @return the sampled locations
+     */
+    @NonNull
+    List<String> getSampleLocations();
+  }
+
+  /**
+   * Record an occurrence of an issue.
+   *
+   * @param kind
+   *          the type of issue
+   * @param key
+   *          the kind-specific key used to aggregate occurrences
+   * @param location
+   *          the node where the issue occurred, or {@code null} if not known
+   */
+  void record(@NonNull Kind kind, @NonNull String key, @Nullable INodeItem location);
+
+  /**
+   * Get the distinct issues recorded so far, in the order they were first recorded.
+   *
+   * @return the issues
+   */
+  @NonNull
+  Collection<? extends IDiagnostic> getDiagnostics();
+
+  /**
+   * Log one summary message for each distinct recorded issue.
+   *
+   * @param logger
+   *          the logger to write to
+   */
+  default void log(@NonNull Logger logger) {
+    for (IDiagnostic diagnostic : getDiagnostics()) {
+      Level level = diagnostic.getKind().getLevel();
+      if (logger.isEnabled(level)) {
+        List<String> locations = diagnostic.getSampleLocations();
+        long count = diagnostic.getOccurrenceCount();
+        logger.atLevel(level).log("{} ({} occurrence(s)) at: {}{}",
+            diagnostic.getKind().toMessage(diagnostic.getKey()),
+            count,
+            String.join(", ", locations),
+            count > locations.size() ? ", ..." : "");
+      }
+    }
+  }
+}
@@ -26,29 +26,52 @@
 
 package gov.nist.secauto.oscal.lib.profile.resolver;
 
-import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
-
-import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 
 public final class ModifyPhaseUtils {
+  /**
+   * The size at or below which a merge compares keys pairwise instead of building a map.
+   */
+  private static final int SMALL_MERGE_SIZE = 8;
+
   private ModifyPhaseUtils() {
     // disable construction
   }
 
+  /**
+   * Get a key function that identifies items by their hash code.
+   *
+   * @param <T>
+   *          the item type
+   * @return the key function
+   */
+  @NonNull
   public static <T> Function<? super T, String> identityKey() {
     return (item) -> Integer.toString(Objects.hashCode(item));
   }
 
+  /**
+   * Get a key function that identifies items by the string form of the identifier provided by the
+   * {@code identifierFunction}, falling back to the item's hash code if the identifier is
+   * {@code null}.
+   *
+   * @param <T>
+   *          the item type
+   * @param <R>
+   *          the identifier type
+   * @param identifierFunction
+   *          provides the identifier of an item
+   * @return the key function
+   */
+  @NonNull
   public static <T, R> Function<? super T, String> identifierKey(@NonNull Function<T, R> identifierFunction) {
     return (item) -> {
       R identifier = identifierFunction.apply(item);
@@ -62,6 +85,44 @@ public final class ModifyPhaseUtils {
     };
   }
 
+  /**
+   * Get a key function that identifies items by the items themselves, using their equality.
+   * <p>
+   * Unlike {@link #identityKey()}, this does not allocate a key per item and does not treat unrelated
+   * items with the same hash code as the same item.
+   *
+   * @param <T>
+   *          the item type
+   * @return the key function
+   */
+  @NonNull
+  static <T> Function<? super T, Object> itemKey() {
+    return item -> item;
+  }
+
+  /**
+   * Get a key function that identifies items by the identifier provided by the
+   * {@code identifierFunction}, falling back to the item itself if the identifier is {@code null}.
+   * <p>
+   * Unlike {@link #identifierKey(Function)}, the identifier is used as-is instead of being converted
+   * to a string.
+   *
+   * @param <T>
+   *          the item type
+   * @param <R>
+   *          the identifier type
+   * @param identifierFunction
+   *          provides the identifier of an item
+   * @return the key function
+   */
+  @NonNull
+  static <T, R> Function<? super T, Object> itemIdentifierKey(@NonNull Function<T, R> identifierFunction) {
+    return item -> {
+      R identifier = identifierFunction.apply(item);
+      return identifier == null ? item : identifier;
+    };
+  }
+
   @SuppressWarnings("PMD.OnlyOneReturn") // readability
   public static <T> T mergeItem(@Nullable T original, @Nullable T additional) {
     if (additional == null) {
@@ -71,9 +132,25 @@ public final class ModifyPhaseUtils {
     return additional;
   }
 
+  /**
+   * Merge the additional items into the original items.
+   * <p>
+   * When multiple items have the same key, only the last of these is kept. The resulting items are
+   * ordered by their position in the combined original and additional items.
+   *
+   * @param <T>
+   *          the item type
+   * @param original
+   *          the original items
+   * @param additional
+   *          the items to merge
+   * @param keyFunction
+   *          provides the key used to identify an item
+   * @return the merged items
+   */
   @SuppressWarnings("PMD.OnlyOneReturn") // readability
   public static <T> List<T> merge(@Nullable List<T> original, @Nullable List<T> additional,
-      Function<? super T, String> keyFunction) {
+      @NonNull Function<? super T, ?> keyFunction) {
     if (additional == null || additional.isEmpty()) {
       return original;
     }
@@ -82,29 +159,59 @@ public final class ModifyPhaseUtils {
       return additional;
     }
 
-    // reverse the stream
-    List<T> reversed = Stream.concat(
-        CollectionUtil.listOrEmpty(original).stream(),
-        CollectionUtil.listOrEmpty(additional).stream())
-        .collect(Collectors.collectingAndThen(
-            Collectors.toList(),
-            l -> {
-              Collections.reverse(l);
-              return l;
-            }));
-
-    // build a map of each unique identity
-    Map<String, List<T>> identityMap = reversed.stream()
-        .collect(Collectors.groupingBy(keyFunction, LinkedHashMap::new, Collectors.toList()));
-
-    // build a reversed list of items, using the first item
-    return identityMap.values().stream()
-        .map(list -> list.stream().findFirst().get())
-        .collect(Collectors.collectingAndThen(
-            Collectors.toList(),
-            l -> {
-              Collections.reverse(l);
-              return l;
-            }));
+    List<T> retval = new ArrayList<>(original.size() + additional.size());
+    retval.addAll(original);
+    retval.addAll(additional);
+
+    int size = retval.size();
+    if (size <= SMALL_MERGE_SIZE) {
+      // avoid building a map for short lists, which are the common case
+      int kept = 0;
+      for (int index = 0; index < size; index++) {
+        T item = retval.get(index);
+        if (!hasLaterKey(retval, index, keyFunction.apply(item), keyFunction)) {
+          retval.set(kept++, item);
+        }
+      }
+      truncate(retval, kept);
+    } else {
+      Object[] keys = new Object[size];
+      Map<Object, Integer> keyToLastIndexMap = new HashMap<>(); // NOPMD - no concurrent access
+      for (int index = 0; index < size; index++) {
+        Object key = keyFunction.apply(retval.get(index));
+        keys[index] = key;
+        keyToLastIndexMap.put(key, index);
+      }
+
+      if (keyToLastIndexMap.size() < size) {
+        int kept = 0;
+        for (int index = 0; index < size; index++) {
+          if (keyToLastIndexMap.get(keys[index]) == index) {
+            retval.set(kept++, retval.get(index));
+          }
+        }
+        truncate(retval, kept);
+      }
+    }
+    return retval;
+  }
+
+  private static <T> boolean hasLaterKey(
+      @NonNull List<T> items,
+      int index,
+      Object key,
+      @NonNull Function<? super T, ?> keyFunction) {
+    for (int later = index + 1; later < items.size(); later++) {
+      if (Objects.equals(key, keyFunction.apply(items.get(later)))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void truncate(@NonNull List<?> items, int size) {
+    if (size < items.size()) {
+      items.subList(size, items.size()).clear();
+    }
   }
 }
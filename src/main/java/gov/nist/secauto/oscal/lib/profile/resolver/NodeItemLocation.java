@@ -0,0 +1,185 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDefinitionNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IFlagNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IModelNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.INodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IRootAssemblyNodeItem;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Objects;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * A compact, immutable reference to the location of a node item within its document.
+ * <p>
+ * Capturing a location only records the document URI and the name and position of each ancestor,
+ * without retaining the node items. The location is rendered as Metapath text, matching the output
+ * of {@code toPath(IPathFormatter.METAPATH_PATH_FORMATER)}, only when {@link #toString()} is
+ * called. This makes it suitable for use in exception messages that may never be read.
+ */
+public final class NodeItemLocation {
+  private static final int ROOT_POSITION = 0;
+  private static final int FLAG_POSITION = -1;
+
+  @Nullable
+  private final URI documentUri;
+  @NonNull
+  private final String[] names;
+  @NonNull
+  private final int[] positions;
+
+  private NodeItemLocation(@Nullable URI documentUri, @NonNull String[] names, @NonNull int[] positions) {
+    this.documentUri = documentUri;
+    this.names = names;
+    this.positions = positions;
+  }
+
+  /**
+   * Capture the location of the provided node item.
+   *
+   * @param item
+   *          the node item
+   * @return the location
+   */
+  @NonNull
+  public static NodeItemLocation of(@NonNull INodeItem item) {
+    int depth = 0;
+    for (INodeItem current = item; current != null && !(current instanceof IDocumentNodeItem);
+        current = current.getParentNodeItem()) {
+      depth++;
+    }
+
+    String[] names = new String[depth];
+    int[] positions = new int[depth];
+    URI documentUri = null;
+
+    int index = depth;
+    for (INodeItem current = item; current != null; current = current.getParentNodeItem()) {
+      if (current instanceof IDocumentNodeItem) {
+        documentUri = ((IDocumentNodeItem) current).getDocumentUri();
+        break;
+      }
+
+      index--;
+      if (current instanceof IDefinitionNodeItem) {
+        names[index] = ((IDefinitionNodeItem) current).getName();
+      }
+
+      if (current instanceof IRootAssemblyNodeItem) {
+        positions[index] = ROOT_POSITION;
+      } else if (current instanceof IFlagNodeItem) {
+        positions[index] = FLAG_POSITION;
+      } else if (current instanceof IModelNodeItem) {
+        positions[index] = ((IModelNodeItem) current).getPosition();
+      }
+    }
+    return new NodeItemLocation(documentUri, names, positions);
+  }
+
+  /**
+   * Get the URI of the document containing the location.
+   *
+   * @return the document URI, or {@code null} if the node is not part of a document
+   */
+  @Nullable
+  public URI getDocumentUri() {
+    return documentUri;
+  }
+
+  /**
+   * Get the number of path segments below the document.
+   *
+   * @return the depth
+   */
+  public int getDepth() {
+    return names.length;
+  }
+
+  /**
+   * Get the 1-based position of the node at the provided depth among its same-named siblings.
+   *
+   * @param depth
+   *          the 0-based depth, where {@code 0} is the root assembly
+   * @return the position, {@code 0} for the root assembly, or {@code -1} for a flag
+   */
+  public int getPosition(int depth) {
+    return positions[depth];
+  }
+
+  /**
+   * Render the location as a Metapath expression.
+   *
+   * @return the Metapath
+   */
+  @NonNull
+  public String toMetapath() {
+    StringBuilder builder = new StringBuilder(names.length * 16);
+    for (int i = 0; i < names.length; i++) {
+      builder.append('/');
+      int position = positions[i];
+      if (position == FLAG_POSITION) {
+        builder.append('@');
+      }
+      builder.append(names[i]);
+      if (position > ROOT_POSITION) {
+        builder.append('[').append(position).append(']');
+      }
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public String toString() {
+    return toMetapath();
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(positions) + Arrays.hashCode(names);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof NodeItemLocation)) {
+      return false;
+    }
+    NodeItemLocation other = (NodeItemLocation) obj;
+    return Objects.equals(documentUri, other.documentUri)
+        && Arrays.equals(positions, other.positions)
+        && Arrays.equals(names, other.names);
+  }
+}
@@ -26,6 +26,12 @@
 
 package gov.nist.secauto.oscal.lib.profile.resolver;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.function.Supplier;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
 public class ProfileResolutionEvaluationException
     extends IllegalStateException {
 
@@ -34,6 +40,12 @@ public class ProfileResolutionEvaluationException
    */
   private static final long serialVersionUID = 1L;
 
+  /**
+   * Generates the message on first use, then cleared.
+   */
+  private transient Supplier<String> messageSupplier;
+  private String lazyMessage;
+
   public ProfileResolutionEvaluationException() {
     // no arguments
   }
@@ -49,4 +61,52 @@ public class ProfileResolutionEvaluationException
   public ProfileResolutionEvaluationException(String message, Throwable cause) {
     super(message, cause);
   }
+
+  /**
+   * Construct a new exception whose message is generated by the provided supplier the first time
+   * the message is requested.
+   * <p>
+   * This avoids the cost of formatting messages, such as those including a {@link NodeItemLocation},
+   * for exceptions that are handled without being reported.
+   *
+   * @param messageSupplier
+   *          generates the message
+   */
+  public ProfileResolutionEvaluationException(@NonNull Supplier<String> messageSupplier) {
+    this.messageSupplier = messageSupplier;
+  }
+
+  /**
+   * Construct a new exception whose message is generated by the provided supplier the first time
+   * the message is requested.
+   *
+   * @param messageSupplier
+   *          generates the message
+   * @param cause
+   *          the cause of this exception
+   */
+  public ProfileResolutionEvaluationException(@NonNull Supplier<String> messageSupplier, Throwable cause) {
+    // avoid the super(Throwable) constructor, which eagerly uses the cause's message
+    super(null, cause);
+    this.messageSupplier = messageSupplier;
+  }
+
+  @Override
+  public String getMessage() {
+    String retval;
+    synchronized (this) {
+      if (messageSupplier != null) {
+        lazyMessage = messageSupplier.get();
+        messageSupplier = null;
+      }
+      retval = lazyMessage;
+    }
+    return retval == null ? super.getMessage() : retval;
+  }
+
+  private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+    // the supplier is not serializable, so generate the message now
+    getMessage();
+    out.defaultWriteObject();
+  }
 }
@@ -34,9 +34,9 @@ import gov.nist.secauto.metaschema.binding.model.RootAssemblyDefinition;
 import gov.nist.secauto.metaschema.model.common.metapath.DynamicContext;
 import gov.nist.secauto.metaschema.model.common.metapath.MetapathExpression;
 import gov.nist.secauto.metaschema.model.common.metapath.StaticContext;
-import gov.nist.secauto.metaschema.model.common.metapath.format.IPathFormatter;
 import gov.nist.secauto.metaschema.model.common.metapath.item.DefaultNodeItemFactory;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IItem;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueAssemblyNodeItem;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueNodeItem;
@@ -48,6 +48,7 @@ import gov.nist.secauto.oscal.lib.OscalUtils;
 import gov.nist.secauto.oscal.lib.model.BackMatter;
 import gov.nist.secauto.oscal.lib.model.BackMatter.Resource;
 import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.CatalogGroup;
 import gov.nist.secauto.oscal.lib.model.Control;
 import gov.nist.secauto.oscal.lib.model.Merge;
 import gov.nist.secauto.oscal.lib.model.Metadata;
@@ -60,14 +61,19 @@ import gov.nist.secauto.oscal.lib.model.Property;
 import gov.nist.secauto.oscal.lib.model.metadata.AbstractLink;
 import gov.nist.secauto.oscal.lib.model.metadata.AbstractProperty;
 import gov.nist.secauto.oscal.lib.profile.resolver.alter.AddVisitor;
+import gov.nist.secauto.oscal.lib.profile.resolver.alter.AlterPlan;
 import gov.nist.secauto.oscal.lib.profile.resolver.alter.RemoveVisitor;
+import gov.nist.secauto.oscal.lib.profile.resolver.merge.ControlCombiner;
+import gov.nist.secauto.oscal.lib.profile.resolver.merge.CustomStructuringBuilder;
 import gov.nist.secauto.oscal.lib.profile.resolver.merge.FlatteningStructuringVisitor;
 import gov.nist.secauto.oscal.lib.profile.resolver.selection.Import;
 import gov.nist.secauto.oscal.lib.profile.resolver.selection.ImportCycleException;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.BasicIndexer;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.CompiledIdentifierMapper;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.ControlIndexingVisitor;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem.ItemType;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIdentifierMapper;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
 
 import org.apache.logging.log4j.LogManager;
@@ -84,15 +90,27 @@ import java.net.URL;
 import java.nio.file.Path;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Stack;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import nl.talsmasoftware.lazy4j.Lazy;
 
 public class ProfileResolver {
   private static final Logger LOGGER = LogManager.getLogger(ProfileResolver.class);
@@ -104,6 +122,15 @@ public class ProfileResolver {
       = MetapathExpression.compile("remove");
   private static final MetapathExpression METAPATH_ALTER_ADD
       = MetapathExpression.compile("add");
+  /**
+   * The definition used to build document nodes for a resolved catalog, which is shared since it is
+   * needed at each phase of resolution.
+   */
+  @NonNull
+  private static final Lazy<RootAssemblyDefinition> CATALOG_DEFINITION = ObjectUtils.notNull(Lazy.lazy(
+      () -> new RootAssemblyDefinition(
+          ObjectUtils.notNull(
+              (IAssemblyClassBinding) OscalBindingContext.instance().getClassBinding(Catalog.class)))));
 
   public enum StructuringDirective {
     FLAT,
@@ -113,6 +140,8 @@ public class ProfileResolver {
 
   private IBoundLoader loader;
   private DynamicContext dynamicContext;
+  private boolean parallelModify;
+  private boolean reassignIdentifiers;
 
   /**
    * Gets the configured loader or creates a new default loader if no loader was configured.
@@ -157,6 +186,62 @@ public class ProfileResolver {
     }
   }
 
+  /**
+   * Determine if the modify phase applies independent modifications concurrently.
+   *
+   * @return {@code true} if modifications are applied concurrently, or {@code false} otherwise
+   */
+  public boolean isParallelModify() {
+    synchronized (this) {
+      return parallelModify;
+    }
+  }
+
+  /**
+   * Configure if the modify phase applies independent modifications concurrently.
+   * <p>
+   * When enabled, set-parameters targeting different parameters, and alters targeting controls
+   * within different top-level controls, are applied in parallel. Modifications targeting the same
+   * entity are still applied in document order, and if more than one modification cannot be applied,
+   * the error for the first in document order is reported. This is disabled by default.
+   *
+   * @param parallelModify
+   *          {@code true} to apply modifications concurrently, or {@code false} otherwise
+   */
+  public void setParallelModify(boolean parallelModify) {
+    synchronized (this) {
+      this.parallelModify = parallelModify;
+    }
+  }
+
+  /**
+   * Determine if colliding identifiers of imported entities are reassigned.
+   *
+   * @return {@code true} if colliding identifiers are reassigned, or {@code false} otherwise
+   */
+  public boolean isReassignIdentifiers() {
+    synchronized (this) {
+      return reassignIdentifiers;
+    }
+  }
+
+  /**
+   * Configure if colliding identifiers of imported entities are reassigned.
+   * <p>
+   * When enabled and the profile keeps duplicate controls, any control, group, parameter, or part
+   * identifier of an import that is already used by an earlier import is given a new unique
+   * identifier, and the references to it within the import are updated to match. The other
+   * {@code combine} methods resolve colliding controls instead. This is disabled by default.
+   *
+   * @param reassignIdentifiers
+   *          {@code true} to reassign colliding identifiers, or {@code false} otherwise
+   */
+  public void setReassignIdentifiers(boolean reassignIdentifiers) {
+    synchronized (this) {
+      this.reassignIdentifiers = reassignIdentifiers;
+    }
+  }
+
   @NonNull
   protected EntityResolver getEntityResolver(@NonNull URI documentUri) {
     return new DocumentEntityResolver(documentUri);
@@ -186,6 +271,8 @@ public class ProfileResolver {
    *          a {@link IDocumentNodeItem} containing the profile to resolve
    * @param importHistory
    *          the import stack for cycle detection
+   * @param diagnostics
+   *          the collector used to report non-fatal issues
    * @return the resolved profile
    * @throws IOException
    *           if an error occurred while loading the profile or an import
@@ -195,33 +282,94 @@ public class ProfileResolver {
   @NonNull
   protected IDocumentNodeItem resolveProfile(
       @NonNull IDocumentNodeItem profileDocument,
-      @NonNull Stack<URI> importHistory) throws IOException, ProfileResolutionException {
+      @NonNull Stack<URI> importHistory,
+      @NonNull IResolutionDiagnostics diagnostics) throws IOException, ProfileResolutionException {
     Catalog resolvedCatalog = new Catalog();
 
     generateMetadata(resolvedCatalog, profileDocument);
 
-    IIndexer index = resolveImports(resolvedCatalog, profileDocument, importHistory);
+    IIndexer index = resolveImports(resolvedCatalog, profileDocument, importHistory, diagnostics);
     handleReferences(resolvedCatalog, profileDocument, index);
     handleMerge(resolvedCatalog, profileDocument, index);
-    handleModify(resolvedCatalog, profileDocument);
+    handleModify(resolvedCatalog, profileDocument, index);
+
+    return newCatalogDocument(resolvedCatalog, profileDocument);
+  }
 
+  /**
+   * Create a new document node over the resolved catalog.
+   * <p>
+   * The child nodes of the returned document are created lazily, so this is cheap to call again
+   * when the catalog's structure has changed.
+   *
+   * @param resolvedCatalog
+   *          the resolved catalog
+   * @param profileDocument
+   *          the profile providing the base URI of the document
+   * @return the new document node
+   */
+  @NonNull
+  private static IDocumentNodeItem newCatalogDocument(
+      @NonNull Catalog resolvedCatalog,
+      @NonNull IDocumentNodeItem profileDocument) {
     return DefaultNodeItemFactory.instance().newDocumentNodeItem(
-        new RootAssemblyDefinition(
-            ObjectUtils.notNull(
-                (IAssemblyClassBinding) OscalBindingContext.instance().getClassBinding(Catalog.class))),
+        ObjectUtils.notNull(CATALOG_DEFINITION.get()),
         resolvedCatalog,
         profileDocument.getBaseUri());
   }
 
+  /**
+   * Resolve the profile to a catalog, logging a summary of any non-fatal issues found, even if
+   * resolution fails.
+   *
+   * @param profileOrCatalog
+   *          a {@link IDocumentNodeItem} containing the profile to resolve, or an already resolved
+   *          catalog
+   * @return the resolved profile
+   * @throws IOException
+   *           if an error occurred while loading the profile or an import
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving the profile
+   */
   @NonNull
   public IDocumentNodeItem resolve(@NonNull IDocumentNodeItem profileOrCatalog)
       throws IOException, ProfileResolutionException {
-    return resolve(profileOrCatalog, new Stack<>());
+    IResolutionDiagnostics diagnostics = new ResolutionDiagnostics();
+    try {
+      return resolve(profileOrCatalog, diagnostics);
+    } finally {
+      // issues found before a failure help explain it
+      diagnostics.log(LOGGER);
+    }
+  }
+
+  /**
+   * Resolve the profile to a catalog, reporting any non-fatal issues found to the provided
+   * collector.
+   *
+   * @param profileOrCatalog
+   *          a {@link IDocumentNodeItem} containing the profile to resolve, or an already resolved
+   *          catalog
+   * @param diagnostics
+   *          the collector used to report non-fatal issues
+   * @return the resolved profile
+   * @throws IOException
+   *           if an error occurred while loading the profile or an import
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving the profile
+   */
+  @NonNull
+  public IDocumentNodeItem resolve(
+      @NonNull IDocumentNodeItem profileOrCatalog,
+      @NonNull IResolutionDiagnostics diagnostics)
+      throws IOException, ProfileResolutionException {
+    return resolve(profileOrCatalog, new Stack<>(), diagnostics);
   }
 
   @NonNull
   protected IDocumentNodeItem resolve(@NonNull IDocumentNodeItem profileOrCatalog,
-      @NonNull Stack<URI> importHistory)
+      @NonNull Stack<URI> importHistory,
+      @NonNull IResolutionDiagnostics diagnostics)
       throws IOException, ProfileResolutionException {
     Object profileObject = profileOrCatalog.getValue();
 
@@ -231,7 +379,7 @@ public class ProfileResolver {
       retval = profileOrCatalog;
     } else {
       // must be a profile
-      retval = resolveProfile(profileOrCatalog, importHistory);
+      retval = resolveProfile(profileOrCatalog, importHistory, diagnostics);
     }
     return retval;
   }
@@ -281,7 +429,8 @@ public class ProfileResolver {
   private IIndexer resolveImports(
       @NonNull Catalog resolvedCatalog,
       @NonNull IDocumentNodeItem profileDocument,
-      @NonNull Stack<URI> importHistory)
+      @NonNull Stack<URI> importHistory,
+      @NonNull IResolutionDiagnostics diagnostics)
       throws IOException, ProfileResolutionException {
 
     IRootAssemblyNodeItem profileItem = profileDocument.getRootAssemblyNodeItem();
@@ -293,13 +442,23 @@ public class ProfileResolver {
     }
 
     // now process each import
-    IIndexer retval = new BasicIndexer();
+    IIndexer retval = new BasicIndexer(diagnostics);
+    ControlCombiner combiner = new ControlCombiner(getCombineMethod(toProfile(profileDocument)), retval);
+    // duplicate controls are only kept as is when not combined
+    boolean reassign = isReassignIdentifiers() && ControlCombiner.Method.KEEP.equals(combiner.getMethod());
     for (IRequiredValueModelNodeItem profileImportItem : profileImports) {
+      // identify the content added by this import, so that only it is combined
+      int firstControl = CollectionUtil.listOrEmpty(resolvedCatalog.getControls()).size();
+      int firstGroup = CollectionUtil.listOrEmpty(resolvedCatalog.getGroups()).size();
+
       IIndexer result = resolveImport(
           ObjectUtils.notNull(profileImportItem),
           profileDocument,
           importHistory,
-          resolvedCatalog);
+          resolvedCatalog,
+          diagnostics,
+          reassign ? retval : null);
+      combiner.combine(resolvedCatalog, firstControl, firstGroup, result);
       retval.append(result);
     }
     return retval;
@@ -310,7 +469,41 @@ public class ProfileResolver {
       @NonNull IRequiredValueModelNodeItem profileImportItem,
       @NonNull IDocumentNodeItem profileDocument,
       @NonNull Stack<URI> importHistory,
-      @NonNull Catalog resolvedCatalog) throws IOException, ProfileResolutionException {
+      @NonNull Catalog resolvedCatalog,
+      @NonNull IResolutionDiagnostics diagnostics) throws IOException, ProfileResolutionException {
+    return resolveImport(profileImportItem, profileDocument, importHistory, resolvedCatalog, diagnostics, null);
+  }
+
+  /**
+   * Resolve a single import, adding the selected content to the resolved catalog.
+   *
+   * @param profileImportItem
+   *          the import to resolve
+   * @param profileDocument
+   *          the profile containing the import
+   * @param importHistory
+   *          the chain of profiles being resolved, used to detect import cycles
+   * @param resolvedCatalog
+   *          the catalog to add the selected content to
+   * @param diagnostics
+   *          the collector used to report resolution issues
+   * @param existingIndex
+   *          the index of the earlier imports, used to reassign the identifiers of this import that
+   *          collide with them, or {@code null} if identifiers are not to be reassigned
+   * @return the index of the imported content
+   * @throws IOException
+   *           if an error occurred while loading the imported resource
+   * @throws ProfileResolutionException
+   *           if an error occurred while resolving the import
+   */
+  @NonNull
+  protected IIndexer resolveImport(
+      @NonNull IRequiredValueModelNodeItem profileImportItem,
+      @NonNull IDocumentNodeItem profileDocument,
+      @NonNull Stack<URI> importHistory,
+      @NonNull Catalog resolvedCatalog,
+      @NonNull IResolutionDiagnostics diagnostics,
+      @Nullable IIndexer existingIndex) throws IOException, ProfileResolutionException {
     ProfileImport profileImport = (ProfileImport) profileImportItem.getValue();
 
     URI importUri = profileImport.getHref();
@@ -338,7 +531,7 @@ public class ProfileResolver {
     importHistory.push(sourceUri);
     try {
       IDocumentNodeItem document = getDynamicContext().getDocumentLoader().loadAsNodeItem(source);
-      IDocumentNodeItem importedCatalog = resolve(document, importHistory);
+      IDocumentNodeItem importedCatalog = resolve(document, importHistory, diagnostics);
 
       // Create a defensive deep copy of the document and associated values, since we will be making
       // changes to the data.
@@ -348,7 +541,10 @@ public class ProfileResolver {
             OscalBindingContext.instance().copyBoundObject(importedCatalog.getValue(), null),
             importedCatalog.getDocumentUri());
 
-        return new Import(profileDocument, profileImportItem)
+        IIdentifierMapper mapper = existingIndex == null
+            ? IIdentifierMapper.IDENTITY
+            : CompiledIdentifierMapper.forCollisions((Catalog) importedCatalog.getValue(), existingIndex);
+        return new Import(profileDocument, profileImportItem, diagnostics, mapper)
             .resolve(importedCatalog, resolvedCatalog);
       } catch (BindingException ex) {
         throw new IOException(ex);
@@ -437,9 +633,28 @@ public class ProfileResolver {
     return retval;
   }
 
+  @NonNull
+  private static ControlCombiner.Method getCombineMethod(@NonNull Profile profile)
+      throws ProfileResolutionException {
+    Merge merge = profile.getMerge();
+    Merge.Combine combine = merge == null ? null : merge.getCombine();
+    String name = combine == null ? null : combine.getMethod();
+
+    ControlCombiner.Method retval;
+    if (name == null) {
+      retval = ControlCombiner.Method.KEEP;
+    } else {
+      retval = ControlCombiner.Method.forName(name);
+      if (retval == null) {
+        throw new ProfileResolutionException(String.format("Unsupported combine method '%s'", name));
+      }
+    }
+    return retval;
+  }
+
   protected void handleMerge(@NonNull Catalog resolvedCatalog, @NonNull IDocumentNodeItem profileDocument,
-      @NonNull IIndexer importIndex) {
-    // handle combine
+      @NonNull IIndexer importIndex) throws ProfileResolutionException {
+    // combine is handled as each import is resolved
 
     // handle structuring
     switch (getStructuringDirective(toProfile(profileDocument))) {
@@ -447,7 +662,8 @@ public class ProfileResolver {
       // do nothing
       break;
     case CUSTOM:
-      throw new UnsupportedOperationException("custom structuring");
+      structureCustom(resolvedCatalog, profileDocument, importIndex);
+      break;
     case FLAT:
     default:
       structureFlat(resolvedCatalog, profileDocument, importIndex);
@@ -479,53 +695,172 @@ public class ProfileResolver {
     // }
 
     // rebuild the document, since the paths have changed
-    IDocumentNodeItem resolvedCatalogItem = DefaultNodeItemFactory.instance().newDocumentNodeItem(
-        new RootAssemblyDefinition(
-            ObjectUtils.notNull(
-                (IAssemblyClassBinding) OscalBindingContext.instance().getClassBinding(Catalog.class))),
-        resolvedCatalog,
-        profileDocument.getBaseUri());
+    IDocumentNodeItem resolvedCatalogItem = newCatalogDocument(resolvedCatalog, profileDocument);
 
     FlatteningStructuringVisitor.instance().visitCatalog(resolvedCatalogItem, importIndex);
   }
 
-  @SuppressWarnings("PMD.ExceptionAsFlowControl") // ok
+  /**
+   * Apply the modifications in the profile to the resolved catalog, indexing the controls and
+   * parameters of the resolved catalog to find the modification targets.
+   *
+   * @param resolvedCatalog
+   *          the resolved catalog to modify
+   * @param profileDocument
+   *          the profile containing the modifications
+   * @throws ProfileResolutionException
+   *           if a modification could not be applied
+   */
   protected void handleModify(@NonNull Catalog resolvedCatalog, @NonNull IDocumentNodeItem profileDocument)
       throws ProfileResolutionException {
-    IDocumentNodeItem resolvedCatalogDocument = DefaultNodeItemFactory.instance().newDocumentNodeItem(
-        new RootAssemblyDefinition(
-            ObjectUtils.notNull(
-                (IAssemblyClassBinding) OscalBindingContext.instance().getClassBinding(Catalog.class))),
-        resolvedCatalog,
-        profileDocument.getBaseUri());
+    IIndexer indexer = new BasicIndexer();
+    ControlIndexingVisitor visitor = new ControlIndexingVisitor(
+        ObjectUtils.notNull(EnumSet.of(IEntityItem.ItemType.CONTROL, IEntityItem.ItemType.PARAMETER)));
+    visitor.visitCatalog(newCatalogDocument(resolvedCatalog, profileDocument), indexer);
+
+    handleModify(resolvedCatalog, profileDocument, indexer);
+  }
+
+  /**
+   * Apply the profile's custom structuring directive to the resolved catalog.
+   * <p>
+   * The catalog is first flattened, then the custom groups are built and the controls placed using
+   * the import index. The groups and parameters of the custom groups are added to the import index,
+   * so these can be targeted by the modify phase.
+   *
+   * @param resolvedCatalog
+   *          the resolved catalog to structure
+   * @param profileDocument
+   *          the profile containing the custom structuring directive
+   * @param importIndex
+   *          the index of the resolved catalog
+   * @throws ProfileResolutionException
+   *           if the custom structuring directive could not be copied
+   */
+  protected void structureCustom(@NonNull Catalog resolvedCatalog, @NonNull IDocumentNodeItem profileDocument,
+      @NonNull IIndexer importIndex) throws ProfileResolutionException {
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("applying custom structuring directive");
+    }
 
+    Merge.Custom custom;
     try {
-      IIndexer indexer = new BasicIndexer();
-      ControlIndexingVisitor visitor = new ControlIndexingVisitor(
-          ObjectUtils.notNull(EnumSet.of(IEntityItem.ItemType.CONTROL, IEntityItem.ItemType.PARAMETER)));
-      visitor.visitCatalog(resolvedCatalogDocument, indexer);
-
-      METAPATH_SET_PARAMETER.evaluate(profileDocument)
-          .forEach(item -> {
-            IRequiredValueAssemblyNodeItem setParameter = (IRequiredValueAssemblyNodeItem) item;
+      // the directive's content is moved into the catalog, so it must not be shared with the profile
+      custom = OscalBindingContext.instance().copyBoundObject(
+          ObjectUtils.requireNonNull(toProfile(profileDocument).getMerge().getCustom()),
+          null);
+    } catch (BindingException ex) {
+      throw new ProfileResolutionException(
+          String.format("Unable to copy the custom structuring directive in profile '%s'. %s",
+              profileDocument.getDocumentUri(),
+              ex.getLocalizedMessage()),
+          ex);
+    }
+
+    CustomStructuringBuilder builder = new CustomStructuringBuilder(resolvedCatalog);
+    structureFlat(resolvedCatalog, profileDocument, importIndex);
+    builder.build(ObjectUtils.notNull(custom), importIndex);
+
+    indexCustomGroups(newCatalogDocument(resolvedCatalog, profileDocument).getRootAssemblyNodeItem(), importIndex);
+  }
+
+  private static void indexCustomGroups(@NonNull IRequiredValueModelNodeItem parent, @NonNull IIndexer index) {
+    for (IRequiredValueModelNodeItem groupItem : parent.getModelItemsByName("group")) {
+      assert groupItem != null;
+      index.addGroup(groupItem);
+      for (IRequiredValueModelNodeItem paramItem : groupItem.getModelItemsByName("param")) {
+        assert paramItem != null;
+        index.addParameter(paramItem);
+      }
+      indexCustomGroups(groupItem, index);
+    }
+  }
+
+  /**
+   * Apply the modifications in the profile to the resolved catalog, using an existing index to find
+   * the modification targets.
+   * <p>
+   * The import and merge phases keep the control and parameter entries of the import index in step
+   * with the resolved catalog, removing those that are filtered out. This allows the index to be
+   * reused here instead of re-indexing the resolved catalog.
+   *
+   * @param resolvedCatalog
+   *          the resolved catalog to modify
+   * @param profileDocument
+   *          the profile containing the modifications
+   * @param indexer
+   *          an index containing the controls and parameters of the resolved catalog
+   * @throws ProfileResolutionException
+   *           if a modification could not be applied
+   */
+  @SuppressWarnings("PMD.ExceptionAsFlowControl") // ok
+  protected void handleModify(
+      @NonNull Catalog resolvedCatalog,
+      @NonNull IDocumentNodeItem profileDocument,
+      @NonNull IIndexer indexer)
+      throws ProfileResolutionException {
+    try {
+      handleSetParameters(profileDocument, indexer);
+      handleAlters(resolvedCatalog, profileDocument, indexer);
+    } catch (ProfileResolutionEvaluationException ex) {
+      throw new ProfileResolutionException(ex.getLocalizedMessage(), ex);
+    }
+  }
+
+  /**
+   * Apply the set-parameters in the profile to the resolved catalog.
+   * <p>
+   * Set-parameters targeting the same parameter are applied in document order. If
+   * {@link #isParallelModify()} is enabled, set-parameters targeting different parameters are
+   * applied concurrently.
+   *
+   * @param profileDocument
+   *          the profile containing the set-parameters
+   * @param indexer
+   *          the index of the parameters in the resolved catalog
+   * @throws ProfileResolutionEvaluationException
+   *           for the first set-parameter, in document order, that could not be applied
+   */
+  protected void handleSetParameters(@NonNull IDocumentNodeItem profileDocument, @NonNull IIndexer indexer) {
+    List<? extends IItem> items = METAPATH_SET_PARAMETER.evaluate(profileDocument).asList();
+    boolean parallel = isParallelModify();
+
+    Collection<List<Integer>> partitions;
+    if (parallel) {
+      Map<String, List<Integer>> paramIdToItems = new LinkedHashMap<>();
+      for (int index = 0; index < items.size(); index++) {
+        ProfileSetParameter setParameter
+            = (ProfileSetParameter) ((IRequiredValueAssemblyNodeItem) items.get(index)).getValue();
+        paramIdToItems.computeIfAbsent(setParameter.getParamId(), key -> new ArrayList<>()).add(index);
+      }
+      partitions = paramIdToItems.values();
+    } else {
+      partitions = List.of(IntStream.range(0, items.size()).boxed().collect(Collectors.toList()));
+    }
+
+    (parallel ? partitions.parallelStream() : partitions.stream())
+        .map(partition -> {
+          // a partition stops at its first failure, since a later failure cannot be reported
+          for (int index : partition) {
+            IRequiredValueAssemblyNodeItem setParameter = (IRequiredValueAssemblyNodeItem) items.get(index);
             try {
               handleSetParameter(setParameter, indexer);
             } catch (ProfileResolutionEvaluationException ex) {
-              throw new ProfileResolutionEvaluationException(
-                  String.format("Unable to apply the set-parameter at '%s'. %s",
-                      setParameter.toPath(IPathFormatter.METAPATH_PATH_FORMATER),
+              NodeItemLocation location = NodeItemLocation.of(setParameter);
+              return Map.entry(index, new ProfileResolutionEvaluationException(
+                  () -> String.format("Unable to apply the set-parameter at '%s'. %s",
+                      location,
                       ex.getLocalizedMessage()),
-                  ex);
+                  ex));
             }
-          });
-
-      METAPATH_ALTER.evaluate(profileDocument)
-          .forEach(item -> {
-            handleAlter((IRequiredValueAssemblyNodeItem) item, indexer);
-          });
-    } catch (ProfileResolutionEvaluationException ex) {
-      throw new ProfileResolutionException(ex.getLocalizedMessage(), ex);
-    }
+          }
+          return null;
+        })
+        .filter(Objects::nonNull)
+        .min(Map.Entry.comparingByKey())
+        .ifPresent(failure -> {
+          throw failure.getValue();
+        });
   }
 
   protected void handleSetParameter(IRequiredValueAssemblyNodeItem item, IIndexer indexer) {
@@ -534,7 +869,7 @@ public class ProfileResolver {
     IEntityItem entity = indexer.getEntity(IEntityItem.ItemType.PARAMETER, paramId, false);
     if (entity == null) {
       throw new ProfileResolutionEvaluationException(
-          String.format(
+          () -> String.format(
               "The parameter '%s' does not exist in the resolved catalog.",
               paramId));
     }
@@ -544,92 +879,333 @@ public class ProfileResolver {
     // apply the set parameter values
     param.setClazz(ModifyPhaseUtils.mergeItem(param.getClazz(), setParameter.getClazz()));
     param.setProps(ModifyPhaseUtils.merge(param.getProps(), setParameter.getProps(),
-        ModifyPhaseUtils.identifierKey(Property::getUuid)));
-    param.setLinks(ModifyPhaseUtils.merge(param.getLinks(), setParameter.getLinks(), ModifyPhaseUtils.identityKey()));
+        ModifyPhaseUtils.itemIdentifierKey(Property::getUuid)));
+    param.setLinks(ModifyPhaseUtils.merge(param.getLinks(), setParameter.getLinks(), ModifyPhaseUtils.itemKey()));
     param.setLabel(ModifyPhaseUtils.mergeItem(param.getLabel(), setParameter.getLabel()));
     param.setUsage(ModifyPhaseUtils.mergeItem(param.getUsage(), setParameter.getUsage()));
     param.setConstraints(
-        ModifyPhaseUtils.merge(param.getConstraints(), setParameter.getConstraints(), ModifyPhaseUtils.identityKey()));
+        ModifyPhaseUtils.merge(param.getConstraints(), setParameter.getConstraints(), ModifyPhaseUtils.itemKey()));
     param.setGuidelines(
-        ModifyPhaseUtils.merge(param.getGuidelines(), setParameter.getGuidelines(), ModifyPhaseUtils.identityKey()));
+        ModifyPhaseUtils.merge(param.getGuidelines(), setParameter.getGuidelines(), ModifyPhaseUtils.itemKey()));
     param.setValues(new LinkedList<>(setParameter.getValues()));
     param.setSelect(setParameter.getSelect());
   }
 
-  protected void handleAlter(IRequiredValueAssemblyNodeItem item, IIndexer indexer) {
-    Modify.Alter alter = (Modify.Alter) item.getValue();
-    String controlId = ObjectUtils.requireNonNull(alter.getControlId());
-    IEntityItem entity = indexer.getEntity(IEntityItem.ItemType.CONTROL, controlId, false);
-    if (entity == null) {
-      throw new ProfileResolutionEvaluationException(
-          String.format(
-              "Unable to apply the alter targeting control '%s' at '%s'."
-                  + " The control does not exist in the resolved catalog.",
-              controlId,
-              item.toPath(IPathFormatter.METAPATH_PATH_FORMATER)));
-    }
-    Control control = entity.getInstanceValue();
-
-    METAPATH_ALTER_REMOVE.evaluate(item)
-        .forEach(nodeItem -> {
-          IRequiredValueNodeItem removeItem = (IRequiredValueNodeItem) nodeItem;
-          Modify.Alter.Remove remove = ObjectUtils.notNull((Modify.Alter.Remove) removeItem.getValue());
-
-          try {
-            if (!RemoveVisitor.remove(
-                control,
-                remove.getByName(),
-                remove.getByClass(),
-                remove.getById(),
-                remove.getByNs(),
-                RemoveVisitor.TargetType.forFieldName(remove.getByItemName()))) {
-              throw new ProfileResolutionEvaluationException(
-                  String.format("The remove did not match a valid target"));
-            }
-          } catch (ProfileResolutionEvaluationException ex) {
-            throw new ProfileResolutionEvaluationException(
-                String.format("Unable to apply the remove targeting control '%s' at '%s'. %s",
-                    control.getId(),
-                    removeItem.toPath(IPathFormatter.METAPATH_PATH_FORMATER),
-                    ex.getLocalizedMessage()),
-                ex);
-          }
-        });
-    METAPATH_ALTER_ADD.evaluate(item)
-        .forEach(nodeItem -> {
-          IRequiredValueNodeItem addItem = (IRequiredValueNodeItem) nodeItem;
-          Modify.Alter.Add add = ObjectUtils.notNull((Modify.Alter.Add) addItem.getValue());
-          String byId = add.getById();
-          try {
-            if (!AddVisitor.add(
-                control,
-                AddVisitor.Position.forName(add.getPosition()),
-                byId,
-                add.getTitle(),
-                CollectionUtil.listOrEmpty(add.getParams()),
-                CollectionUtil.listOrEmpty(add.getProps()),
-                CollectionUtil.listOrEmpty(add.getLinks()),
-                CollectionUtil.listOrEmpty(add.getParts()))) {
-
-              throw new ProfileResolutionEvaluationException(
-                  String.format("The add did not match a valid target"));
-            }
-          } catch (ProfileResolutionEvaluationException ex) {
-            throw new ProfileResolutionEvaluationException(
-                String.format("Unable to apply the add targeting control '%s'%s at '%s'. %s",
-                    control.getId(),
-                    byId == null ? "" : String.format(" having by-id '%s'", byId),
-                    addItem.toPath(IPathFormatter.METAPATH_PATH_FORMATER),
-                    ex.getLocalizedMessage()),
-                ex);
+  /**
+   * Apply the alters in the profile to the resolved catalog.
+   * <p>
+   * The adds and removes of the alters targeting a given control are grouped into an
+   * {@link AlterPlan}, which applies them using a single traversal of the control. Alters are applied
+   * in document order relative to any alters targeting a control nested within the same top-level
+   * control. If more than one alter cannot be applied, the error for the first in document order is
+   * reported.
+   * <p>
+   * If {@link #isParallelModify()} is enabled, the alters for different top-level controls are
+   * applied concurrently.
+   *
+   * @param resolvedCatalog
+   *          the resolved catalog to alter
+   * @param profileDocument
+   *          the profile containing the alters
+   * @param indexer
+   *          the index of the controls in the resolved catalog
+   * @throws ProfileResolutionEvaluationException
+   *           if an alter could not be applied
+   */
+  protected void handleAlters(
+      @NonNull Catalog resolvedCatalog,
+      @NonNull IDocumentNodeItem profileDocument,
+      @NonNull IIndexer indexer) {
+    AlterPlanner planner = new AlterPlanner(resolvedCatalog, indexer);
+
+    ProfileResolutionEvaluationException planningFailure = null;
+    for (IItem item : METAPATH_ALTER.evaluate(profileDocument).asList()) {
+      try {
+        planner.plan((IRequiredValueAssemblyNodeItem) item);
+      } catch (ProfileResolutionEvaluationException ex) {
+        // later alters cannot fail before this one
+        planningFailure = ex;
+        break;
+      }
+    }
+
+    // a failure applying an earlier alter takes precedence over the planning failure
+    planner.apply(isParallelModify());
+
+    if (planningFailure != null) {
+      throw planningFailure;
+    }
+  }
+
+  /**
+   * Groups the adds and removes of a sequence of alters into {@link AlterPlan} instances by control.
+   */
+  private static final class AlterPlanner {
+    @NonNull
+    private final Catalog resolvedCatalog;
+    @NonNull
+    private final IIndexer indexer;
+    @NonNull
+    private final List<ControlAlters> controlAlters = new LinkedList<>();
+    /**
+     * The latest alters for a given control.
+     */
+    @NonNull
+    private final Map<Control, ControlAlters> controlToAlters = new IdentityHashMap<>();
+    /**
+     * The latest alters for any control within a given top-level control.
+     */
+    @NonNull
+    private final Map<Control, ControlAlters> rootControlToAlters = new IdentityHashMap<>();
+    /**
+     * The top-level control containing each nested control, built on first use.
+     */
+    private Map<Control, Control> controlToRootControl;
+    private int sequence;
+
+    private AlterPlanner(@NonNull Catalog resolvedCatalog, @NonNull IIndexer indexer) {
+      this.resolvedCatalog = resolvedCatalog;
+      this.indexer = indexer;
+    }
+
+    /**
+     * Get the top-level control containing the provided control.
+     * <p>
+     * This uses the current structure of the catalog, since the node items in the index may predate
+     * earlier phases of resolution that moved controls.
+     *
+     * @param control
+     *          the control to get the top-level control for
+     * @return the top-level control, which is the provided control if it is not nested
+     */
+    @NonNull
+    private Control getRootControl(@NonNull Control control) {
+      if (controlToRootControl == null) {
+        Map<Control, Control> map = new IdentityHashMap<>();
+        Deque<CatalogGroup> groups = new ArrayDeque<>(CollectionUtil.listOrEmpty(resolvedCatalog.getGroups()));
+        List<Control> rootControls = new ArrayList<>(CollectionUtil.listOrEmpty(resolvedCatalog.getControls()));
+        while (!groups.isEmpty()) {
+          CatalogGroup group = groups.pop();
+          rootControls.addAll(CollectionUtil.listOrEmpty(group.getControls()));
+          groups.addAll(CollectionUtil.listOrEmpty(group.getGroups()));
+        }
+
+        for (Control rootControl : rootControls) {
+          Deque<Control> nested = new ArrayDeque<>(CollectionUtil.listOrEmpty(rootControl.getControls()));
+          while (!nested.isEmpty()) {
+            Control child = nested.pop();
+            map.put(child, rootControl);
+            nested.addAll(CollectionUtil.listOrEmpty(child.getControls()));
           }
-        });
+        }
+        controlToRootControl = map;
+      }
+      return ObjectUtils.notNull(controlToRootControl.getOrDefault(control, control));
+    }
+
+    public void plan(@NonNull IRequiredValueAssemblyNodeItem item) {
+      Modify.Alter alter = (Modify.Alter) item.getValue();
+      String controlId = ObjectUtils.requireNonNull(alter.getControlId());
+      IEntityItem entity = indexer.getEntity(IEntityItem.ItemType.CONTROL, controlId, false);
+      if (entity == null) {
+        NodeItemLocation location = NodeItemLocation.of(item);
+        throw new ProfileResolutionEvaluationException(
+            () -> String.format(
+                "Unable to apply the alter targeting control '%s' at '%s'."
+                    + " The control does not exist in the resolved catalog.",
+                controlId,
+                location));
+      }
+      Control control = entity.getInstanceValue();
+      Control rootControl = getRootControl(control);
+
+      // reuse the control's plan, unless a related control has been altered since
+      ControlAlters alters = controlToAlters.get(control);
+      if (alters == null || alters != rootControlToAlters.get(rootControl)) {
+        alters = new ControlAlters(new AlterPlan(control), rootControl);
+        controlAlters.add(alters);
+        controlToAlters.put(control, alters);
+        rootControlToAlters.put(rootControl, alters);
+      }
+
+      for (IItem nodeItem : METAPATH_ALTER_REMOVE.evaluate(item).asList()) {
+        planRemove(alters, (IRequiredValueNodeItem) nodeItem);
+      }
+
+      for (IItem nodeItem : METAPATH_ALTER_ADD.evaluate(item).asList()) {
+        planAdd(alters, (IRequiredValueNodeItem) nodeItem);
+      }
+    }
+
+    private void planRemove(@NonNull ControlAlters alters, @NonNull IRequiredValueNodeItem removeItem) {
+      Modify.Alter.Remove remove = ObjectUtils.notNull((Modify.Alter.Remove) removeItem.getValue());
+      Control control = alters.getPlan().getControl();
+
+      try {
+        alters.getPlan().remove(
+            remove.getByName(),
+            remove.getByClass(),
+            remove.getById(),
+            remove.getByNs(),
+            RemoveVisitor.TargetType.forFieldName(remove.getByItemName()));
+      } catch (ProfileResolutionEvaluationException ex) {
+        throw newRemoveException(control, removeItem, ex);
+      }
+      alters.addSequence(sequence++, () -> newRemoveException(
+          control,
+          removeItem,
+          new ProfileResolutionEvaluationException("The remove did not match a valid target")));
+    }
+
+    private void planAdd(@NonNull ControlAlters alters, @NonNull IRequiredValueNodeItem addItem) {
+      Modify.Alter.Add add = ObjectUtils.notNull((Modify.Alter.Add) addItem.getValue());
+      Control control = alters.getPlan().getControl();
+      String byId = add.getById();
+
+      try {
+        alters.getPlan().add(
+            AddVisitor.Position.forName(add.getPosition()),
+            byId,
+            add.getTitle(),
+            CollectionUtil.listOrEmpty(add.getParams()),
+            CollectionUtil.listOrEmpty(add.getProps()),
+            CollectionUtil.listOrEmpty(add.getLinks()),
+            CollectionUtil.listOrEmpty(add.getParts()));
+      } catch (ProfileResolutionEvaluationException ex) {
+        throw newAddException(control, addItem, byId, ex);
+      }
+      alters.addSequence(sequence++, () -> newAddException(
+          control,
+          addItem,
+          byId,
+          new ProfileResolutionEvaluationException("The add did not match a valid target")));
+    }
+
+    /**
+     * Apply the planned alters.
+     * <p>
+     * Plans for controls within the same top-level control are applied in order. Plans for
+     * different top-level controls do not affect each other, so these may be applied concurrently.
+     *
+     * @param parallel
+     *          {@code true} if the plans for different top-level controls are to be applied
+     *          concurrently, or {@code false} otherwise
+     * @throws ProfileResolutionEvaluationException
+     *           for the first add or remove, in document order, that did not match a valid target
+     */
+    public void apply(boolean parallel) {
+      Collection<List<ControlAlters>> partitions;
+      if (parallel) {
+        Map<Control, List<ControlAlters>> rootControlToPlans = new IdentityHashMap<>();
+        for (ControlAlters alters : controlAlters) {
+          rootControlToPlans.computeIfAbsent(alters.getRootControl(), key -> new ArrayList<>()).add(alters);
+        }
+        partitions = rootControlToPlans.values();
+      } else {
+        partitions = List.of(controlAlters);
+      }
+
+      (parallel ? partitions.parallelStream() : partitions.stream())
+          .map(AlterPlanner::apply)
+          .filter(Objects::nonNull)
+          .min(Map.Entry.comparingByKey())
+          .ifPresent(failure -> {
+            throw failure.getValue().get();
+          });
+    }
+
+    @Nullable
+    private static Map.Entry<Integer, Supplier<ProfileResolutionEvaluationException>> apply(
+        @NonNull List<ControlAlters> partition) {
+      Map.Entry<Integer, Supplier<ProfileResolutionEvaluationException>> retval = null;
+      for (ControlAlters alters : partition) {
+        AlterPlan plan = alters.getPlan();
+        int index = plan.apply().nextClearBit(0);
+        if (index < plan.size() && (retval == null || alters.getSequence(index) < retval.getKey())) {
+          retval = Map.entry(alters.getSequence(index), alters.getFailure(index));
+        }
+      }
+      return retval;
+    }
+
+    @NonNull
+    private static ProfileResolutionEvaluationException newRemoveException(
+        @NonNull Control control,
+        @NonNull IRequiredValueNodeItem removeItem,
+        @NonNull ProfileResolutionEvaluationException ex) {
+      NodeItemLocation location = NodeItemLocation.of(removeItem);
+      return new ProfileResolutionEvaluationException(
+          () -> String.format("Unable to apply the remove targeting control '%s' at '%s'. %s",
+              control.getId(),
+              location,
+              ex.getLocalizedMessage()),
+          ex);
+    }
+
+    @NonNull
+    private static ProfileResolutionEvaluationException newAddException(
+        @NonNull Control control,
+        @NonNull IRequiredValueNodeItem addItem,
+        @Nullable String byId,
+        @NonNull ProfileResolutionEvaluationException ex) {
+      NodeItemLocation location = NodeItemLocation.of(addItem);
+      return new ProfileResolutionEvaluationException(
+          () -> String.format("Unable to apply the add targeting control '%s'%s at '%s'. %s",
+              control.getId(),
+              byId == null ? "" : String.format(" having by-id '%s'", byId),
+              location,
+              ex.getLocalizedMessage()),
+          ex);
+    }
+  }
+
+  /**
+   * The planned adds and removes for a control, along with their document order.
+   */
+  private static final class ControlAlters {
+    @NonNull
+    private final AlterPlan plan;
+    @NonNull
+    private final Control rootControl;
+    @NonNull
+    private final List<Integer> sequences = new ArrayList<>();
+    @NonNull
+    private final List<Supplier<ProfileResolutionEvaluationException>> failures = new ArrayList<>();
+
+    private ControlAlters(@NonNull AlterPlan plan, @NonNull Control rootControl) {
+      this.plan = plan;
+      this.rootControl = rootControl;
+    }
+
+    @NonNull
+    public AlterPlan getPlan() {
+      return plan;
+    }
+
+    @NonNull
+    public Control getRootControl() {
+      return rootControl;
+    }
+
+    public void addSequence(int sequence, @NonNull Supplier<ProfileResolutionEvaluationException> failure) {
+      sequences.add(sequence);
+      failures.add(failure);
+    }
+
+    public int getSequence(int index) {
+      return sequences.get(index);
+    }
+
+    @NonNull
+    public Supplier<ProfileResolutionEvaluationException> getFailure(int index) {
+      return ObjectUtils.notNull(failures.get(index));
+    }
   }
 
   private static void handleReferences(@NonNull Catalog resolvedCatalog, @NonNull IDocumentNodeItem profileDocument,
       @NonNull IIndexer index) {
 
-    BasicIndexer profileIndex = new BasicIndexer();
+    BasicIndexer profileIndex = new BasicIndexer(index.getDiagnostics());
 
     new ControlIndexingVisitor(ObjectUtils.notNull(EnumSet.allOf(ItemType.class)))
         .visitProfile(profileDocument, profileIndex);
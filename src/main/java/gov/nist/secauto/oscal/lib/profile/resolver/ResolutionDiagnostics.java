@@ -0,0 +1,164 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import gov.nist.secauto.metaschema.model.common.metapath.format.IPathFormatter;
+import gov.nist.secauto.metaschema.model.common.metapath.item.INodeItem;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * The default {@link IResolutionDiagnostics} implementation.
+ */
+public class ResolutionDiagnostics implements IResolutionDiagnostics {
+  /**
+   * The default number of locations retained for each distinct issue.
+   */
+  public static final int DEFAULT_SAMPLE_LIMIT = 5;
+
+  private final int sampleLimit;
+  @NonNull
+  private final AtomicLong sequence = new AtomicLong();
+  @NonNull
+  private final Map<Kind, Map<String, Diagnostic>> kindToKeyToDiagnosticMap;
+
+  /**
+   * Construct a new collector that retains up to {@link #DEFAULT_SAMPLE_LIMIT} locations per issue.
+   */
+  public ResolutionDiagnostics() {
+    this(DEFAULT_SAMPLE_LIMIT);
+  }
+
+  /**
+   * Construct a new collector.
+   *
+   * @param sampleLimit
+   *          the maximum number of locations to retain for each distinct issue
+   */
+  public ResolutionDiagnostics(int sampleLimit) {
+    if (sampleLimit < 0) {
+      throw new IllegalArgumentException("the sample limit must not be negative");
+    }
+    this.sampleLimit = sampleLimit;
+
+    // populated up front, so the outer map is only read after construction
+    Map<Kind, Map<String, Diagnostic>> map = new EnumMap<>(Kind.class);
+    for (Kind kind : Kind.values()) {
+      map.put(kind, new ConcurrentHashMap<>());
+    }
+    this.kindToKeyToDiagnosticMap = map;
+  }
+
+  @Override
+  public void record(Kind kind, String key, INodeItem location) {
+    Diagnostic diagnostic = ObjectUtils.notNull(kindToKeyToDiagnosticMap.get(kind))
+        .computeIfAbsent(key, k -> new Diagnostic(kind, k, sequence.getAndIncrement(), sampleLimit));
+    diagnostic.occurrence(location);
+  }
+
+  @Override
+  public Collection<? extends IDiagnostic> getDiagnostics() {
+    List<Diagnostic> retval = kindToKeyToDiagnosticMap.values().stream()
+        .flatMap(map -> map.values().stream())
+        .sorted(Comparator.comparingLong(Diagnostic::getSequence))
+        .collect(Collectors.toList());
+    return CollectionUtil.unmodifiableList(ObjectUtils.notNull(retval));
+  }
+
+  private static final class Diagnostic implements IDiagnostic {
+    @NonNull
+    private final Kind kind;
+    @NonNull
+    private final String key;
+    private final long sequence;
+    @NonNull
+    private final AtomicLong count = new AtomicLong();
+    @NonNull
+    private final AtomicReferenceArray<INodeItem> samples;
+
+    private Diagnostic(@NonNull Kind kind, @NonNull String key, long sequence, int sampleLimit) {
+      this.kind = kind;
+      this.key = key;
+      this.sequence = sequence;
+      this.samples = new AtomicReferenceArray<>(sampleLimit);
+    }
+
+    private void occurrence(@Nullable INodeItem location) {
+      long index = count.getAndIncrement();
+      if (location != null && index < samples.length()) {
+        samples.set((int) index, location);
+      }
+    }
+
+    private long getSequence() {
+      return sequence;
+    }
+
+    @Override
+    public Kind getKind() {
+      return kind;
+    }
+
+    @Override
+    public String getKey() {
+      return key;
+    }
+
+    @Override
+    public long getOccurrenceCount() {
+      return count.get();
+    }
+
+    @Override
+    public List<String> getSampleLocations() {
+      int size = (int) Math.min(samples.length(), count.get());
+      List<String> retval = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        INodeItem location = samples.get(i);
+        if (location != null) {
+          retval.add(location.toPath(IPathFormatter.METAPATH_PATH_FORMATER));
+        }
+      }
+      return retval.isEmpty() ? CollectionUtil.emptyList() : Collections.unmodifiableList(retval);
+    }
+  }
+}
@@ -187,7 +187,7 @@ public class AddVisitor implements ICatalogVisitor<Boolean, AddVisitor.Context>
     APPLICABLE_TARGETS.put(TargetType.PART, Set.of(TargetType.PART));
   }
 
-  private static Set<TargetType> getApplicableTypes(@NonNull TargetType type) {
+  static Set<TargetType> getApplicableTypes(@NonNull TargetType type) {
     return APPLICABLE_TARGETS.getOrDefault(type, CollectionUtil.emptySet());
   }
 
@@ -308,6 +308,102 @@ public class AddVisitor implements ICatalogVisitor<Boolean, AddVisitor.Context>
     return retval;
   }
 
+  /**
+   * Apply the add to the control, if the control is the target of the add.
+   *
+   * @param control
+   *          the control to apply the add to
+   * @param context
+   *          the add context
+   * @return {@code true} if a modification was made or {@code false} otherwise
+   */
+  static boolean handleCurrent(@NonNull Control control, @NonNull Context context) {
+    if (control.getParams() == null) {
+      control.setParams(new LinkedList<>());
+    }
+
+    if (control.getProps() == null) {
+      control.setProps(new LinkedList<>());
+    }
+
+    if (control.getLinks() == null) {
+      control.setLinks(new LinkedList<>());
+    }
+
+    if (control.getParts() == null) {
+      control.setParts(new LinkedList<>());
+    }
+
+    return handleCurrent(
+        control,
+        title -> control.setTitle(title),
+        () -> control.getParams(),
+        () -> control.getProps(),
+        () -> control.getLinks(),
+        () -> control.getParts(),
+        context);
+  }
+
+  /**
+   * Apply the add to the parameter, if the parameter is the target of the add.
+   *
+   * @param parameter
+   *          the parameter to apply the add to
+   * @param context
+   *          the add context
+   * @return {@code true} if a modification was made or {@code false} otherwise
+   */
+  static boolean handleCurrent(@NonNull Parameter parameter, @NonNull Context context) {
+    if (parameter.getProps() == null) {
+      parameter.setProps(new LinkedList<>());
+    }
+
+    if (parameter.getLinks() == null) {
+      parameter.setLinks(new LinkedList<>());
+    }
+
+    return handleCurrent(
+        parameter,
+        null,
+        null,
+        () -> parameter.getProps(),
+        () -> parameter.getLinks(),
+        null,
+        context);
+  }
+
+  /**
+   * Apply the add to the part, if the part is the target of the add.
+   *
+   * @param part
+   *          the part to apply the add to
+   * @param context
+   *          the add context
+   * @return {@code true} if a modification was made or {@code false} otherwise
+   */
+  static boolean handleCurrent(@NonNull ControlPart part, @NonNull Context context) {
+    if (part.getProps() == null) {
+      part.setProps(new LinkedList<>());
+    }
+
+    if (part.getLinks() == null) {
+      part.setLinks(new LinkedList<>());
+    }
+
+    if (part.getParts() == null) {
+      part.setParts(new LinkedList<>());
+    }
+
+    return handleCurrent(
+        part,
+        null,
+        null,
+        () -> part.getProps(),
+        () -> part.getLinks(),
+        () -> part.getParts(),
+        context);
+  }
+
   private static <T> void handleCollection(
       @NonNull Position position,
       @NonNull List<T> newItems,
@@ -416,30 +512,7 @@ public class AddVisitor implements ICatalogVisitor<Boolean, AddVisitor.Context>
   public Boolean visitControl(Control control, Context context) {
     assert context != null;
 
-    if (control.getParams() == null) {
-      control.setParams(new LinkedList<>());
-    }
-
-    if (control.getProps() == null) {
-      control.setProps(new LinkedList<>());
-    }
-
-    if (control.getLinks() == null) {
-      control.setLinks(new LinkedList<>());
-    }
-
-    if (control.getParts() == null) {
-      control.setParts(new LinkedList<>());
-    }
-
-    boolean retval = handleCurrent(
-        control,
-        title -> control.setTitle(title),
-        () -> control.getParams(),
-        () -> control.getProps(),
-        () -> control.getLinks(),
-        () -> control.getParts(),
-        context);
+    boolean retval = handleCurrent(control, context);
 
     // visit params
     retval = retval || handleChild(
@@ -470,22 +543,7 @@ public class AddVisitor implements ICatalogVisitor<Boolean, AddVisitor.Context>
   @Override
   public Boolean visitParameter(Parameter parameter, Context context) {
     assert context != null;
-    if (parameter.getProps() == null) {
-      parameter.setProps(new LinkedList<>());
-    }
-
-    if (parameter.getLinks() == null) {
-      parameter.setLinks(new LinkedList<>());
-    }
-
-    return handleCurrent(
-        parameter,
-        null,
-        null,
-        () -> parameter.getProps(),
-        () -> parameter.getLinks(),
-        null,
-        context);
+    return handleCurrent(parameter, context);
   }
 
   /**
@@ -499,26 +557,8 @@ public class AddVisitor implements ICatalogVisitor<Boolean, AddVisitor.Context>
    */
   public boolean visitPart(ControlPart part, Context context) {
     assert context != null;
-    if (part.getProps() == null) {
-      part.setProps(new LinkedList<>());
-    }
 
-    if (part.getLinks() == null) {
-      part.setLinks(new LinkedList<>());
-    }
-
-    if (part.getParts() == null) {
-      part.setParts(new LinkedList<>());
-    }
-
-    boolean retval = handleCurrent(
-        part,
-        null,
-        null,
-        () -> part.getProps(),
-        () -> part.getLinks(),
-        () -> part.getParts(),
-        context);
+    boolean retval = handleCurrent(part, context);
 
     // visit parts
     retval = retval || handleChild(
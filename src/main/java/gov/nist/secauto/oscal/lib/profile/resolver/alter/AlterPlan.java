@@ -0,0 +1,902 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.alter;
+
+import gov.nist.secauto.metaschema.model.common.datatype.markup.MarkupLine;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.ControlPart;
+import gov.nist.secauto.oscal.lib.model.Link;
+import gov.nist.secauto.oscal.lib.model.Parameter;
+import gov.nist.secauto.oscal.lib.model.Property;
+import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolutionEvaluationException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * A sequence of add and remove directives targeting a single control, which are applied together
+ * using a single traversal of the control's content.
+ * <p>
+ * The directives are applied in the order they are added to the plan, with the same result as
+ * applying each directive in turn using {@link RemoveVisitor#remove(Control, String, String, String,
+ * String, RemoveVisitor.TargetType)} and
+ * {@link AddVisitor#add(Control, AddVisitor.Position, String, MarkupLine, List, List, List, List)}. To
+ * provide this, the traversal tracks the following for each directive:
+ * <ul>
+ * <li>Items added by a directive are not visible to the preceding directives.</li>
+ * <li>An item removed by a directive remains visible to the preceding directives until they have
+ * finished visiting the item and its children.</li>
+ * <li>Items added before an item are visited by the following directives before the item itself.</li>
+ * </ul>
+ * <p>
+ * Directives targeting an identifier only visit the items that contain an item with that
+ * identifier, using an index of the control's content that is built when the plan is applied.
+ */
+public class AlterPlan {
+  @NonNull
+  private final Control control;
+  @NonNull
+  private final List<IEdit> edits = new ArrayList<>();
+  /**
+   * Maps each item added by an add directive to the index of that directive.
+   */
+  @NonNull
+  private final Map<Object, Integer> addedItems = new IdentityHashMap<>();
+  /**
+   * Maps each identifier to the items having that identifier, along with the items containing them.
+   * This is built when the plan is applied, if any directive targets an identifier.
+   */
+  @Nullable
+  private Map<String, Set<Object>> idToItems;
+  /**
+   * For each directive, the preceding directives that add an item having the directive's target
+   * identifier. This is built along with {@link #idToItems}.
+   */
+  @Nullable
+  private int[][] targetAdders;
+  /**
+   * The items containing the item currently being visited, with the innermost first.
+   */
+  @NonNull
+  private final Deque<Object> ancestors = new ArrayDeque<>();
+
+  /**
+   * Construct a new, empty plan for the provided control.
+   *
+   * @param control
+   *          the control target
+   */
+  public AlterPlan(@NonNull Control control) {
+    this.control = control;
+  }
+
+  /**
+   * Get the control targeted by this plan.
+   *
+   * @return the control
+   */
+  @NonNull
+  public Control getControl() {
+    return control;
+  }
+
+  /**
+   * Get the number of directives in this plan.
+   *
+   * @return the number of directives
+   */
+  public int size() {
+    return edits.size();
+  }
+
+  /**
+   * Add a remove directive to the plan.
+   *
+   * @param objectName
+   *          the name flag of a matching node to remove
+   * @param objectClass
+   *          the class flag of a matching node to remove
+   * @param objectId
+   *          the id flag of a matching node to remove
+   * @param objectNamespace
+   *          the namespace flag of a matching node to remove
+   * @param itemType
+   *          the type of a matching node to remove
+   * @return the index of the directive in this plan
+   * @throws ProfileResolutionEvaluationException
+   *           if the directive is not valid
+   */
+  public int remove(
+      @Nullable String objectName,
+      @Nullable String objectClass,
+      @Nullable String objectId,
+      @Nullable String objectNamespace,
+      @Nullable RemoveVisitor.TargetType itemType) {
+    RemoveVisitor.Context context
+        = new RemoveVisitor.Context(objectName, objectClass, objectId, objectNamespace, itemType);
+
+    int index = edits.size();
+    edits.add(new RemoveEdit(context));
+    return index;
+  }
+
+  /**
+   * Add an add directive to the plan.
+   *
+   * @param position
+   *          the position to apply the content or {@code null}
+   * @param byId
+   *          the identifier of the target or {@code null}
+   * @param title
+   *          a title to set
+   * @param params
+   *          parameters to add
+   * @param props
+   *          properties to add
+   * @param links
+   *          links to add
+   * @param parts
+   *          parts to add
+   * @return the index of the directive in this plan
+   * @throws ProfileResolutionEvaluationException
+   *           if the directive is not valid
+   */
+  public int add(
+      @Nullable AddVisitor.Position position,
+      @Nullable String byId,
+      @Nullable MarkupLine title,
+      @NonNull List<Parameter> params,
+      @NonNull List<Property> props,
+      @NonNull List<Link> links,
+      @NonNull List<ControlPart> parts) {
+    AddVisitor.Context context = new AddVisitor.Context(
+        control,
+        position == null ? AddVisitor.Position.ENDING : position,
+        byId,
+        title,
+        params,
+        props,
+        links,
+        parts);
+
+    int index = edits.size();
+    edits.add(new AddEdit(context));
+
+    Integer key = index;
+    params.forEach(item -> addedItems.put(item, key));
+    props.forEach(item -> addedItems.put(item, key));
+    links.forEach(item -> addedItems.put(item, key));
+    parts.forEach(item -> addedItems.put(item, key));
+    return index;
+  }
+
+  /**
+   * Apply the directives in this plan to the control.
+   *
+   * @return the indexes of the directives that made a modification
+   */
+  @NonNull
+  public BitSet apply() {
+    int size = edits.size();
+    int[] active = new int[size];
+    for (int index = 0; index < size; index++) {
+      active[index] = index;
+    }
+
+    if (edits.stream().anyMatch(edit -> edit.getTargetId() != null)) {
+      buildIndex();
+    }
+
+    boolean[] results = visit(control, active);
+    idToItems = null;
+    targetAdders = null;
+
+    BitSet retval = new BitSet(size);
+    for (int index = 0; index < size; index++) {
+      if (results[index]) {
+        retval.set(index);
+      }
+    }
+    return retval;
+  }
+
+  /**
+   * Visit the provided item and its children using the active directives.
+   *
+   * @param item
+   *          the control, parameter, or part to visit
+   * @param active
+   *          the ascending indexes of the directives visiting the item
+   * @return the result of each active directive
+   */
+  @NonNull
+  private boolean[] visit(@NonNull Object item, @NonNull int[] active) {
+    boolean[] results = new boolean[active.length];
+    for (int index = 0; index < active.length; index++) {
+      IEdit edit = edits.get(active[index]);
+      results[index] = edit.handleCurrent(item);
+      if (results[index]) {
+        indexItems(item, edit.getNewItems(ChildType.PARAM));
+        indexItems(item, edit.getNewItems(ChildType.PART));
+      }
+    }
+
+    ancestors.push(item);
+    try {
+      visitChildren(item, active, results);
+    } finally {
+      ancestors.pop();
+    }
+    return results;
+  }
+
+  private void visitChildren(@NonNull Object item, @NonNull int[] active, @NonNull boolean[] results) {
+    int[] positions = new int[active.length];
+    for (ChildType type : ChildType.forParent(item)) {
+      // a directive is done visiting the children of this item once it has made a modification
+      int count = 0;
+      for (int index = 0; index < active.length; index++) {
+        IEdit edit = edits.get(active[index]);
+        if (!results[index] && (edit.isMatching(type) || edit.isDescending(type))) {
+          positions[count++] = index;
+        }
+      }
+
+      List<Object> children = type.getChildren(item);
+      if (count > 0 && children != null && !children.isEmpty()) {
+        int[] participants = new int[count];
+        for (int index = 0; index < count; index++) {
+          participants[index] = active[positions[index]];
+        }
+
+        boolean[] childResults = new ChildrenVisit(type, participants).visit(children);
+        for (int index = 0; index < count; index++) {
+          results[positions[index]] = childResults[index];
+        }
+      }
+    }
+  }
+
+  private boolean isVisible(@Nullable Object item, int editIndex) {
+    Integer addedBy = addedItems.get(item);
+    return addedBy == null || addedBy < editIndex;
+  }
+
+  /**
+   * Determine if the provided item is, or may contain, the target of the directive.
+   *
+   * @param item
+   *          the item to check
+   * @param editIndex
+   *          the index of the directive
+   * @return {@code true} if the item may contain the target or {@code false} otherwise
+   */
+  private boolean isTargetContainer(@NonNull Object item, int editIndex) {
+    String targetId = edits.get(editIndex).getTargetId();
+    boolean retval = true;
+    if (targetId != null && idToItems != null) {
+      Set<Object> items = idToItems.get(targetId);
+      retval = items != null && items.contains(item);
+
+      if (!retval) {
+        assert targetAdders != null;
+        // the target may yet be added within the item by a preceding directive
+        for (int adder : targetAdders[editIndex]) {
+          if (isTargetContainer(item, adder)) {
+            retval = true;
+            break;
+          }
+        }
+      }
+    }
+    return retval;
+  }
+
+  private void buildIndex() {
+    idToItems = new HashMap<>();
+    indexItem(control);
+
+    int size = edits.size();
+    int[][] adders = new int[size][];
+    for (int index = 0; index < size; index++) {
+      String targetId = edits.get(index).getTargetId();
+      adders[index] = targetId == null
+          ? new int[0]
+          : IntStream.range(0, index)
+              .filter(adder -> edits.get(adder).getAddedIds().contains(targetId))
+              .toArray();
+    }
+    targetAdders = adders;
+  }
+
+  /**
+   * Index the provided items, which have been added to the provided parent item.
+   *
+   * @param parent
+   *          the parent item
+   * @param items
+   *          the added items
+   */
+  private void indexItems(@NonNull Object parent, @NonNull List<?> items) {
+    if (idToItems != null && !items.isEmpty()) {
+      // the parent is not yet on the stack when visiting its children
+      boolean push = ancestors.peek() != parent;
+      if (push) {
+        ancestors.push(parent);
+      }
+      try {
+        for (Object item : items) {
+          indexItem(ObjectUtils.requireNonNull(item));
+        }
+      } finally {
+        if (push) {
+          ancestors.pop();
+        }
+      }
+    }
+  }
+
+  private void indexItem(@NonNull Object item) {
+    assert idToItems != null;
+
+    String id = getId(item);
+    if (id != null) {
+      Set<Object> items = idToItems.computeIfAbsent(
+          id,
+          key -> Collections.newSetFromMap(new IdentityHashMap<>()));
+      items.add(item);
+      items.addAll(ancestors);
+    }
+
+    ancestors.push(item);
+    try {
+      for (ChildType type : ChildType.forParent(item)) {
+        if (ChildType.PARAM.equals(type) || ChildType.PART.equals(type) || ChildType.CONTROL.equals(type)) {
+          for (Object child : CollectionUtil.listOrEmpty(type.getChildren(item))) {
+            if (child != null) {
+              indexItem(child);
+            }
+          }
+        }
+      }
+    } finally {
+      ancestors.pop();
+    }
+  }
+
+  @Nullable
+  private static String getId(@NonNull Object item) {
+    String retval;
+    if (item instanceof Control) {
+      retval = ((Control) item).getId();
+    } else if (item instanceof Parameter) {
+      retval = ((Parameter) item).getId();
+    } else if (item instanceof ControlPart) {
+      ControlPart part = (ControlPart) item;
+      retval = part.getId() == null ? null : part.getId().toString();
+    } else {
+      retval = null;
+    }
+    return retval;
+  }
+
+  /**
+   * A visit of a single collection of child items by a set of directives.
+   */
+  private final class ChildrenVisit {
+    @NonNull
+    private final ChildType type;
+    @NonNull
+    private final int[] participants;
+    @NonNull
+    private final boolean[] results;
+    private boolean modified;
+
+    private ChildrenVisit(@NonNull ChildType type, @NonNull int[] participants) {
+      this.type = type;
+      this.participants = participants;
+      this.results = new boolean[participants.length];
+    }
+
+    @NonNull
+    public boolean[] visit(@NonNull List<Object> children) {
+      List<Object> items = new ArrayList<>(children);
+      int index = 0;
+      while (index < items.size()) {
+        index = visitItem(items, index);
+      }
+
+      if (modified) {
+        children.clear();
+        children.addAll(items);
+      }
+      return results;
+    }
+
+    /**
+     * Visit the item at the provided index.
+     *
+     * @param items
+     *          the current items
+     * @param index
+     *          the index of the item to visit
+     * @return the index of the next item to visit
+     */
+    private int visitItem(@NonNull List<Object> items, int index) {
+      Object item = items.get(index);
+      int position = index;
+
+      int[] descending = new int[participants.length];
+      int descendingCount = 0;
+      boolean removed = false;
+      for (int participant = 0; participant < participants.length && !removed; participant++) {
+        int editIndex = participants[participant];
+        if (!isVisible(item, editIndex)) {
+          continue;
+        }
+
+        IEdit edit = edits.get(editIndex);
+        Action action = edit.isMatching(type) ? edit.match(item) : Action.NONE;
+        switch (action) {
+        case REMOVE:
+          removed = true;
+          results[participant] = true;
+          modified = true;
+          break;
+        case INSERT_BEFORE: {
+          List<?> newItems = edit.getNewItems(type);
+          items.addAll(position, newItems);
+          indexItems(ObjectUtils.notNull(ancestors.peek()), newItems);
+          results[participant] = true;
+          modified = true;
+
+          // the following directives visit the new items before this item
+          int next = position;
+          while (items.get(next) != item) {
+            next = visitItem(items, next);
+          }
+          position = next;
+          break;
+        }
+        case INSERT_AFTER: {
+          List<?> newItems = edit.getNewItems(type);
+          items.addAll(position + 1, newItems);
+          indexItems(ObjectUtils.notNull(ancestors.peek()), newItems);
+          results[participant] = true;
+          modified = true;
+          break;
+        }
+        case NONE:
+          break;
+        default:
+          throw new UnsupportedOperationException(action.name());
+        }
+
+        if (!removed && !results[participant] && item != null && edit.isDescending(type)
+            && isTargetContainer(item, editIndex)) {
+          descending[descendingCount++] = participant;
+        }
+      }
+
+      if (descendingCount > 0) {
+        assert item != null;
+
+        int[] active = new int[descendingCount];
+        for (int descendingIndex = 0; descendingIndex < descendingCount; descendingIndex++) {
+          active[descendingIndex] = participants[descending[descendingIndex]];
+        }
+
+        boolean[] childResults = AlterPlan.this.visit(item, active);
+        for (int descendingIndex = 0; descendingIndex < descendingCount; descendingIndex++) {
+          results[descending[descendingIndex]] = childResults[descendingIndex];
+        }
+      }
+
+      int retval;
+      if (removed) {
+        items.remove(position);
+        retval = position;
+      } else {
+        retval = position + 1;
+      }
+      return retval;
+    }
+  }
+
+  /**
+   * The types of child items visited, in the order they are visited.
+   */
+  private enum ChildType {
+    PARAM,
+    PROP,
+    LINK,
+    PART,
+    CONTROL;
+
+    @NonNull
+    private static final List<ChildType> CONTROL_CHILDREN = List.of(PARAM, PROP, LINK, PART, CONTROL);
+    @NonNull
+    private static final List<ChildType> PARAM_CHILDREN = List.of(PROP, LINK);
+    @NonNull
+    private static final List<ChildType> PART_CHILDREN = List.of(PROP, LINK, PART);
+
+    @NonNull
+    public static List<ChildType> forParent(@NonNull Object parent) {
+      List<ChildType> retval;
+      if (parent instanceof Control) {
+        retval = CONTROL_CHILDREN;
+      } else if (parent instanceof Parameter) {
+        retval = PARAM_CHILDREN;
+      } else if (parent instanceof ControlPart) {
+        retval = PART_CHILDREN;
+      } else {
+        retval = CollectionUtil.emptyList();
+      }
+      return retval;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public List<Object> getChildren(@NonNull Object parent) {
+      List<?> retval;
+      switch (this) {
+      case PARAM:
+        retval = ((Control) parent).getParams();
+        break;
+      case PROP:
+        if (parent instanceof Control) {
+          retval = ((Control) parent).getProps();
+        } else if (parent instanceof Parameter) {
+          retval = ((Parameter) parent).getProps();
+        } else {
+          retval = ((ControlPart) parent).getProps();
+        }
+        break;
+      case LINK:
+        if (parent instanceof Control) {
+          retval = ((Control) parent).getLinks();
+        } else if (parent instanceof Parameter) {
+          retval = ((Parameter) parent).getLinks();
+        } else {
+          retval = ((ControlPart) parent).getLinks();
+        }
+        break;
+      case PART:
+        if (parent instanceof Control) {
+          retval = ((Control) parent).getParts();
+        } else {
+          retval = ((ControlPart) parent).getParts();
+        }
+        break;
+      case CONTROL:
+        retval = ((Control) parent).getControls();
+        break;
+      default:
+        throw new UnsupportedOperationException(name());
+      }
+      return (List<Object>) retval;
+    }
+  }
+
+  /**
+   * The action a directive takes on a matching child item.
+   */
+  private enum Action {
+    NONE,
+    REMOVE,
+    INSERT_BEFORE,
+    INSERT_AFTER;
+  }
+
+  /**
+   * A compiled add or remove directive.
+   */
+  private interface IEdit {
+    /**
+     * Apply the directive to the provided item, if the item is the directive's target.
+     *
+     * @param item
+     *          the control, parameter, or part being visited
+     * @return {@code true} if a modification was made or {@code false} otherwise
+     */
+    boolean handleCurrent(@NonNull Object item);
+
+    /**
+     * Determine if child items of the provided type can match this directive.
+     *
+     * @param type
+     *          the child item type
+     * @return {@code true} if the items can match or {@code false} otherwise
+     */
+    boolean isMatching(@NonNull ChildType type);
+
+    /**
+     * Determine if this directive visits the children of child items of the provided type.
+     *
+     * @param type
+     *          the child item type
+     * @return {@code true} if the child items are visited or {@code false} otherwise
+     */
+    boolean isDescending(@NonNull ChildType type);
+
+    /**
+     * Get the action to take on a child item whose type matches this directive.
+     *
+     * @param item
+     *          the child item
+     * @return the action
+     */
+    @NonNull
+    Action match(@Nullable Object item);
+
+    /**
+     * Get the items this directive inserts into a collection of child items of the provided type.
+     *
+     * @param type
+     *          the child item type
+     * @return the items to insert
+     */
+    @NonNull
+    List<?> getNewItems(@NonNull ChildType type);
+
+    /**
+     * Get the identifier of the item targeted by this directive.
+     *
+     * @return the identifier or {@code null} if the directive does not target an identifier
+     */
+    @Nullable
+    String getTargetId();
+
+    /**
+     * Get the identifiers of the items added by this directive, including their child items.
+     *
+     * @return the identifiers
+     */
+    @NonNull
+    Set<String> getAddedIds();
+  }
+
+  private static final class RemoveEdit implements IEdit {
+    @NonNull
+    private final RemoveVisitor.Context context;
+
+    private RemoveEdit(@NonNull RemoveVisitor.Context context) {
+      this.context = context;
+    }
+
+    @Nullable
+    private static RemoveVisitor.TargetType toTargetType(@NonNull ChildType type) {
+      RemoveVisitor.TargetType retval;
+      switch (type) {
+      case PARAM:
+        retval = RemoveVisitor.TargetType.PARAM;
+        break;
+      case PROP:
+        retval = RemoveVisitor.TargetType.PROP;
+        break;
+      case LINK:
+        retval = RemoveVisitor.TargetType.LINK;
+        break;
+      case PART:
+        retval = RemoveVisitor.TargetType.PART;
+        break;
+      default:
+        retval = null;
+        break;
+      }
+      return retval;
+    }
+
+    @Override
+    public boolean handleCurrent(Object item) {
+      // removes only apply to child items
+      return false;
+    }
+
+    @Override
+    public boolean isMatching(ChildType type) {
+      RemoveVisitor.TargetType targetType = toTargetType(type);
+      return targetType != null && context.isMatchingType(targetType);
+    }
+
+    @Override
+    public boolean isDescending(ChildType type) {
+      // only params and parts have children that can be removed
+      RemoveVisitor.TargetType targetType = toTargetType(type);
+      return (ChildType.PARAM.equals(type) || ChildType.PART.equals(type))
+          && targetType != null
+          && !Collections.disjoint(context.getTargetItemTypes(), RemoveVisitor.getApplicableTypes(targetType));
+    }
+
+    @Override
+    public Action match(Object item) {
+      return item == null || context.isApplicableTo(item) ? Action.REMOVE : Action.NONE;
+    }
+
+    @Override
+    public List<?> getNewItems(ChildType type) {
+      return CollectionUtil.emptyList();
+    }
+
+    @Override
+    public String getTargetId() {
+      return context.getObjectId();
+    }
+
+    @Override
+    public Set<String> getAddedIds() {
+      return CollectionUtil.emptySet();
+    }
+  }
+
+  private static final class AddEdit implements IEdit {
+    @NonNull
+    private final AddVisitor.Context context;
+    @NonNull
+    private final Set<String> addedIds;
+
+    private AddEdit(@NonNull AddVisitor.Context context) {
+      this.context = context;
+
+      Set<String> ids = new HashSet<>();
+      for (Parameter param : context.getParams()) {
+        addId(ids, param);
+      }
+      for (ControlPart part : context.getParts()) {
+        addId(ids, part);
+      }
+      this.addedIds = CollectionUtil.unmodifiableSet(ids);
+    }
+
+    private static void addId(@NonNull Set<String> ids, @NonNull Object item) {
+      String id = getId(item);
+      if (id != null) {
+        ids.add(id);
+      }
+
+      if (item instanceof ControlPart) {
+        for (ControlPart part : CollectionUtil.listOrEmpty(((ControlPart) item).getParts())) {
+          addId(ids, ObjectUtils.notNull(part));
+        }
+      }
+    }
+
+    @Nullable
+    private static AddVisitor.TargetType toTargetType(@NonNull ChildType type) {
+      AddVisitor.TargetType retval;
+      switch (type) {
+      case PARAM:
+        retval = AddVisitor.TargetType.PARAM;
+        break;
+      case PART:
+        retval = AddVisitor.TargetType.PART;
+        break;
+      case CONTROL:
+        retval = AddVisitor.TargetType.CONTROL;
+        break;
+      default:
+        retval = null;
+        break;
+      }
+      return retval;
+    }
+
+    @Override
+    public boolean handleCurrent(Object item) {
+      boolean retval;
+      if (item instanceof Control) {
+        retval = AddVisitor.handleCurrent((Control) item, context);
+      } else if (item instanceof Parameter) {
+        retval = AddVisitor.handleCurrent((Parameter) item, context);
+      } else if (item instanceof ControlPart) {
+        retval = AddVisitor.handleCurrent((ControlPart) item, context);
+      } else {
+        retval = false;
+      }
+      return retval;
+    }
+
+    @Override
+    public boolean isMatching(ChildType type) {
+      // child controls are only visited, since they cannot be a sequence target
+      AddVisitor.TargetType targetType = toTargetType(type);
+      return targetType != null
+          && !AddVisitor.TargetType.CONTROL.equals(targetType)
+          && context.isMatchingType(targetType);
+    }
+
+    @Override
+    public boolean isDescending(ChildType type) {
+      // without a by-id, only the control itself can be the target
+      AddVisitor.TargetType targetType = toTargetType(type);
+      return targetType != null
+          && context.getById() != null
+          && !Collections.disjoint(context.getTargetItemTypes(), AddVisitor.getApplicableTypes(targetType));
+    }
+
+    @Override
+    public Action match(Object item) {
+      Action retval = Action.NONE;
+      if (item != null && context.appliesTo(item) && context.isSequenceTargeted(item)) {
+        switch (context.getPosition()) {
+        case BEFORE:
+          retval = Action.INSERT_BEFORE;
+          break;
+        case AFTER:
+          retval = Action.INSERT_AFTER;
+          break;
+        default:
+          // other positions are handled by the parent item
+          break;
+        }
+      }
+      return retval;
+    }
+
+    @Override
+    public List<?> getNewItems(ChildType type) {
+      List<?> retval;
+      switch (type) {
+      case PARAM:
+        retval = context.getParams();
+        break;
+      case PART:
+        retval = context.getParts();
+        break;
+      default:
+        retval = CollectionUtil.emptyList();
+        break;
+      }
+      return retval;
+    }
+
+    @Override
+    public String getTargetId() {
+      return context.getById();
+    }
+
+    @Override
+    public Set<String> getAddedIds() {
+      return addedIds;
+    }
+  }
+}
@@ -156,7 +156,7 @@ public class RemoveVisitor implements ICatalogVisitor<Boolean, RemoveVisitor.Con
     APPLICABLE_TARGETS.put(TargetType.PART, Set.of(TargetType.PART, TargetType.PROP, TargetType.LINK));
   }
 
-  private static Set<TargetType> getApplicableTypes(@NonNull TargetType type) {
+  static Set<TargetType> getApplicableTypes(@NonNull TargetType type) {
     return APPLICABLE_TARGETS.getOrDefault(type, CollectionUtil.emptySet());
   }
 
@@ -377,7 +377,7 @@ public class RemoveVisitor implements ICatalogVisitor<Boolean, RemoveVisitor.Con
         retval = effectiveTypes.retainAll(allowedTypes);
         if (itemType != null && !allowedTypes.contains(itemType)) {
           throw new ProfileResolutionEvaluationException(
-              String.format("%s='%s' is not supported for items of type '%s'",
+              () -> String.format("%s='%s' is not supported for items of type '%s'",
                   criteria,
                   value,
                   itemType.fieldName()));
@@ -386,7 +386,7 @@ public class RemoveVisitor implements ICatalogVisitor<Boolean, RemoveVisitor.Con
       return retval;
     }
 
-    private Context(
+    Context(
         @Nullable String objectName,
         @Nullable String objectClass,
         @Nullable String objectId,
@@ -0,0 +1,339 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.merge;
+
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.CatalogGroup;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.ControlPart;
+import gov.nist.secauto.oscal.lib.model.Parameter;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Combines the controls of an import with any controls of earlier imports having the same
+ * identifier, as directed by a profile's {@code combine} method.
+ * <p>
+ * Duplicates are detected by looking up each imported control in the index of the earlier imports,
+ * so an import is combined using a single pass over the content it added to the resolved catalog.
+ * The import's index is updated to drop the entities of any discarded content, allowing it to be
+ * appended to the index of the earlier imports afterwards.
+ */
+public class ControlCombiner {
+  private static final Logger LOGGER = LogManager.getLogger(ControlCombiner.class);
+
+  public enum Method {
+    /**
+     * Keep the first control having a given identifier, discarding any later ones. The child controls
+     * of a discarded control take its place.
+     */
+    USE_FIRST,
+    /**
+     * Merge the content of any later control having a given identifier into the first one.
+     */
+    MERGE,
+    /**
+     * Keep all controls, even if they have the same identifier.
+     */
+    KEEP;
+
+    @NonNull
+    private static final Map<String, Method> NAME_TO_METHOD;
+
+    static {
+      Map<String, Method> map = new ConcurrentHashMap<>();
+      for (Method method : Method.values()) {
+        map.put(method.name().toLowerCase(Locale.ROOT).replace('_', '-'), method);
+      }
+      NAME_TO_METHOD = CollectionUtil.unmodifiableMap(map);
+    }
+
+    /**
+     * Get the method associated with the provided {@code name}.
+     *
+     * @param name
+     *          the name to identify the method for
+     * @return the associated method or {@code null} if the name is not associated with a method
+     */
+    @Nullable
+    public static Method forName(@Nullable String name) {
+      return name == null ? null : NAME_TO_METHOD.get(name);
+    }
+  }
+
+  @NonNull
+  private final Method method;
+  @NonNull
+  private final IIndexer combinedIndex;
+
+  /**
+   * Construct a new combiner.
+   *
+   * @param method
+   *          the combine method to apply
+   * @param combinedIndex
+   *          the index of the earlier imports, used to find the first control having a given
+   *          identifier
+   */
+  public ControlCombiner(@NonNull Method method, @NonNull IIndexer combinedIndex) {
+    this.method = method;
+    this.combinedIndex = combinedIndex;
+  }
+
+  @NonNull
+  public Method getMethod() {
+    return method;
+  }
+
+  /**
+   * Combine the controls added to the resolved catalog by an import with those of the earlier
+   * imports.
+   *
+   * @param resolvedCatalog
+   *          the resolved catalog
+   * @param firstControl
+   *          the position of the first top-level control added by the import
+   * @param firstGroup
+   *          the position of the first top-level group added by the import
+   * @param importIndex
+   *          the index of the import, which is yet to be appended to the index of the earlier
+   *          imports
+   */
+  public void combine(
+      @NonNull Catalog resolvedCatalog,
+      int firstControl,
+      int firstGroup,
+      @NonNull IIndexer importIndex) {
+    if (Method.KEEP.equals(method)) {
+      return;
+    }
+
+    List<Control> controls = resolvedCatalog.getControls();
+    if (controls != null) {
+      combine(ObjectUtils.notNull(controls.subList(firstControl, controls.size())), importIndex);
+    }
+
+    List<CatalogGroup> groups = resolvedCatalog.getGroups();
+    if (groups != null) {
+      for (CatalogGroup group : groups.subList(firstGroup, groups.size())) {
+        combine(ObjectUtils.notNull(group), importIndex);
+      }
+    }
+  }
+
+  private void combine(@NonNull CatalogGroup group, @NonNull IIndexer importIndex) {
+    List<Control> controls = group.getControls();
+    if (controls != null) {
+      combine(controls, importIndex);
+    }
+
+    for (CatalogGroup child : CollectionUtil.listOrEmpty(group.getGroups())) {
+      combine(ObjectUtils.notNull(child), importIndex);
+    }
+  }
+
+  private void combine(@NonNull List<Control> controls, @NonNull IIndexer importIndex) {
+    for (ListIterator<Control> iter = controls.listIterator(); iter.hasNext();) {
+      Control control = iter.next();
+
+      List<Control> children = control.getControls();
+      if (children != null) {
+        // combine nested duplicates first, so a discarded control's children are already combined
+        combine(children, importIndex);
+      }
+
+      String id = ObjectUtils.requireNonNull(control.getId());
+      IEntityItem first = combinedIndex.getEntity(IEntityItem.ItemType.CONTROL, id, false);
+      if (first != null) {
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.atDebug().log("Combining duplicate control '{}' using method '{}'", id, method);
+        }
+
+        iter.remove();
+        IEntityItem entity = removeEntity(IEntityItem.ItemType.CONTROL, id, control, importIndex);
+
+        List<Control> remainingChildren = CollectionUtil.listOrEmpty(children);
+        if (Method.MERGE.equals(method)) {
+          Set<Object> merged = merge(first.getInstanceValue(), control, importIndex);
+          if (entity != null) {
+            // the references made by the merged content are now made by the first control
+            entity.getReferences().stream()
+                .filter(reference -> merged.contains(reference.getOrigin()))
+                .forEach(first::addReference);
+          }
+        } else {
+          discard(control, importIndex);
+          // the children take the place of the discarded control
+          for (Control child : remainingChildren) {
+            iter.add(child);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Merge the content of {@code other} into {@code first}.
+   *
+   * @param first
+   *          the control to merge into
+   * @param other
+   *          the control to merge
+   * @param importIndex
+   *          the index of the import containing {@code other}
+   * @return the children of {@code other} that were added to {@code first}, compared by identity
+   */
+  @NonNull
+  private static Set<Object> merge(@NonNull Control first, @NonNull Control other, @NonNull IIndexer importIndex) {
+    Set<Object> retval = Collections.newSetFromMap(new IdentityHashMap<>());
+    first.setParams(union(first.getParams(), other.getParams(), Parameter::getId, retval,
+        param -> removeEntity(IEntityItem.ItemType.PARAMETER, ObjectUtils.requireNonNull(param.getId()), param,
+            importIndex)));
+    first.setProps(union(first.getProps(), other.getProps(),
+        prop -> Arrays.asList(prop.getName(), prop.getNs(), prop.getValue(), prop.getClazz()),
+        retval,
+        prop -> {
+          // nothing is indexed
+        }));
+    first.setLinks(union(first.getLinks(), other.getLinks(),
+        link -> Arrays.asList(link.getHref(), link.getRel(), link.getMediaType(), link.getResourceFragment()),
+        retval,
+        link -> {
+          // nothing is indexed
+        }));
+    first.setParts(union(first.getParts(), other.getParts(),
+        // parts without an identifier are always kept
+        part -> part.getId() == null ? part : part.getId(),
+        retval,
+        part -> discard(part, importIndex)));
+    first.setControls(union(first.getControls(), other.getControls(), Control::getId, retval,
+        control -> {
+          // duplicate children were already combined
+        }));
+    return retval;
+  }
+
+  /**
+   * Append the items of {@code other} whose key is not already used by an item of {@code first}.
+   *
+   * @param <T>
+   *          the type of item
+   * @param first
+   *          the items to keep
+   * @param other
+   *          the items to append
+   * @param keyFunction
+   *          the function used to compute the key of an item
+   * @param appended
+   *          the set the appended items of {@code other} are added to
+   * @param discardHandler
+   *          called for each item of {@code other} that is discarded
+   * @return the combined items
+   */
+  @Nullable
+  private static <T> List<T> union(
+      @Nullable List<T> first,
+      @Nullable List<T> other,
+      @NonNull Function<? super T, ?> keyFunction,
+      @NonNull Set<Object> appended,
+      @NonNull Consumer<? super T> discardHandler) {
+    if (other == null || other.isEmpty()) {
+      return first;
+    }
+
+    List<T> retval = first == null ? new LinkedList<>() : first;
+    Set<Object> keys = new HashSet<>();
+    for (T item : retval) {
+      keys.add(keyFunction.apply(item));
+    }
+    for (T item : other) {
+      if (keys.add(keyFunction.apply(item))) {
+        retval.add(item);
+        appended.add(item);
+      } else {
+        discardHandler.accept(item);
+      }
+    }
+    return retval;
+  }
+
+  private static void discard(@NonNull Control control, @NonNull IIndexer importIndex) {
+    for (Parameter param : CollectionUtil.listOrEmpty(control.getParams())) {
+      removeEntity(IEntityItem.ItemType.PARAMETER, ObjectUtils.requireNonNull(param.getId()), param, importIndex);
+    }
+    for (ControlPart part : CollectionUtil.listOrEmpty(control.getParts())) {
+      discard(ObjectUtils.notNull(part), importIndex);
+    }
+  }
+
+  private static void discard(@NonNull ControlPart part, @NonNull IIndexer importIndex) {
+    String id = part.getId();
+    if (id != null) {
+      removeEntity(IEntityItem.ItemType.PART, id, part, importIndex);
+    }
+    for (ControlPart child : CollectionUtil.listOrEmpty(part.getParts())) {
+      discard(ObjectUtils.notNull(child), importIndex);
+    }
+  }
+
+  @Nullable
+  private static IEntityItem removeEntity(
+      @NonNull IEntityItem.ItemType itemType,
+      @NonNull String id,
+      @NonNull Object instance,
+      @NonNull IIndexer importIndex) {
+    IEntityItem retval = importIndex.getEntity(itemType, id, false);
+    if (retval != null && retval.getInstanceValue() == instance) {
+      importIndex.removeItem(retval);
+    } else {
+      retval = null;
+    }
+    return retval;
+  }
+}
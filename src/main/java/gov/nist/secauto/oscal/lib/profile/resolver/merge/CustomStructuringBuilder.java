@@ -0,0 +1,286 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.merge;
+
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.CatalogGroup;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.InsertControls;
+import gov.nist.secauto.oscal.lib.model.Merge;
+import gov.nist.secauto.oscal.lib.model.ProfileGroup;
+import gov.nist.secauto.oscal.lib.model.ProfileSelectControlById;
+import gov.nist.secauto.oscal.lib.profile.resolver.selection.DefaultControlSelectionFilter;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Applies a custom structuring directive to a resolved catalog.
+ * <p>
+ * The builder is created over the resolved catalog before it is flattened, to record which controls
+ * are children of another control. Once the catalog is flattened, {@link #build(Merge.Custom, IIndexer)}
+ * creates the custom group hierarchy in a single pass over the directive, placing the controls
+ * selected by each {@code insert-controls}. Controls selected by identifier are found using the
+ * index, so only pattern-based selections need to consider each unplaced control.
+ * <p>
+ * A control is placed by the first {@code insert-controls}, in document order, that selects it.
+ * Controls not selected by any {@code insert-controls} are removed from the catalog.
+ */
+public class CustomStructuringBuilder {
+  private static final Logger LOGGER = LogManager.getLogger(CustomStructuringBuilder.class);
+
+  @NonNull
+  private final Catalog catalog;
+  @NonNull
+  private final Map<Control, List<Control>> controlToChildren = new IdentityHashMap<>();
+  /**
+   * The controls not yet placed, in document order.
+   */
+  @NonNull
+  private final Set<Control> remaining = new LinkedHashSet<>();
+  @NonNull
+  private final Map<Control, Integer> controlToPosition = new IdentityHashMap<>();
+
+  /**
+   * Construct a new builder, recording the control hierarchy of the provided catalog.
+   *
+   * @param resolvedCatalog
+   *          the resolved catalog, before it has been flattened
+   */
+  public CustomStructuringBuilder(@NonNull Catalog resolvedCatalog) {
+    this.catalog = resolvedCatalog;
+
+    Deque<Control> controls = new ArrayDeque<>(CollectionUtil.listOrEmpty(resolvedCatalog.getControls()));
+    Deque<CatalogGroup> groups = new ArrayDeque<>(CollectionUtil.listOrEmpty(resolvedCatalog.getGroups()));
+    while (!groups.isEmpty()) {
+      CatalogGroup group = groups.pop();
+      controls.addAll(CollectionUtil.listOrEmpty(group.getControls()));
+      groups.addAll(CollectionUtil.listOrEmpty(group.getGroups()));
+    }
+
+    while (!controls.isEmpty()) {
+      Control control = controls.pop();
+      List<Control> children = CollectionUtil.listOrEmpty(control.getControls());
+      if (!children.isEmpty()) {
+        // flattening will remove the children from the control's list
+        controlToChildren.put(control, new ArrayList<>(children));
+        controls.addAll(children);
+      }
+    }
+  }
+
+  /**
+   * Replace the structure of the flattened catalog with the one defined by the directive.
+   * <p>
+   * The groups of the directive, and their content, are moved into the catalog. A copy of the
+   * directive should be provided if the profile is to be left unchanged.
+   *
+   * @param custom
+   *          the custom structuring directive
+   * @param index
+   *          the index of the catalog's controls, from which any controls not placed are removed
+   */
+  public void build(@NonNull Merge.Custom custom, @NonNull IIndexer index) {
+    List<Control> controls = CollectionUtil.listOrEmpty(catalog.getControls());
+    remaining.addAll(controls);
+    for (Control control : controls) {
+      controlToPosition.put(control, controlToPosition.size());
+    }
+
+    // the nested groups of a group precede its insert-controls in document order
+    List<CatalogGroup> groups = CollectionUtil.listOrEmpty(custom.getGroups()).stream()
+        .map(group -> buildGroup(ObjectUtils.notNull(group), index))
+        .collect(Collectors.toCollection(LinkedList::new));
+    List<Control> topLevelControls = insertControls(CollectionUtil.listOrEmpty(custom.getInsertControls()), index);
+
+    catalog.setGroups(groups.isEmpty() ? null : groups);
+    catalog.setControls(topLevelControls.isEmpty() ? null : topLevelControls);
+
+    for (Control control : remaining) {
+      String id = ObjectUtils.requireNonNull(control.getId());
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.atDebug().log("Removing control '{}', which is not placed by the custom structuring directive", id);
+      }
+
+      IEntityItem entity = index.getEntity(IEntityItem.ItemType.CONTROL, id, false);
+      if (entity != null && entity.getInstanceValue() == control) {
+        index.removeItem(entity);
+      }
+    }
+    remaining.clear();
+    controlToPosition.clear();
+  }
+
+  @NonNull
+  private CatalogGroup buildGroup(@NonNull ProfileGroup profileGroup, @NonNull IIndexer index) {
+    CatalogGroup retval = new CatalogGroup();
+    retval.setId(profileGroup.getId());
+    retval.setClazz(profileGroup.getClazz());
+    retval.setTitle(profileGroup.getTitle());
+    retval.setParams(profileGroup.getParams());
+    retval.setProps(profileGroup.getProps());
+    retval.setLinks(profileGroup.getLinks());
+    retval.setParts(profileGroup.getParts());
+
+    List<CatalogGroup> groups = CollectionUtil.listOrEmpty(profileGroup.getGroups()).stream()
+        .map(group -> buildGroup(ObjectUtils.notNull(group), index))
+        .collect(Collectors.toCollection(LinkedList::new));
+    List<Control> controls = insertControls(CollectionUtil.listOrEmpty(profileGroup.getInsertControls()), index);
+
+    retval.setGroups(groups.isEmpty() ? null : groups);
+    retval.setControls(controls.isEmpty() ? null : controls);
+    return retval;
+  }
+
+  @NonNull
+  private List<Control> insertControls(@NonNull List<InsertControls> inserts, @NonNull IIndexer index) {
+    List<Control> retval = new LinkedList<>();
+    for (InsertControls insert : inserts) {
+      retval.addAll(insertControls(ObjectUtils.notNull(insert), index));
+    }
+    return retval;
+  }
+
+  @NonNull
+  private List<Control> insertControls(@NonNull InsertControls insert, @NonNull IIndexer index) {
+    Set<Control> selected = new LinkedHashSet<>();
+    if (insert.getIncludeAll() == null) {
+      for (ProfileSelectControlById selection : CollectionUtil.listOrEmpty(insert.getIncludeControls())) {
+        select(ObjectUtils.notNull(selection), remaining, index, selected);
+      }
+      // a control may have been placed by an earlier insert
+      selected.retainAll(remaining);
+    } else {
+      selected.addAll(remaining);
+    }
+
+    List<ProfileSelectControlById> exclusions = CollectionUtil.listOrEmpty(insert.getExcludeControls());
+    if (!exclusions.isEmpty()) {
+      Set<Control> excluded = new HashSet<>();
+      for (ProfileSelectControlById selection : exclusions) {
+        select(ObjectUtils.notNull(selection), selected, index, excluded);
+      }
+      selected.removeAll(excluded);
+    }
+
+    List<Control> retval = new LinkedList<>(selected);
+    retval.sort(newComparator(insert.getOrder()));
+    remaining.removeAll(retval);
+    return retval;
+  }
+
+  /**
+   * Add the controls matching the selection to the result.
+   *
+   * @param selection
+   *          the selection criteria
+   * @param candidates
+   *          the controls to consider for a pattern match
+   * @param index
+   *          the index used to find controls by identifier
+   * @param result
+   *          the set to add matching controls to
+   */
+  private void select(
+      @NonNull ProfileSelectControlById selection,
+      @NonNull Collection<Control> candidates,
+      @NonNull IIndexer index,
+      @NonNull Set<Control> result) {
+    boolean withChildControls = "yes".equals(selection.getWithChildControls());
+
+    for (String id : CollectionUtil.listOrEmpty(selection.getWithIds())) {
+      IEntityItem entity = id == null ? null : index.getEntity(IEntityItem.ItemType.CONTROL, id, false);
+      if (entity != null) {
+        add(entity.getInstanceValue(), withChildControls, result);
+      }
+    }
+
+    List<Pattern> patterns = CollectionUtil.listOrEmpty(selection.getMatching()).stream()
+        .map(matching -> DefaultControlSelectionFilter.toPattern(ObjectUtils.notNull(matching)))
+        .collect(Collectors.toList());
+    if (!patterns.isEmpty()) {
+      // avoid adding to the result while iterating over it
+      List<Control> matches = candidates.stream()
+          .filter(control -> {
+            String id = ObjectUtils.requireNonNull(control.getId());
+            return patterns.stream().anyMatch(pattern -> pattern.matcher(id).matches());
+          })
+          .collect(Collectors.toList());
+      for (Control control : matches) {
+        add(ObjectUtils.notNull(control), withChildControls, result);
+      }
+    }
+  }
+
+  private void add(@NonNull Control control, boolean withChildControls, @NonNull Set<Control> result) {
+    result.add(control);
+    if (withChildControls) {
+      Deque<Control> children = new ArrayDeque<>(controlToChildren.getOrDefault(control, CollectionUtil.emptyList()));
+      while (!children.isEmpty()) {
+        Control child = children.pop();
+        result.add(child);
+        children.addAll(controlToChildren.getOrDefault(child, CollectionUtil.emptyList()));
+      }
+    }
+  }
+
+  @NonNull
+  private Comparator<Control> newComparator(@Nullable String order) {
+    Comparator<Control> retval;
+    if ("ascending".equals(order)) {
+      retval = Comparator.comparing(Control::getId);
+    } else if ("descending".equals(order)) {
+      retval = Comparator.comparing(Control::getId, Comparator.reverseOrder());
+    } else {
+      // "keep" is the default, which retains the order of the controls in the catalog
+      retval = Comparator.comparing(controlToPosition::get);
+    }
+    return ObjectUtils.notNull(retval);
+  }
+}
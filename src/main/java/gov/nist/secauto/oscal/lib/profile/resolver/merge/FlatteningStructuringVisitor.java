@@ -83,15 +83,8 @@ public class FlatteningStructuringVisitor
     index.setSelectionStatus(catalogItem, SelectionStatus.SELECTED);
     super.visitCatalog(catalogItem, index);
 
-    for (ItemType itemType : ItemType.values()) {
-      assert itemType != null;
-      for (IEntityItem item : index.getEntitiesByItemType(itemType)) {
-        item.resetReferenceCount();
-      }
-    }
-
-    // process references, looking for orphaned links to groups
-    ReferenceCountingVisitor.instance().visitCatalog(catalogItem, index, catalogItem.getDocumentUri());
+    // recount references now that groups are unselected, updating orphaned links to groups
+    ReferenceCountingVisitor.instance().countRecordedReferences(index, catalogItem.getBaseUri());
 
     FlatteningFilterNonSelectedVisitor.instance().visitCatalog(catalogItem, index);
     return null;
@@ -30,6 +30,7 @@ import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueMode
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
 import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolutionEvaluationException;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IReferenceKind;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -39,7 +40,8 @@ import java.util.List;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 
-public abstract class AbstractCustomReferencePolicy<TYPE> implements ICustomReferencePolicy<TYPE> {
+public abstract class AbstractCustomReferencePolicy<TYPE>
+    implements ICustomReferencePolicy<TYPE>, IReferenceKind<TYPE, ReferenceCountingVisitor.Context> {
   private static final Logger LOGGER = LogManager.getLogger(AbstractCustomReferencePolicy.class);
 
   @NonNull
@@ -96,15 +98,12 @@ public abstract class AbstractCustomReferencePolicy<TYPE> implements ICustomRefe
         ReferenceCountingVisitor.instance().resolveEntity(item, visitorContext);
       }
       item.incrementReferenceCount();
+      // record the reference, so the count can be recomputed without visiting the content again
+      visitorContext.recordReference(contextItem, item, this, reference);
 
       if (item.isIdentifierReassigned()) {
-        String referenceText = ObjectUtils.notNull(getReferenceText(reference));
-        String newReferenceText = getIdentifierParser().update(referenceText, item.getIdentifier());
-        setReferenceText(reference, newReferenceText);
-        if (LOGGER.isDebugEnabled()) {
-          LOGGER.atDebug().log("Mapping {} reference '{}' to '{}'.", item.getItemType().name(), referenceText,
-              newReferenceText);
-        }
+        // defer the update, so that all references are updated together once the visit completes
+        visitorContext.queueReferenceUpdate(reference, () -> updateReference(reference, item));
       }
       handleSelected(contextItem, reference, item, visitorContext);
     } else {
@@ -113,6 +112,16 @@ public abstract class AbstractCustomReferencePolicy<TYPE> implements ICustomRefe
     return true;
   }
 
+  private void updateReference(@NonNull TYPE reference, @NonNull IEntityItem item) {
+    String referenceText = ObjectUtils.notNull(getReferenceText(reference));
+    String newReferenceText = getIdentifierParser().update(referenceText, item.getIdentifier());
+    setReferenceText(reference, newReferenceText);
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.atDebug().log("Mapping {} reference '{}' to '{}'.", item.getItemType().name(), referenceText,
+          newReferenceText);
+    }
+  }
+
   /**
    * Handle an index hit against an item related to an unselected control.
    * <p>
@@ -137,6 +146,16 @@ public abstract class AbstractCustomReferencePolicy<TYPE> implements ICustomRefe
     // do nothing by default
   }
 
+  @Override
+  public void handleUnselectedTarget(
+      @NonNull IEntityItem source,
+      @NonNull TYPE reference,
+      @NonNull IEntityItem target,
+      @NonNull ReferenceCountingVisitor.Context visitorContext) {
+    // the source's node item stands in for the node containing the reference, which is not retained
+    handleUnselected(source.getInstance(), reference, target, visitorContext);
+  }
+
   /**
    * Handle an index hit against an item related to an selected control.
    * <p>
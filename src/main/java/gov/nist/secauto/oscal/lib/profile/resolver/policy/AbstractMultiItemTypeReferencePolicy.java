@@ -27,9 +27,11 @@
 package gov.nist.secauto.oscal.lib.profile.resolver.policy;
 
 import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.CustomCollectors;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
 
 import java.util.List;
+import java.util.Locale;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 
@@ -50,4 +52,18 @@ public abstract class AbstractMultiItemTypeReferencePolicy<TYPE>
   protected List<IEntityItem.ItemType> getEntityItemTypes(@NonNull TYPE type) {
     return itemTypes;
   }
+
+  /**
+   * Describe the provided item types for use in a message, such as "control or group".
+   *
+   * @param itemTypes
+   *          the item types to describe
+   * @return the description
+   */
+  @NonNull
+  protected static String toTypeText(@NonNull List<IEntityItem.ItemType> itemTypes) {
+    return itemTypes.stream()
+        .map(en -> en.name().toLowerCase(Locale.ROOT))
+        .collect(CustomCollectors.joiningWithOxfordComma("or"));
+  }
 }
@@ -29,8 +29,8 @@ package gov.nist.secauto.oscal.lib.profile.resolver.policy;
 import gov.nist.secauto.metaschema.model.common.metapath.format.IPathFormatter;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
 import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
-import gov.nist.secauto.metaschema.model.common.util.CustomCollectors;
 import gov.nist.secauto.oscal.lib.model.Link;
+import gov.nist.secauto.oscal.lib.profile.resolver.IResolutionDiagnostics;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
 
 import org.apache.logging.log4j.LogManager;
@@ -38,7 +38,6 @@ import org.apache.logging.log4j.Logger;
 
 import java.net.URI;
 import java.util.List;
-import java.util.Locale;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 
@@ -97,17 +96,11 @@ public class LinkReferencePolicy
       @NonNull List<IEntityItem.ItemType> itemTypes,
       @NonNull String identifier,
       @NonNull ReferenceCountingVisitor.Context visitorContext) {
-    if (LOGGER.isWarnEnabled()) {
-      LOGGER.atWarn().log(
-          "The link at '{}' with rel '{}' should reference a {} identified by '{}'."
-              + " The index did not contain the identifier.",
-          contextItem.toPath(IPathFormatter.METAPATH_PATH_FORMATER),
-          link.getRel(),
-          itemTypes.stream()
-              .map(en -> en.name().toLowerCase(Locale.ROOT))
-              .collect(CustomCollectors.joiningWithOxfordComma("or")),
-          identifier);
-    }
+    visitorContext.getDiagnostics().record(
+        IResolutionDiagnostics.Kind.UNRESOLVED_LINK,
+        "with rel '" + link.getRel() + "' referencing a " + toTypeText(itemTypes) + " identified by '" + identifier
+            + "'",
+        contextItem);
     return true;
   }
 
@@ -28,9 +28,9 @@ package gov.nist.secauto.oscal.lib.profile.resolver.policy;
 
 import gov.nist.secauto.metaschema.model.common.metapath.format.IPathFormatter;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
-import gov.nist.secauto.metaschema.model.common.util.CustomCollectors;
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
 import gov.nist.secauto.oscal.lib.model.Property;
+import gov.nist.secauto.oscal.lib.profile.resolver.IResolutionDiagnostics;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
 
 import org.apache.logging.log4j.LogManager;
@@ -38,7 +38,6 @@ import org.apache.logging.log4j.Logger;
 
 import java.net.URI;
 import java.util.List;
-import java.util.Locale;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 
@@ -100,17 +99,11 @@ public class PropertyReferencePolicy
       @NonNull List<IEntityItem.ItemType> itemTypes,
       @NonNull String identifier,
       @NonNull ReferenceCountingVisitor.Context visitorContext) {
-    if (LOGGER.isWarnEnabled()) {
-      LOGGER.atWarn().log(
-          "The property '{}' at '{}' should reference a {} identified by '{}',"
-              + " but the identifier was not found in the index.",
-          property.getQName(),
-          contextItem.toPath(IPathFormatter.METAPATH_PATH_FORMATER),
-          itemTypes.stream()
-              .map(en -> en.name().toLowerCase(Locale.ROOT))
-              .collect(CustomCollectors.joiningWithOxfordComma("or")),
-          identifier);
-    }
+    visitorContext.getDiagnostics().record(
+        IResolutionDiagnostics.Kind.UNRESOLVED_PROPERTY,
+        "'" + property.getQName() + "' referencing a " + toTypeText(itemTypes) + " identified by '" + identifier
+            + "'",
+        contextItem);
     return true;
   }
 }
@@ -27,41 +27,58 @@
 package gov.nist.secauto.oscal.lib.profile.resolver.policy;
 
 import com.vladsch.flexmark.ast.InlineLinkNode;
-import com.vladsch.flexmark.util.ast.Node;
 
 import gov.nist.secauto.metaschema.model.common.datatype.markup.IMarkupString;
 import gov.nist.secauto.metaschema.model.common.datatype.markup.flexmark.InsertAnchorExtension.InsertAnchorNode;
 import gov.nist.secauto.metaschema.model.common.metapath.MetapathExpression;
-import gov.nist.secauto.metaschema.model.common.metapath.format.IPathFormatter;
 import gov.nist.secauto.metaschema.model.common.metapath.function.library.FnData;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IMarkupItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.INodeItem;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
 import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.MarkupReferenceScanner;
+import gov.nist.secauto.oscal.lib.model.BackMatter.Resource;
 import gov.nist.secauto.oscal.lib.model.CatalogGroup;
 import gov.nist.secauto.oscal.lib.model.Control;
 import gov.nist.secauto.oscal.lib.model.ControlPart;
 import gov.nist.secauto.oscal.lib.model.Link;
+import gov.nist.secauto.oscal.lib.model.Metadata.Location;
+import gov.nist.secauto.oscal.lib.model.Metadata.Party;
+import gov.nist.secauto.oscal.lib.model.Metadata.Role;
+import gov.nist.secauto.oscal.lib.model.Parameter;
 import gov.nist.secauto.oscal.lib.model.Property;
 import gov.nist.secauto.oscal.lib.model.metadata.AbstractProperty;
 import gov.nist.secauto.oscal.lib.model.metadata.IProperty;
+import gov.nist.secauto.oscal.lib.profile.resolver.IResolutionDiagnostics;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.AbstractCatalogEntityVisitor;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.EntityReference;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IReferenceKind;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import javax.xml.namespace.QName;
 
@@ -106,6 +123,20 @@ public class ReferenceCountingVisitor
   private static final InsertReferencePolicy INSERT_POLICY = new InsertReferencePolicy();
   @NonNull
   private static final AnchorReferencePolicy ANCHOR_POLICY = new AnchorReferencePolicy();
+  @NonNull
+  private static final Map<IEntityItem.ItemType, BiConsumer<IEntityItem, Context>> ENTITY_RESOLVERS;
+  /**
+   * The bound classes of the nodes whose content references are recorded on.
+   */
+  @NonNull
+  private static final List<Class<?>> ENTITY_CLASSES = ObjectUtils.notNull(List.of(
+      Control.class,
+      CatalogGroup.class,
+      Parameter.class,
+      Role.class,
+      Party.class,
+      Location.class,
+      Resource.class));
 
   static {
     PROPERTY_POLICIES = new HashMap<>();
@@ -127,6 +158,13 @@ public class ReferenceCountingVisitor
     LINK_POLICIES.put("related", LinkReferencePolicy.create(IEntityItem.ItemType.CONTROL));
     LINK_POLICIES.put("required", LinkReferencePolicy.create(IEntityItem.ItemType.CONTROL));
     LINK_POLICIES.put("corresp", LinkReferencePolicy.create(IEntityItem.ItemType.PART));
+
+    ENTITY_RESOLVERS = new EnumMap<>(IEntityItem.ItemType.class);
+    ENTITY_RESOLVERS.put(IEntityItem.ItemType.ROLE, ReferenceCountingVisitor::resolveRole);
+    ENTITY_RESOLVERS.put(IEntityItem.ItemType.LOCATION, ReferenceCountingVisitor::resolveLocation);
+    ENTITY_RESOLVERS.put(IEntityItem.ItemType.PARTY, ReferenceCountingVisitor::resolveParty);
+    ENTITY_RESOLVERS.put(IEntityItem.ItemType.PARAMETER, ReferenceCountingVisitor::resolveParameter);
+    ENTITY_RESOLVERS.put(IEntityItem.ItemType.RESOURCE, ReferenceCountingVisitor::resolveResource);
   }
 
   public static ReferenceCountingVisitor instance() {
@@ -181,25 +219,82 @@ public class ReferenceCountingVisitor
     IIndexer index = context.getIndexer();
     // resolve the entities picked up by the original indexing operation
     // FIXME: Is this necessary?
-    IIndexer.getReferencedEntitiesAsStream(index.getEntitiesByItemType(IEntityItem.ItemType.ROLE))
-        .forEachOrdered(
-            item -> resolveEntity(ObjectUtils.notNull(item), context, ReferenceCountingVisitor::resolveRole));
-    IIndexer.getReferencedEntitiesAsStream(index.getEntitiesByItemType(IEntityItem.ItemType.LOCATION))
-        .forEachOrdered(
-            item -> resolveEntity(ObjectUtils.notNull(item), context,
-                ReferenceCountingVisitor::resolveLocation));
-    IIndexer.getReferencedEntitiesAsStream(index.getEntitiesByItemType(IEntityItem.ItemType.PARTY))
-        .forEachOrdered(
-            item -> resolveEntity(ObjectUtils.notNull(item), context,
-                ReferenceCountingVisitor::resolveParty));
-    IIndexer.getReferencedEntitiesAsStream(index.getEntitiesByItemType(IEntityItem.ItemType.PARAMETER))
-        .forEachOrdered(
-            item -> resolveEntity(ObjectUtils.notNull(item), context,
-                ReferenceCountingVisitor::resolveParameter));
-    IIndexer.getReferencedEntitiesAsStream(index.getEntitiesByItemType(IEntityItem.ItemType.RESOURCE))
-        .forEachOrdered(
-            item -> resolveEntity(ObjectUtils.notNull(item), context,
-                ReferenceCountingVisitor::resolveResource));
+    //
+    // These are resolved concurrently, across types and across the entities of each type. The order
+    // does not matter, since an entity referenced by one being resolved here is resolved on demand
+    // when the reference is handled, and marking an entity as resolved is atomic.
+    //
+    // The entities are gathered into a single list first, since the index is not safe to iterate
+    // concurrently and a nested stream would resolve each type's entities on a single thread.
+    List<Map.Entry<IEntityItem, BiConsumer<IEntityItem, Context>>> entities = new ArrayList<>();
+    for (Map.Entry<IEntityItem.ItemType, BiConsumer<IEntityItem, Context>> entry : ENTITY_RESOLVERS.entrySet()) {
+      BiConsumer<IEntityItem, Context> handler = entry.getValue();
+      IIndexer.getReferencedEntitiesAsStream(index.getEntitiesByItemType(ObjectUtils.notNull(entry.getKey())))
+          .forEachOrdered(entity -> entities.add(Map.entry(entity, handler)));
+    }
+
+    entities.parallelStream()
+        .forEach(entry -> resolveEntity(
+            ObjectUtils.notNull(entry.getKey()),
+            context,
+            ObjectUtils.notNull(entry.getValue())));
+
+    context.applyReferenceUpdates();
+  }
+
+  /**
+   * Recompute the reference counts of the indexed entities from the references recorded by an
+   * earlier call to {@link #visitCatalog(IDocumentNodeItem, IIndexer, URI)}, without visiting the
+   * catalog again.
+   * <p>
+   * This accounts for changes to the selection status of the indexed controls and groups since the
+   * references were recorded. Only references made by the content of selected controls and groups,
+   * and by the entities they reference, are counted. A reference to an entity that is no longer
+   * selected is handled as an orphaned reference.
+   *
+   * @param index
+   *          the index containing the entities to recount
+   * @param baseUri
+   *          the base URI of the catalog containing the entities
+   */
+  public void countRecordedReferences(@NonNull IIndexer index, @NonNull URI baseUri) {
+    Context context = new Context(index, baseUri);
+    Deque<IEntityItem> pending = new ArrayDeque<>();
+    for (IEntityItem.ItemType itemType : IEntityItem.ItemType.values()) {
+      assert itemType != null;
+      for (IEntityItem entity : index.getEntitiesByItemType(itemType)) {
+        entity.resetReferenceCount();
+
+        if (IEntityItem.ItemType.CONTROL.equals(itemType) || IEntityItem.ItemType.GROUP.equals(itemType)
+            ? index.isSelected(entity)
+            // with no references counted, only entities that must always be kept remain
+            : ENTITY_RESOLVERS.containsKey(itemType) && IIndexer.isReferencedEntity(entity)) {
+          pending.add(entity);
+        }
+      }
+    }
+
+    Set<IEntityItem> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    while (!pending.isEmpty()) {
+      IEntityItem source = pending.pop();
+      if (visited.add(source)) {
+        for (EntityReference reference : source.getReferences()) {
+          IEntityItem target = reference.getTarget();
+          // the referenced entity may have been replaced in the index since the reference was recorded
+          IEntityItem entity = index.getEntity(target.getItemType(), target.getIdentifier(), false);
+          if (entity == null) {
+            continue;
+          }
+
+          if (index.isSelected(entity)) {
+            entity.incrementReferenceCount();
+            pending.push(entity);
+          } else {
+            reference.handleUnselected(source, context);
+          }
+        }
+      }
+    }
   }
 
   @Override
@@ -217,13 +312,8 @@ public class ReferenceCountingVisitor
         resolve = true;
       } else {
         IEntityItem entity = index.getEntity(IEntityItem.ItemType.GROUP, id, false);
-        if (entity != null && !context.isResolved(entity)) {
-          // only resolve if not already resolved
-          context.markResolved(entity);
-          resolve = true;
-        } else {
-          resolve = false;
-        }
+        // only resolve if not already resolved
+        resolve = entity != null && context.markResolved(entity);
       }
 
       // resolve only if requested
@@ -246,8 +336,7 @@ public class ReferenceCountingVisitor
       // the control must always appear in the index
       assert entity != null;
 
-      if (!context.isResolved(entity)) {
-        context.markResolved(entity);
+      if (context.markResolved(entity)) {
         if (IIndexer.SelectionStatus.SELECTED.equals(context.getIndexer().getSelectionStatus(item))) {
           resolveControl(item, context);
         }
@@ -280,13 +369,8 @@ public class ReferenceCountingVisitor
       resolve = true;
     } else {
       IEntityItem entity = context.getIndexer().getEntity(IEntityItem.ItemType.PART, id, false);
-      if (entity != null && !context.isResolved(entity)) {
-        // only resolve if not already resolved
-        context.markResolved(entity);
-        resolve = true;
-      } else {
-        resolve = false;
-      }
+      // only resolve if not already resolved
+      resolve = entity != null && context.markResolved(entity);
     }
 
     if (resolve) {
@@ -401,13 +485,10 @@ public class ReferenceCountingVisitor
       @NonNull IRequiredValueModelNodeItem contextItem,
       @NonNull IMarkupString<?> text,
       @NonNull Context context) {
-    for (Node node : CollectionUtil.toIterable(text.getNodesAsStream().iterator())) {
-      if (node instanceof InsertAnchorNode) {
-        handleInsert(contextItem, (InsertAnchorNode) node, context);
-      } else if (node instanceof InlineLinkNode) {
-        handleAnchor(contextItem, (InlineLinkNode) node, context);
-      }
-    }
+    MarkupReferenceScanner.forEachReference(
+        text,
+        insert -> handleInsert(contextItem, ObjectUtils.notNull(insert), context),
+        link -> handleAnchor(contextItem, ObjectUtils.notNull(link), context));
   }
 
   private static void handleInsert(
@@ -415,10 +496,11 @@ public class ReferenceCountingVisitor
       @NonNull InsertAnchorNode node,
       @NonNull Context context) {
     boolean retval = INSERT_POLICY.handleReference(contextItem, node, context);
-    if (LOGGER.isWarnEnabled() && !retval) {
-      LOGGER.atWarn().log("Unsupported insert type '{}' at '{}'",
-          node.getType().toString(),
-          contextItem.toPath(IPathFormatter.METAPATH_PATH_FORMATER));
+    if (!retval) {
+      context.getDiagnostics().record(
+          IResolutionDiagnostics.Kind.UNSUPPORTED_INSERT,
+          ObjectUtils.notNull(node.getType().toString()),
+          contextItem);
     }
   }
 
@@ -427,10 +509,11 @@ public class ReferenceCountingVisitor
       @NonNull InlineLinkNode node,
       @NonNull Context context) {
     boolean result = ANCHOR_POLICY.handleReference(contextItem, node, context);
-    if (LOGGER.isWarnEnabled() && !result) {
-      LOGGER.atWarn().log("Unsupported anchor with href '{}' at '{}'",
-          node.getUrl().toString(),
-          contextItem.toPath(IPathFormatter.METAPATH_PATH_FORMATER));
+    if (!result) {
+      context.getDiagnostics().record(
+          IResolutionDiagnostics.Kind.UNSUPPORTED_ANCHOR,
+          ObjectUtils.notNull(node.getUrl().toString()),
+          contextItem);
     }
   }
 
@@ -443,10 +526,11 @@ public class ReferenceCountingVisitor
     IReferencePolicy<Property> policy = PROPERTY_POLICIES.get(qname);
 
     boolean result = policy != null && policy.handleReference(item, property, context);
-    if (LOGGER.isWarnEnabled() && !result) {
-      LOGGER.atWarn().log("Unsupported property '{}' at '{}'",
-          property.getQName(),
-          item.toPath(IPathFormatter.METAPATH_PATH_FORMATER));
+    if (!result) {
+      context.getDiagnostics().record(
+          IResolutionDiagnostics.Kind.UNSUPPORTED_PROPERTY,
+          ObjectUtils.notNull(qname.toString()),
+          item);
     }
   }
 
@@ -461,10 +545,11 @@ public class ReferenceCountingVisitor
     }
 
     boolean result = policy != null && policy.handleReference(item, link, context);
-    if (LOGGER.isWarnEnabled() && !result) {
-      LOGGER.atWarn().log("unsupported link rel '{}' at '{}'",
-          link.getRel(),
-          item.toPath(IPathFormatter.METAPATH_PATH_FORMATER));
+    if (!result) {
+      context.getDiagnostics().record(
+          IResolutionDiagnostics.Kind.UNSUPPORTED_LINK,
+          String.valueOf(rel),
+          item);
     }
   }
 
@@ -473,9 +558,7 @@ public class ReferenceCountingVisitor
       @NonNull Context context,
       @NonNull BiConsumer<IEntityItem, Context> handler) {
 
-    if (!context.isResolved(entity)) {
-      context.markResolved(entity);
-
+    if (context.markResolved(entity)) {
       if (LOGGER.isDebugEnabled()) {
         LOGGER.atDebug().log("Resolving {} identified as '{}'",
             entity.getItemType().name(),
@@ -545,12 +628,30 @@ public class ReferenceCountingVisitor
     private final IIndexer indexer;
     @NonNull
     private final URI source;
+    /**
+     * A bitset of resolved entities, keyed on the entity's ordinal in the indexer.
+     */
+    @NonNull
+    private final AtomicLongArray resolvedOrdinals;
+    private final int ordinalLimit;
+    /**
+     * Resolved entities having an ordinal outside of the range covered by {@link #resolvedOrdinals}.
+     */
     @NonNull
-    private final Set<IEntityItem> resolvedEntities = new HashSet<>();
+    private final Set<IEntityItem> resolvedEntities = ObjectUtils.notNull(ConcurrentHashMap.newKeySet());
+    /**
+     * Pending updates to references to entities having a reassigned identifier, keyed on the reference
+     * object.
+     */
+    @NonNull
+    private final Map<Object, Runnable> referenceUpdates
+        = ObjectUtils.notNull(Collections.synchronizedMap(new IdentityHashMap<>()));
 
-    private Context(@NonNull IIndexer indexer, @NonNull URI source) {
+    Context(@NonNull IIndexer indexer, @NonNull URI source) {
       this.indexer = indexer;
       this.source = source;
+      this.ordinalLimit = indexer.getEntityOrdinalLimit();
+      this.resolvedOrdinals = new AtomicLongArray((ordinalLimit + Long.SIZE - 1) / Long.SIZE);
     }
 
     @NonNull
@@ -559,6 +660,11 @@ public class ReferenceCountingVisitor
       return indexer;
     }
 
+    @NonNull
+    public IResolutionDiagnostics getDiagnostics() {
+      return getIndexer().getDiagnostics();
+    }
+
     @Nullable
     public IEntityItem getEntity(@NonNull IEntityItem.ItemType itemType, @NonNull String identifier) {
       return getIndexer().getEntity(itemType, identifier);
@@ -570,12 +676,59 @@ public class ReferenceCountingVisitor
       return source;
     }
 
-    public void markResolved(@NonNull IEntityItem entity) {
-      resolvedEntities.add(entity);
+    /**
+     * Mark the entity as resolved.
+     *
+     * @param entity
+     *          the entity to mark
+     * @return {@code true} if the entity was not previously marked, meaning the caller is
+     *         responsible for resolving it, or {@code false} otherwise
+     */
+    public boolean markResolved(@NonNull IEntityItem entity) {
+      int ordinal = indexer.getEntityOrdinal(entity);
+
+      boolean retval;
+      if (ordinal >= 0 && ordinal < ordinalLimit) {
+        long mask = 1L << ordinal;
+        long previous = resolvedOrdinals.getAndAccumulate(ordinal / Long.SIZE, mask, (word, bit) -> word | bit);
+        retval = (previous & mask) == 0;
+      } else {
+        retval = resolvedEntities.add(entity);
+      }
+      return retval;
+    }
+
+    /**
+     * Queue an update to a reference to an entity whose identifier was reassigned. The update is
+     * applied once the visit completes, and only the first update queued for a given reference is
+     * applied.
+     *
+     * @param reference
+     *          the reference object to update
+     * @param update
+     *          the update to apply
+     */
+    public void queueReferenceUpdate(@NonNull Object reference, @NonNull Runnable update) {
+      referenceUpdates.putIfAbsent(reference, update);
+    }
+
+    private void applyReferenceUpdates() {
+      synchronized (referenceUpdates) {
+        referenceUpdates.values().forEach(Runnable::run);
+        referenceUpdates.clear();
+      }
     }
 
     public boolean isResolved(@NonNull IEntityItem entity) {
-      return resolvedEntities.contains(entity);
+      int ordinal = indexer.getEntityOrdinal(entity);
+
+      boolean retval;
+      if (ordinal >= 0 && ordinal < ordinalLimit) {
+        retval = (resolvedOrdinals.get(ordinal / Long.SIZE) & 1L << ordinal) != 0;
+      } else {
+        retval = resolvedEntities.contains(entity);
+      }
+      return retval;
     }
 
     public void incrementReferenceCount(
@@ -607,15 +760,110 @@ public class ReferenceCountingVisitor
         boolean normalize) {
       IEntityItem item = getIndexer().getEntity(type, identifier, normalize);
       if (item == null) {
-        if (LOGGER.isErrorEnabled()) {
-          LOGGER.atError().log("Unknown reference to {} '{}' at '{}'",
-              type.toString().toLowerCase(Locale.ROOT),
-              identifier,
-              contextItem.toPath(IPathFormatter.METAPATH_PATH_FORMATER));
-        }
+        getDiagnostics().record(
+            IResolutionDiagnostics.Kind.UNKNOWN_REFERENCE,
+            type.toString().toLowerCase(Locale.ROOT) + " '" + identifier + "'",
+            contextItem);
       } else {
         item.incrementReferenceCount();
+        recordReference(contextItem, item);
+      }
+    }
+
+    /**
+     * Record a reference to an entity on the entity whose content contains the reference.
+     * <p>
+     * The containing entity is the nearest control, group, parameter, role, party, location, or
+     * resource ancestor of the reference. A reference contained by a group without an identifier is
+     * not recorded. The containing entity's child that contains the reference, such as a part or
+     * link, is recorded as the origin of the reference.
+     *
+     * @param <TYPE>
+     *          the type of the reference object
+     * @param contextItem
+     *          the node containing the reference
+     * @param target
+     *          the referenced entity
+     * @param kind
+     *          the kind of reference, which handles the reference if the referenced entity is later
+     *          found to be unselected
+     * @param reference
+     *          the reference object
+     */
+    public <TYPE> void recordReference(
+        @NonNull IRequiredValueModelNodeItem contextItem,
+        @NonNull IEntityItem target,
+        @NonNull IReferenceKind<TYPE, Context> kind,
+        @NonNull TYPE reference) {
+      recordReference(contextItem, origin -> new EntityReference(target, origin, kind, reference));
+    }
+
+    /**
+     * Record a reference to an entity that needs no handling if the referenced entity is later found
+     * to be unselected.
+     *
+     * @param contextItem
+     *          the node containing the reference
+     * @param target
+     *          the referenced entity
+     * @see #recordReference(IRequiredValueModelNodeItem, IEntityItem, IReferenceKind, Object)
+     */
+    public void recordReference(
+        @NonNull IRequiredValueModelNodeItem contextItem,
+        @NonNull IEntityItem target) {
+      recordReference(contextItem, origin -> new EntityReference(target, origin));
+    }
+
+    private void recordReference(
+        @NonNull INodeItem contextItem,
+        @NonNull Function<Object, EntityReference> referenceFactory) {
+      // the child of the containing entity's node that contains the reference
+      INodeItem origin = null;
+      for (INodeItem item = contextItem; item != null; item = item.getParentContentNodeItem()) {
+        Object value = item.getValue();
+        if (ENTITY_CLASSES.stream().anyMatch(clazz -> clazz.isInstance(value))) {
+          IEntityItem source = getEntity(ObjectUtils.notNull(value));
+          if (source != null) {
+            source.addReference(referenceFactory.apply(origin == null ? null : origin.getValue()));
+          }
+          break;
+        }
+        origin = item;
+      }
+    }
+
+    /**
+     * Get the indexed entity for the bound object of an entity's node.
+     *
+     * @param value
+     *          the bound object, which must be an instance of one of the entity classes
+     * @return the entity, or {@code null} if the object has no identifier or is not indexed
+     */
+    @Nullable
+    private IEntityItem getEntity(@NonNull Object value) {
+      IEntityItem retval;
+      if (value instanceof Control) {
+        retval = getEntity(IEntityItem.ItemType.CONTROL, ObjectUtils.requireNonNull(((Control) value).getId()));
+      } else if (value instanceof CatalogGroup) {
+        String id = ((CatalogGroup) value).getId();
+        retval = id == null ? null : getEntity(IEntityItem.ItemType.GROUP, id);
+      } else if (value instanceof Parameter) {
+        retval = getEntity(IEntityItem.ItemType.PARAMETER, ObjectUtils.requireNonNull(((Parameter) value).getId()));
+      } else if (value instanceof Role) {
+        retval = getEntity(IEntityItem.ItemType.ROLE, ObjectUtils.requireNonNull(((Role) value).getId()));
+      } else if (value instanceof Party) {
+        retval = getEntity(IEntityItem.ItemType.PARTY,
+            ObjectUtils.notNull(ObjectUtils.requireNonNull(((Party) value).getUuid()).toString()));
+      } else if (value instanceof Location) {
+        retval = getEntity(IEntityItem.ItemType.LOCATION,
+            ObjectUtils.notNull(ObjectUtils.requireNonNull(((Location) value).getUuid()).toString()));
+      } else if (value instanceof Resource) {
+        retval = getEntity(IEntityItem.ItemType.RESOURCE,
+            ObjectUtils.notNull(ObjectUtils.requireNonNull(((Resource) value).getUuid()).toString()));
+      } else {
+        throw new IllegalArgumentException(value.getClass().getName());
       }
+      return retval;
     }
   }
 }
@@ -108,8 +108,17 @@ public class DefaultControlSelectionFilter implements IControlSelectionFilter {
         .orElse(NON_MATCH);
   }
 
+  /**
+   * Compile the glob-style pattern of a control selection's {@code matching} into a regular
+   * expression matching the whole control identifier.
+   *
+   * @param matching
+   *          the matching criteria
+   * @return the compiled pattern
+   */
   @SuppressWarnings("PMD.ImplicitSwitchFallThrough")
-  private static Pattern toPattern(@NonNull Matching matching) {
+  @NonNull
+  public static Pattern toPattern(@NonNull Matching matching) {
     String pattern = ObjectUtils.requireNonNull(matching.getPattern());
     String regex = pattern.chars().boxed().map(ch -> (char) ch.intValue()).map(ch -> {
 
@@ -143,7 +152,7 @@ public class DefaultControlSelectionFilter implements IControlSelectionFilter {
     if (LOGGER.isTraceEnabled()) {
       LOGGER.atTrace().log("regex: {}", regex);
     }
-    return Pattern.compile(regex);
+    return ObjectUtils.notNull(Pattern.compile(regex));
   }
 
   private static class Selection {
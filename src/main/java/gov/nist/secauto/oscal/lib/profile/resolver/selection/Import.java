@@ -38,15 +38,20 @@ import gov.nist.secauto.oscal.lib.model.BackMatter.Resource;
 import gov.nist.secauto.oscal.lib.model.Catalog;
 import gov.nist.secauto.oscal.lib.model.CatalogGroup;
 import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.ControlPart;
 import gov.nist.secauto.oscal.lib.model.Metadata;
 import gov.nist.secauto.oscal.lib.model.Parameter;
 import gov.nist.secauto.oscal.lib.model.ProfileImport;
+import gov.nist.secauto.oscal.lib.profile.resolver.IResolutionDiagnostics;
 import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolutionEvaluationException;
 import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolutionException;
+import gov.nist.secauto.oscal.lib.profile.resolver.ResolutionDiagnostics;
 import gov.nist.secauto.oscal.lib.profile.resolver.policy.ReferenceCountingVisitor;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.BasicIndexer;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIdentifierMapper;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.ReassignmentIndexer;
 
 import java.net.URI;
 import java.util.LinkedList;
@@ -61,13 +66,47 @@ public class Import {
   private final IDocumentNodeItem profileDocument;
   @NonNull
   private final IModelNodeItem profileImportItem;
+  @NonNull
+  private final IResolutionDiagnostics diagnostics;
+  @NonNull
+  private final IIdentifierMapper identifierMapper;
 
   public Import(
       @NonNull IDocumentNodeItem profileDocument,
       @NonNull IModelNodeItem profileImportItem) {
+    this(profileDocument, profileImportItem, new ResolutionDiagnostics());
+  }
+
+  public Import(
+      @NonNull IDocumentNodeItem profileDocument,
+      @NonNull IModelNodeItem profileImportItem,
+      @NonNull IResolutionDiagnostics diagnostics) {
+    this(profileDocument, profileImportItem, diagnostics, IIdentifierMapper.IDENTITY);
+  }
+
+  /**
+   * Construct a new import, which reassigns the identifiers of the imported entities using the
+   * provided mapper.
+   *
+   * @param profileDocument
+   *          the profile containing the import
+   * @param profileImportItem
+   *          the import to resolve
+   * @param diagnostics
+   *          the collector used to report resolution issues
+   * @param identifierMapper
+   *          the mapper used to reassign identifiers
+   */
+  public Import(
+      @NonNull IDocumentNodeItem profileDocument,
+      @NonNull IModelNodeItem profileImportItem,
+      @NonNull IResolutionDiagnostics diagnostics,
+      @NonNull IIdentifierMapper identifierMapper) {
 
     this.profileDocument = profileDocument;
     this.profileImportItem = profileImportItem;
+    this.diagnostics = diagnostics;
+    this.identifierMapper = identifierMapper;
   }
 
   protected IDocumentNodeItem getProfileItem() {
@@ -78,6 +117,16 @@ public class Import {
     return profileImportItem;
   }
 
+  @NonNull
+  protected IResolutionDiagnostics getDiagnostics() {
+    return diagnostics;
+  }
+
+  @NonNull
+  protected IIdentifierMapper getIdentifierMapper() {
+    return identifierMapper;
+  }
+
   @NonNull
   protected ProfileImport getProfileImport() {
     return ObjectUtils.requireNonNull((ProfileImport) profileImportItem.getValue());
@@ -94,10 +143,10 @@ public class Import {
 
   @NonNull
   protected IIndexer newIndexer() {
-    // TODO: add support for reassignment
-    // IIdentifierMapper mapper = IIdentifierMapper.IDENTITY;
-    // IIndexer indexer = new ReassignmentIndexer(mapper);
-    return new BasicIndexer();
+    IIdentifierMapper mapper = getIdentifierMapper();
+    return IIdentifierMapper.IDENTITY.equals(mapper)
+        ? new BasicIndexer(getDiagnostics())
+        : new ReassignmentIndexer(mapper, getDiagnostics());
   }
 
   @NonNull
@@ -124,6 +173,8 @@ public class Import {
           String.format("Unable to resolve profile import '%s'. %s", uri.toString(), ex.getMessage()), ex);
     }
 
+    applyReassignedIdentifiers(indexer);
+
     Catalog importedCatalog = toCatalog(importedCatalogDocument);
     for (Parameter param : CollectionUtil.listOrEmpty(importedCatalog.getParams())) {
       if (param != null) {
@@ -146,6 +197,34 @@ public class Import {
     return indexer;
   }
 
+  /**
+   * Update the retained entities whose identifier was reassigned to use the new identifier. The
+   * references to these entities were already updated while counting references.
+   *
+   * @param indexer
+   *          the index of the retained entities
+   */
+  private static void applyReassignedIdentifiers(@NonNull IIndexer indexer) {
+    for (IEntityItem.ItemType itemType : IEntityItem.ItemType.values()) {
+      assert itemType != null;
+      for (IEntityItem entity : indexer.getEntitiesByItemType(itemType)) {
+        if (entity.isIdentifierReassigned()) {
+          String identifier = entity.getIdentifier();
+          Object value = entity.getInstanceValue();
+          if (value instanceof Control) {
+            ((Control) value).setId(identifier);
+          } else if (value instanceof CatalogGroup) {
+            ((CatalogGroup) value).setId(identifier);
+          } else if (value instanceof Parameter) {
+            ((Parameter) value).setId(identifier);
+          } else if (value instanceof ControlPart) {
+            ((ControlPart) value).setId(identifier);
+          }
+        }
+      }
+    }
+  }
+
   private static void generateMetadata(
       @NonNull IDocumentNodeItem importedCatalogDocument,
       @NonNull Catalog resolvedCatalog,
@@ -27,11 +27,17 @@
 package gov.nist.secauto.oscal.lib.profile.resolver.support;
 
 import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
 
 import java.net.URI;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 
 public abstract class AbstractEntityItem implements IEntityItem {
 
@@ -43,7 +49,14 @@ public abstract class AbstractEntityItem implements IEntityItem {
   private final ItemType itemType;
   @NonNull
   private final URI source;
-  private int referenceCount; // 0 by default
+  // striped to avoid contention when many references to the same entity are counted concurrently
+  @NonNull
+  private final LongAdder referenceCount = new LongAdder(); // 0 by default
+  @NonNull
+  private final Queue<EntityReference> references = new ConcurrentLinkedQueue<>();
+  // the indexer and ordinal are read together, so they are replaced as one value
+  @Nullable
+  private volatile Ordinal ordinal;
   // private boolean resolved; // false by default
 
   protected AbstractEntityItem(@NonNull Builder builder) {
@@ -99,9 +112,20 @@ public abstract class AbstractEntityItem implements IEntityItem {
     return source;
   }
 
+  @Override
+  public int getOrdinal(@NonNull IIndexer indexer) {
+    Ordinal current = ordinal;
+    return current != null && current.indexer == indexer ? current.value : -1;
+  }
+
+  @Override
+  public void setOrdinal(@NonNull IIndexer indexer, int ordinal) {
+    this.ordinal = new Ordinal(indexer, ordinal);
+  }
+
   @Override
   public int getReferenceCount() {
-    return referenceCount;
+    return referenceCount.intValue();
   }
 
   // public boolean isResolved() {
@@ -114,14 +138,33 @@ public abstract class AbstractEntityItem implements IEntityItem {
 
   @Override
   public void incrementReferenceCount() {
-    referenceCount += 1;
+    referenceCount.increment();
+  }
+
+  @Override
+  public void addReference(EntityReference reference) {
+    references.add(reference);
+  }
+
+  @Override
+  public Collection<EntityReference> getReferences() {
+    return CollectionUtil.unmodifiableCollection(references);
   }
 
   @Override
   public int resetReferenceCount() {
-    int retval = referenceCount;
-    referenceCount = 0;
-    return retval;
+    return (int) referenceCount.sumThenReset();
+  }
+
+  private static final class Ordinal {
+    @NonNull
+    private final IIndexer indexer;
+    private final int value;
+
+    private Ordinal(@NonNull IIndexer indexer, int value) {
+      this.indexer = indexer;
+      this.value = value;
+    }
   }
 
   static final class Builder {
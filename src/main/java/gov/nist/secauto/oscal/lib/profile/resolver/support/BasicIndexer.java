@@ -27,8 +27,6 @@
 package gov.nist.secauto.oscal.lib.profile.resolver.support;
 
 import gov.nist.secauto.metaschema.model.common.datatype.adapter.UuidAdapter;
-import gov.nist.secauto.metaschema.model.common.metapath.MetapathExpression;
-import gov.nist.secauto.metaschema.model.common.metapath.MetapathExpression.ResultType;
 import gov.nist.secauto.metaschema.model.common.metapath.item.INodeItem;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
 import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
@@ -41,7 +39,9 @@ import gov.nist.secauto.oscal.lib.model.Metadata.Location;
 import gov.nist.secauto.oscal.lib.model.Metadata.Party;
 import gov.nist.secauto.oscal.lib.model.Metadata.Role;
 import gov.nist.secauto.oscal.lib.model.Parameter;
+import gov.nist.secauto.oscal.lib.profile.resolver.IResolutionDiagnostics;
 import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolver;
+import gov.nist.secauto.oscal.lib.profile.resolver.ResolutionDiagnostics;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem.ItemType;
 
 import org.apache.logging.log4j.LogManager;
@@ -55,19 +55,27 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 public class BasicIndexer implements IIndexer {
   private static final Logger LOGGER = LogManager.getLogger(ProfileResolver.class);
-  private static final MetapathExpression CONTAINER_METAPATH
-      = MetapathExpression.compile("(ancestor::control|ancestor::group)[1])");
 
   @NonNull
   private final Map<IEntityItem.ItemType, Map<String, IEntityItem>> entityTypeToIdentifierToEntityMap;
   @NonNull
-  private Map<INodeItem, SelectionStatus> nodeItemToSelectionStatusMap;
+  private final SelectionStatusStore selectionStatusStore;
+  @NonNull
+  private final IResolutionDiagnostics diagnostics;
+  /**
+   * The next ordinal to assign to an added entity. Ordinals are never reused, so they stay unique
+   * after an entity is removed.
+   */
+  @NonNull
+  private final AtomicInteger nextEntityOrdinal = new AtomicInteger();
 
   @Override
   public void append(@NonNull IIndexer other) {
@@ -79,12 +87,17 @@ public class BasicIndexer implements IIndexer {
       }
     }
 
-    this.nodeItemToSelectionStatusMap.putAll(other.getSelectionStatusMap());
+    this.selectionStatusStore.putAll(other.getSelectionStatusMap());
   }
 
   public BasicIndexer() {
+    this(new ResolutionDiagnostics());
+  }
+
+  public BasicIndexer(@NonNull IResolutionDiagnostics diagnostics) {
     this.entityTypeToIdentifierToEntityMap = new EnumMap<>(IEntityItem.ItemType.class);
-    this.nodeItemToSelectionStatusMap = new ConcurrentHashMap<>();
+    this.selectionStatusStore = new SelectionStatusStore();
+    this.diagnostics = diagnostics;
   }
 
   @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops") // needed
@@ -93,28 +106,59 @@ public class BasicIndexer implements IIndexer {
     this.entityTypeToIdentifierToEntityMap = other.getEntities();
 
     // copy selection map
-    this.nodeItemToSelectionStatusMap = new ConcurrentHashMap<>(other.getSelectionStatusMap());
+    this.selectionStatusStore = new SelectionStatusStore();
+    this.selectionStatusStore.putAll(other.getSelectionStatusMap());
+
+    // report to the same collector
+    this.diagnostics = other.getDiagnostics();
+
+    for (Map<String, IEntityItem> entityGroup : entityTypeToIdentifierToEntityMap.values()) {
+      synchronized (entityGroup) {
+        entityGroup.values().forEach(this::assignOrdinal);
+      }
+    }
+  }
+
+  private void assignOrdinal(@NonNull IEntityItem entity) {
+    if (entity.getOrdinal(this) < 0) {
+      entity.setOrdinal(this, nextEntityOrdinal.getAndIncrement());
+    }
+  }
+
+  @Override
+  public int getEntityOrdinal(@NonNull IEntityItem entity) {
+    return entity.getOrdinal(this);
+  }
+
+  @Override
+  public int getEntityOrdinalLimit() {
+    return nextEntityOrdinal.get();
+  }
+
+  @Override
+  @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "intending to expose this field")
+  public IResolutionDiagnostics getDiagnostics() {
+    return diagnostics;
   }
 
   @Override
   public void setSelectionStatus(@NonNull INodeItem item, @NonNull SelectionStatus selectionStatus) {
-    nodeItemToSelectionStatusMap.put(item, selectionStatus);
+    selectionStatusStore.set(item, selectionStatus);
   }
 
   @Override
   public Map<INodeItem, SelectionStatus> getSelectionStatusMap() {
-    return CollectionUtil.unmodifiableMap(nodeItemToSelectionStatusMap);
+    return CollectionUtil.unmodifiableMap(selectionStatusStore.toMap());
   }
 
   @Override
   public SelectionStatus getSelectionStatus(@NonNull INodeItem item) {
-    SelectionStatus retval = nodeItemToSelectionStatusMap.get(item);
-    return retval == null ? SelectionStatus.UNKNOWN : retval;
+    return selectionStatusStore.get(item);
   }
 
   @Override
   public void resetSelectionStatus() {
-    nodeItemToSelectionStatusMap = new ConcurrentHashMap<>();
+    selectionStatusStore.clear();
   }
 
   @Override
@@ -125,21 +169,11 @@ public class BasicIndexer implements IIndexer {
     case GROUP:
       retval = IIndexer.SelectionStatus.SELECTED.equals(getSelectionStatus(entity.getInstance()));
       break;
-    case PART: {
-      IRequiredValueModelNodeItem instance = entity.getInstance();
-      IIndexer.SelectionStatus status = getSelectionStatus(instance);
-      if (IIndexer.SelectionStatus.UNKNOWN.equals(status)) {
-        // lookup the status if not known
-        IRequiredValueModelNodeItem containerItem = CONTAINER_METAPATH.evaluateAs(instance, ResultType.NODE);
-        assert containerItem != null;
-        status = getSelectionStatus(containerItem);
-
-        // cache the status
-        setSelectionStatus(instance, status);
-      }
-      retval = IIndexer.SelectionStatus.SELECTED.equals(status);
+    case PART:
+      // use the status of the containing control or group if not known
+      retval = IIndexer.SelectionStatus.SELECTED.equals(
+          selectionStatusStore.getOrContainerStatus(entity.getInstance()));
       break;
-    }
     case PARAMETER:
     case LOCATION:
     case PARTY:
@@ -208,16 +242,19 @@ public class BasicIndexer implements IIndexer {
   protected IEntityItem addItem(@NonNull IEntityItem item) {
     IEntityItem.ItemType type = item.getItemType();
 
+    assignOrdinal(item);
+
     @SuppressWarnings("PMD.UseConcurrentHashMap") // need ordering
     Map<String, IEntityItem> entityGroup = entityTypeToIdentifierToEntityMap.computeIfAbsent(
         type,
         (key) -> Collections.synchronizedMap(new LinkedHashMap<>()));
     IEntityItem oldEntity = entityGroup.put(item.getIdentifier(), item);
 
-    if (oldEntity != null && LOGGER.isWarnEnabled()) {
-      LOGGER.atWarn().log("Duplicate {} found with identifier {} in index.",
-          oldEntity.getItemType().name().toLowerCase(Locale.ROOT),
-          oldEntity.getIdentifier());
+    if (oldEntity != null) {
+      getDiagnostics().record(
+          IResolutionDiagnostics.Kind.DUPLICATE_ENTITY,
+          oldEntity.getItemType().name().toLowerCase(Locale.ROOT) + " '" + oldEntity.getIdentifier() + "'",
+          item.getInstance());
     }
     return oldEntity;
   }
@@ -239,7 +276,7 @@ public class BasicIndexer implements IIndexer {
       retval = entityGroup.remove(entity.getIdentifier(), entity);
 
       // remove if present
-      nodeItemToSelectionStatusMap.remove(entity.getInstance());
+      selectionStatusStore.remove(entity.getInstance());
 
       if (retval) {
         if (LOGGER.isDebugEnabled()) {
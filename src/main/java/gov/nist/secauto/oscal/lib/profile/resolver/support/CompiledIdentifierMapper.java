@@ -0,0 +1,248 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.support;
+
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.CatalogGroup;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.ControlPart;
+import gov.nist.secauto.oscal.lib.model.Parameter;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem.ItemType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * An identifier mapper backed by a table of reassignments for each item type.
+ * <p>
+ * Identifiers without a reassignment map to themselves. Since the tables are computed up front, a
+ * lookup costs a single hash probe, regardless of the item type.
+ */
+public final class CompiledIdentifierMapper implements IIdentifierMapper {
+  /**
+   * The item types whose identifiers can be reassigned. Roles are shared metadata that are
+   * deduplicated by identifier, and the other types are identified by UUID.
+   */
+  private static final Set<ItemType> REASSIGNABLE_ITEM_TYPES
+      = Collections.unmodifiableSet(EnumSet.of(
+          ItemType.CONTROL,
+          ItemType.GROUP,
+          ItemType.PARAMETER,
+          ItemType.PART));
+
+  @NonNull
+  private final Map<ItemType, Map<String, String>> itemTypeToReassignmentMap;
+
+  private CompiledIdentifierMapper(@NonNull Map<ItemType, Map<String, String>> itemTypeToReassignmentMap) {
+    this.itemTypeToReassignmentMap = itemTypeToReassignmentMap;
+  }
+
+  /**
+   * Create a mapper that reassigns each control, group, parameter, and part identifier in the
+   * provided catalog that is already used by an entity in the provided index.
+   * <p>
+   * A reassigned identifier is made unique by appending a numeric suffix that is used neither in the
+   * catalog nor in the index.
+   *
+   * @param catalog
+   *          the catalog whose identifiers are to be mapped
+   * @param existing
+   *          the index containing the identifiers already in use
+   * @return the mapper, which is {@link IIdentifierMapper#IDENTITY} if no identifiers collide
+   */
+  @NonNull
+  public static IIdentifierMapper forCollisions(@NonNull Catalog catalog, @NonNull IIndexer existing) {
+    Map<ItemType, Set<String>> itemTypeToIdentifiers = new EnumMap<>(ItemType.class);
+    for (ItemType itemType : REASSIGNABLE_ITEM_TYPES) {
+      itemTypeToIdentifiers.put(itemType, new HashSet<>());
+    }
+    collectParameters(catalog.getParams(), itemTypeToIdentifiers);
+    collectGroups(catalog.getGroups(), itemTypeToIdentifiers);
+    collectControls(catalog.getControls(), itemTypeToIdentifiers);
+
+    Builder builder = new Builder();
+    for (Map.Entry<ItemType, Set<String>> entry : itemTypeToIdentifiers.entrySet()) {
+      ItemType itemType = ObjectUtils.notNull(entry.getKey());
+      Set<String> identifiers = entry.getValue();
+      // iterate over a copy, since reassigned identifiers are reserved in the set
+      for (String identifier : new ArrayList<>(identifiers)) {
+        assert identifier != null;
+        if (existing.getEntity(itemType, identifier, false) != null) {
+          builder.map(itemType, identifier, nextIdentifier(itemType, identifier, identifiers, existing));
+        }
+      }
+    }
+    return builder.isEmpty() ? IIdentifierMapper.IDENTITY : builder.build();
+  }
+
+  @NonNull
+  private static String nextIdentifier(
+      @NonNull ItemType itemType,
+      @NonNull String identifier,
+      @NonNull Set<String> used,
+      @NonNull IIndexer existing) {
+    String retval;
+    int suffix = 1;
+    do {
+      retval = identifier + "_" + ++suffix;
+    } while (used.contains(retval) || existing.getEntity(itemType, retval, false) != null);
+    // reserve the identifier for this mapping
+    used.add(retval);
+    return retval;
+  }
+
+  private static void collectGroups(
+      List<CatalogGroup> groups,
+      @NonNull Map<ItemType, Set<String>> itemTypeToIdentifiers) {
+    for (CatalogGroup group : CollectionUtil.listOrEmpty(groups)) {
+      String id = group.getId();
+      if (id != null) {
+        itemTypeToIdentifiers.get(ItemType.GROUP).add(id);
+      }
+      collectParameters(group.getParams(), itemTypeToIdentifiers);
+      collectParts(group.getParts(), itemTypeToIdentifiers);
+      collectGroups(group.getGroups(), itemTypeToIdentifiers);
+      collectControls(group.getControls(), itemTypeToIdentifiers);
+    }
+  }
+
+  private static void collectControls(
+      List<Control> controls,
+      @NonNull Map<ItemType, Set<String>> itemTypeToIdentifiers) {
+    for (Control control : CollectionUtil.listOrEmpty(controls)) {
+      itemTypeToIdentifiers.get(ItemType.CONTROL).add(control.getId());
+      collectParameters(control.getParams(), itemTypeToIdentifiers);
+      collectParts(control.getParts(), itemTypeToIdentifiers);
+      collectControls(control.getControls(), itemTypeToIdentifiers);
+    }
+  }
+
+  private static void collectParameters(
+      List<Parameter> params,
+      @NonNull Map<ItemType, Set<String>> itemTypeToIdentifiers) {
+    for (Parameter param : CollectionUtil.listOrEmpty(params)) {
+      itemTypeToIdentifiers.get(ItemType.PARAMETER).add(param.getId());
+    }
+  }
+
+  private static void collectParts(
+      List<ControlPart> parts,
+      @NonNull Map<ItemType, Set<String>> itemTypeToIdentifiers) {
+    for (ControlPart part : CollectionUtil.listOrEmpty(parts)) {
+      String id = part.getId();
+      if (id != null) {
+        itemTypeToIdentifiers.get(ItemType.PART).add(id);
+      }
+      collectParts(part.getParts(), itemTypeToIdentifiers);
+    }
+  }
+
+  @NonNull
+  private String lookup(@NonNull ItemType itemType, @NonNull String identifier) {
+    Map<String, String> reassignments = itemTypeToReassignmentMap.get(itemType);
+    String retval = reassignments == null ? null : reassignments.get(identifier);
+    return retval == null ? identifier : retval;
+  }
+
+  @Override
+  public String mapRoleIdentifier(@NonNull String identifier) {
+    return lookup(ItemType.ROLE, identifier);
+  }
+
+  @Override
+  public String mapControlIdentifier(@NonNull String identifier) {
+    return lookup(ItemType.CONTROL, identifier);
+  }
+
+  @Override
+  public String mapGroupIdentifier(@NonNull String identifier) {
+    return lookup(ItemType.GROUP, identifier);
+  }
+
+  @Override
+  public String mapParameterIdentifier(@NonNull String identifier) {
+    return lookup(ItemType.PARAMETER, identifier);
+  }
+
+  @Override
+  public String mapPartIdentifier(@NonNull String identifier) {
+    return lookup(ItemType.PART, identifier);
+  }
+
+  @Override
+  public String mapByItemType(@NonNull ItemType itemType, @NonNull String identifier) {
+    return lookup(itemType, identifier);
+  }
+
+  public static final class Builder {
+    @NonNull
+    private final Map<ItemType, Map<String, String>> itemTypeToReassignmentMap = new EnumMap<>(ItemType.class);
+
+    /**
+     * Add a reassignment.
+     *
+     * @param itemType
+     *          the type of item identified
+     * @param identifier
+     *          the original identifier
+     * @param reassignment
+     *          the identifier to map the original identifier to
+     * @return this builder
+     */
+    @NonNull
+    public Builder map(@NonNull ItemType itemType, @NonNull String identifier, @NonNull String reassignment) {
+      itemTypeToReassignmentMap.computeIfAbsent(itemType, key -> new HashMap<>()).put(identifier, reassignment);
+      return this;
+    }
+
+    public boolean isEmpty() {
+      return itemTypeToReassignmentMap.isEmpty();
+    }
+
+    @NonNull
+    public CompiledIdentifierMapper build() {
+      Map<ItemType, Map<String, String>> tables = new EnumMap<>(ItemType.class);
+      for (Map.Entry<ItemType, Map<String, String>> entry : itemTypeToReassignmentMap.entrySet()) {
+        tables.put(
+            entry.getKey(),
+            CollectionUtil.unmodifiableMap(ObjectUtils.notNull(new HashMap<>(entry.getValue()))));
+      }
+      return new CompiledIdentifierMapper(tables);
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.support;
+
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * A reference made by the content of an entity to another entity, as recorded while counting
+ * references.
+ * <p>
+ * The reference is recorded on the source entity, so only the referenced entity, the origin of the
+ * reference, the reference object, and the kind of reference are held. The node items and visitor
+ * state in use when the reference was recorded are not retained.
+ */
+public final class EntityReference {
+  @NonNull
+  private final IEntityItem target;
+  @Nullable
+  private final Object origin;
+  @Nullable
+  private final IReferenceKind<?, ?> kind;
+  @Nullable
+  private final Object reference;
+
+  /**
+   * Construct a new reference that needs no handling if the referenced entity is later found to be
+   * unselected.
+   *
+   * @param target
+   *          the referenced entity
+   * @param origin
+   *          the child of the source entity containing the reference, or {@code null} if the
+   *          reference is made by the source entity itself
+   */
+  public EntityReference(@NonNull IEntityItem target, @Nullable Object origin) {
+    this.target = target;
+    this.origin = origin;
+    this.kind = null;
+    this.reference = null;
+  }
+
+  /**
+   * Construct a new reference.
+   *
+   * @param <TYPE>
+   *          the type of the reference object
+   * @param target
+   *          the referenced entity
+   * @param origin
+   *          the child of the source entity containing the reference, or {@code null} if the
+   *          reference is made by the source entity itself
+   * @param kind
+   *          the kind of reference, which handles the reference if the referenced entity is later
+   *          found to be unselected
+   * @param reference
+   *          the reference object
+   */
+  public <TYPE> EntityReference(
+      @NonNull IEntityItem target,
+      @Nullable Object origin,
+      @NonNull IReferenceKind<TYPE, ?> kind,
+      @NonNull TYPE reference) {
+    this.target = target;
+    this.origin = origin;
+    this.kind = kind;
+    this.reference = reference;
+  }
+
+  /**
+   * Get the referenced entity.
+   *
+   * @return the entity
+   */
+  @NonNull
+  public IEntityItem getTarget() {
+    return target;
+  }
+
+  /**
+   * Get the bound object of the source entity's child that contains the reference, such as a part
+   * or link of a control.
+   *
+   * @return the child, or {@code null} if the reference is made by the source entity itself
+   */
+  @Nullable
+  public Object getOrigin() {
+    return origin;
+  }
+
+  /**
+   * Handle the referenced entity being unselected.
+   *
+   * @param <CONTEXT>
+   *          the type of the state used while handling the reference, which must match the kind of
+   *          reference
+   * @param source
+   *          the entity whose content contains the reference
+   * @param context
+   *          the state used while handling the reference
+   */
+  @SuppressWarnings("unchecked")
+  public <CONTEXT> void handleUnselected(@NonNull IEntityItem source, @NonNull CONTEXT context) {
+    if (kind != null) {
+      ((IReferenceKind<Object, CONTEXT>) kind).handleUnselectedTarget(
+          source,
+          ObjectUtils.notNull(reference),
+          target,
+          context);
+    }
+  }
+}
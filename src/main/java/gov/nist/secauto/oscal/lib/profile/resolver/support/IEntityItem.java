@@ -29,6 +29,7 @@ package gov.nist.secauto.oscal.lib.profile.resolver.support;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
 
 import java.net.URI;
+import java.util.Collection;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 
@@ -97,11 +98,58 @@ public interface IEntityItem {
   @NonNull
   ItemType getItemType();
 
+  /**
+   * Get the dense ordinal assigned to this entity by the provided indexer.
+   *
+   * @param indexer
+   *          the indexer to get the ordinal for
+   * @return the ordinal, or {@code -1} if the entity's current ordinal was not assigned by the
+   *         indexer
+   */
+  int getOrdinal(@NonNull IIndexer indexer);
+
+  /**
+   * Assign this entity's dense ordinal, replacing any ordinal assigned by another indexer.
+   *
+   * @param indexer
+   *          the indexer assigning the ordinal
+   * @param ordinal
+   *          the ordinal
+   */
+  void setOrdinal(@NonNull IIndexer indexer, int ordinal);
+
   URI getSource();
 
   int getReferenceCount();
 
+  /**
+   * Increment the reference count. This method is safe to call concurrently.
+   */
   void incrementReferenceCount();
 
+  /**
+   * Reset the reference count to zero.
+   * <p>
+   * This must not be called concurrently with {@link #incrementReferenceCount()}.
+   *
+   * @return the reference count before the reset
+   */
   int resetReferenceCount();
+
+  /**
+   * Record a reference made by this entity's content to another entity. This method is safe to call
+   * concurrently.
+   *
+   * @param reference
+   *          the reference
+   */
+  void addReference(@NonNull EntityReference reference);
+
+  /**
+   * Get the references recorded for this entity's content.
+   *
+   * @return the references
+   */
+  @NonNull
+  Collection<EntityReference> getReferences();
 }
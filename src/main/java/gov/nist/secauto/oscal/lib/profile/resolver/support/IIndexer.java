@@ -32,6 +32,7 @@ import gov.nist.secauto.metaschema.model.common.metapath.item.INodeItem;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
 import gov.nist.secauto.metaschema.model.common.util.CustomCollectors;
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.profile.resolver.IResolutionDiagnostics;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem.ItemType;
 
 import org.apache.logging.log4j.Level;
@@ -160,6 +161,40 @@ public interface IIndexer {
     }
   }
 
+  /**
+   * Get the collector used to report non-fatal issues found while indexing and resolving the
+   * indexed content.
+   *
+   * @return the diagnostics collector
+   */
+  @NonNull
+  IResolutionDiagnostics getDiagnostics();
+
+  /**
+   * Get the dense ordinal this indexer assigned to the provided entity when it was added.
+   * <p>
+   * Ordinals allow per-entity state to be tracked in arrays or bitsets instead of hash-based
+   * collections. The ordinal is stored on the entity, so it is read without a lookup. An entity has
+   * one ordinal at a time, so adding it to another indexer, such as by {@link #append(IIndexer)},
+   * assigns it a new ordinal owned by that indexer.
+   *
+   * @param entity
+   *          the entity to get the ordinal for
+   * @return the ordinal, or {@code -1} if the entity's current ordinal was not assigned by this
+   *         indexer
+   */
+  int getEntityOrdinal(@NonNull IEntityItem entity);
+
+  /**
+   * Get the number of entity ordinals assigned by this indexer.
+   * <p>
+   * All entities in this index have an {@link #getEntityOrdinal(IEntityItem) ordinal} less than this
+   * value, which can be used to size ordinal-indexed data structures.
+   *
+   * @return the ordinal limit
+   */
+  int getEntityOrdinalLimit();
+
   @NonNull
   IEntityItem addRole(@NonNull IRequiredValueModelNodeItem role);
 
@@ -27,6 +27,7 @@
 package gov.nist.secauto.oscal.lib.profile.resolver.support;
 
 import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
+import gov.nist.secauto.oscal.lib.profile.resolver.IResolutionDiagnostics;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem.ItemType;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -40,6 +41,11 @@ public class ReassignmentIndexer
     this.mapper = mapper;
   }
 
+  public ReassignmentIndexer(@NonNull IIdentifierMapper mapper, @NonNull IResolutionDiagnostics diagnostics) {
+    super(diagnostics);
+    this.mapper = mapper;
+  }
+
   @NonNull
   protected IIdentifierMapper getMapper() {
     return mapper;
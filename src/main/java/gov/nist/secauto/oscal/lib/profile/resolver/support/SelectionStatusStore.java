@@ -0,0 +1,132 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.support;
+
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDefinitionNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.INodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer.SelectionStatus;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Tracks the selection status of node items.
+ * <p>
+ * For nodes that have no status of their own, such as parts, the status of the nearest containing
+ * control or group can be used. The container is found by walking the node's parents.
+ * <p>
+ * This class is thread-safe.
+ */
+final class SelectionStatusStore {
+  @NonNull
+  private final Map<INodeItem, SelectionStatus> statuses = new ConcurrentHashMap<>();
+
+  /**
+   * Get the status of the node item.
+   *
+   * @param item
+   *          the node item
+   * @return the status, or {@link SelectionStatus#UNKNOWN} if no status is set
+   */
+  @NonNull
+  public SelectionStatus get(@NonNull INodeItem item) {
+    return ObjectUtils.notNull(statuses.getOrDefault(item, SelectionStatus.UNKNOWN));
+  }
+
+  /**
+   * Get the status of the node item, using the status of the nearest containing control or group if
+   * the node item's status is unknown.
+   *
+   * @param item
+   *          the node item
+   * @return the status
+   */
+  @NonNull
+  public SelectionStatus getOrContainerStatus(@NonNull INodeItem item) {
+    SelectionStatus retval = statuses.get(item);
+    if (retval == null) {
+      INodeItem container = findContainer(item);
+      retval = container == null ? SelectionStatus.UNKNOWN : get(container);
+    }
+    return retval;
+  }
+
+  @Nullable
+  private static INodeItem findContainer(@NonNull INodeItem item) {
+    INodeItem retval = item.getParentNodeItem();
+    while (retval != null && !isContainer(retval)) {
+      retval = retval.getParentNodeItem();
+    }
+    return retval;
+  }
+
+  private static boolean isContainer(@NonNull INodeItem item) {
+    boolean retval = false;
+    if (item instanceof IDefinitionNodeItem) {
+      String name = ((IDefinitionNodeItem) item).getName();
+      retval = "control".equals(name) || "group".equals(name);
+    }
+    return retval;
+  }
+
+  public void set(@NonNull INodeItem item, @NonNull SelectionStatus status) {
+    statuses.put(item, status);
+  }
+
+  public void putAll(@NonNull Map<INodeItem, SelectionStatus> map) {
+    statuses.putAll(map);
+  }
+
+  /**
+   * Clear the status of the node item.
+   *
+   * @param item
+   *          the node item
+   */
+  public void remove(@NonNull INodeItem item) {
+    statuses.remove(item);
+  }
+
+  public void clear() {
+    statuses.clear();
+  }
+
+  /**
+   * Get a snapshot of the node items that have a status.
+   *
+   * @return a new map of node items to their status
+   */
+  @NonNull
+  public Map<INodeItem, SelectionStatus> toMap() {
+    return new HashMap<>(statuses);
+  }
+}
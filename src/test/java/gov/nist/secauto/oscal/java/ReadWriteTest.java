@@ -34,6 +34,8 @@ import gov.nist.secauto.metaschema.binding.io.Format;
 import gov.nist.secauto.metaschema.binding.io.IDeserializer;
 import gov.nist.secauto.metaschema.binding.io.ISerializer;
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.io.BinaryDeserializer;
+import gov.nist.secauto.oscal.lib.io.BinarySerializer;
 import gov.nist.secauto.oscal.lib.model.Catalog;
 
 import org.apache.logging.log4j.LogManager;
@@ -50,11 +52,21 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 class ReadWriteTest {
   private static final Logger LOGGER = LogManager.getLogger(ReadWriteTest.class);
 
+  @FunctionalInterface
+  private interface IReader<CLASS> {
+    CLASS read(@NonNull Path file) throws IOException;
+  }
+
+  @FunctionalInterface
+  private interface IWriter<CLASS> {
+    void write(@NonNull CLASS root, @NonNull Path file) throws IOException;
+  }
+
   @NonNull
   private static <CLASS> CLASS measureDeserializer(
       @NonNull String format,
       @NonNull Path file,
-      @NonNull IDeserializer<CLASS> deserializer,
+      @NonNull IReader<CLASS> deserializer,
       int iterations) throws IOException {
 
     if (iterations < 1) {
@@ -67,7 +79,7 @@ class ReadWriteTest {
     long totalTime = 0;
     for (int i = 0; i < iterations; i++) {
       long startTime = System.nanoTime();
-      retval = deserializer.deserialize(file);
+      retval = deserializer.read(file);
       long endTime = System.nanoTime();
       long timeElapsed = (endTime - startTime) / 1_000_000;
       if (LOGGER.isInfoEnabled()) {
@@ -89,12 +101,12 @@ class ReadWriteTest {
       @NonNull CLASS root,
       @NonNull String format,
       @NonNull Path file,
-      @NonNull ISerializer<CLASS> serializer,
+      @NonNull IWriter<CLASS> serializer,
       int iterations) throws IOException {
     long totalTime = 0;
     for (int i = 0; i < iterations; i++) {
       long startTime = System.nanoTime();
-      serializer.serialize(root, file);
+      serializer.write(root, file);
       long endTime = System.nanoTime();
       long timeElapsed = (endTime - startTime) / 1_000_000;
       if (LOGGER.isInfoEnabled()) {
@@ -125,33 +137,43 @@ class ReadWriteTest {
     {
       IDeserializer<CLASS> deserializer = context.newDeserializer(Format.XML, clazz);
       deserializer.disableFeature(DeserializationFeature.DESERIALIZE_VALIDATE_CONSTRAINTS);
-      obj = measureDeserializer("XML", xmlSource, deserializer, iterations);
+      obj = measureDeserializer("XML", xmlSource, deserializer::deserialize, iterations);
 
       Path out = ObjectUtils.notNull(tempDir.resolve("out.xml"));
       ISerializer<CLASS> serializer = context.newSerializer(Format.XML, clazz);
-      measureSerializer(obj, "XML", out, serializer, iterations);
+      measureSerializer(obj, "XML", out, serializer::serialize, iterations);
     }
 
     // JSON
     {
       Path out = ObjectUtils.notNull(tempDir.resolve("out.json"));
       ISerializer<CLASS> serializer = context.newSerializer(Format.JSON, clazz);
-      measureSerializer(obj, "JSON", out, serializer, iterations);
+      measureSerializer(obj, "JSON", out, serializer::serialize, iterations);
 
       IDeserializer<CLASS> deserializer = context.newDeserializer(Format.JSON, clazz);
       deserializer.disableFeature(DeserializationFeature.DESERIALIZE_VALIDATE_CONSTRAINTS);
-      obj = measureDeserializer("JSON", out, deserializer, iterations);
+      obj = measureDeserializer("JSON", out, deserializer::deserialize, iterations);
     }
 
     // YAML
     {
       Path out = ObjectUtils.notNull(tempDir.resolve("out.yaml"));
       ISerializer<CLASS> serializer = context.newSerializer(Format.YAML, clazz);
-      measureSerializer(obj, "YAML", out, serializer, iterations);
+      measureSerializer(obj, "YAML", out, serializer::serialize, iterations);
 
       IDeserializer<CLASS> deserializer = context.newDeserializer(Format.YAML, clazz);
       deserializer.disableFeature(DeserializationFeature.DESERIALIZE_VALIDATE_CONSTRAINTS);
-      measureDeserializer("YAML", out, deserializer, iterations);
+      measureDeserializer("YAML", out, deserializer::deserialize, iterations);
+    }
+
+    // binary
+    {
+      Path out = ObjectUtils.notNull(tempDir.resolve("out.bin"));
+      BinarySerializer<CLASS> serializer = new BinarySerializer<>(context, clazz);
+      measureSerializer(obj, "BINARY", out, serializer::serialize, iterations);
+
+      BinaryDeserializer<CLASS> deserializer = new BinaryDeserializer<>(context, clazz);
+      measureDeserializer("BINARY", out, deserializer::deserialize, iterations);
     }
   }
 
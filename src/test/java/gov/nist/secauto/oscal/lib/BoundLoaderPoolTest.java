@@ -0,0 +1,134 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.Property;
+import gov.nist.secauto.oscal.lib.model.metadata.ValueInterner;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+class BoundLoaderPoolTest {
+  @Test
+  void testLoaderReuse() throws IOException {
+    BoundLoaderPool pool = new BoundLoaderPool(OscalBindingContext.instance());
+
+    IBoundLoader loader = pool.acquire();
+    pool.release(loader);
+    Catalog catalog = pool.load(Catalog.class, Paths.get("src/test/resources/content/test-catalog.xml"));
+    assertEquals("Simple Test Catalog", catalog.getMetadata().getTitle().toMarkdown());
+
+    // the loader used for the load is returned to the pool
+    assertSame(loader, pool.acquire());
+  }
+
+  @Test
+  void testValueInterning() throws IOException {
+    BoundLoaderPool pool = new BoundLoaderPool(OscalBindingContext.instance());
+    ValueInterner interner = new ValueInterner();
+    pool.setValueInterner(interner);
+
+    Path path = Paths.get("src/test/resources/content/issue13-catalog.xml");
+    Property first = pool.load(Catalog.class, path).getGroups().get(0).getControls().get(0).getProps().get(0);
+    Property second = pool.load(Catalog.class, path).getGroups().get(0).getControls().get(0).getProps().get(0);
+    assertNotSame(first, second);
+    assertSame(first.getName(), second.getName());
+    assertNull(ValueInterner.active());
+  }
+
+  @Test
+  void testConcurrentLoads() throws InterruptedException, ExecutionException {
+    Path path = Paths.get("src/test/resources/content/test-catalog.xml");
+    OscalBindingContext bindingContext = OscalBindingContext.instance();
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Catalog>> futures = IntStream.range(0, 32)
+          .mapToObj(index -> executor.submit(() -> bindingContext.loadCatalog(path)))
+          .collect(Collectors.toList());
+      for (Future<Catalog> future : futures) {
+        assertEquals("control-1", future.get().getControls().get(0).getId());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void testLoadAllOrdered() throws InterruptedException {
+    Path catalog = Paths.get("src/test/resources/content/test-catalog.xml");
+    Path missing = Paths.get("src/test/resources/content/does-not-exist.xml");
+    List<Path> paths = Stream.concat(
+        Stream.generate(() -> catalog).limit(20),
+        Stream.of(missing, catalog))
+        .collect(Collectors.toList());
+
+    List<LoadResult<Catalog>> results = OscalBindingContext.instance().loadAll(paths.stream(), Catalog.class);
+    assertEquals(paths, results.stream().map(LoadResult::getPath).collect(Collectors.toList()));
+
+    LoadResult<Catalog> failed = results.get(20);
+    assertFalse(failed.isSuccessful());
+    assertNull(failed.getValue());
+    assertNotNull(failed.getException());
+
+    LoadResult<Catalog> last = results.get(21);
+    assertTrue(last.isSuccessful());
+    assertEquals("control-1", last.getValue().getControls().get(0).getId());
+  }
+
+  @Test
+  void testLoadAllAsCompleted() throws InterruptedException {
+    Path catalog = Paths.get("src/test/resources/content/test-catalog.xml");
+    List<LoadResult<Catalog>> results = new LinkedList<>();
+    OscalBindingContext.instance().loadAll(Stream.generate(() -> catalog).limit(40), Catalog.class, results::add);
+
+    assertEquals(40, results.size());
+    assertTrue(results.stream().allMatch(LoadResult::isSuccessful));
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.vladsch.flexmark.ast.InlineLinkNode;
+
+import gov.nist.secauto.metaschema.model.common.datatype.markup.MarkupLine;
+import gov.nist.secauto.metaschema.model.common.datatype.markup.MarkupMultiline;
+import gov.nist.secauto.metaschema.model.common.datatype.markup.flexmark.InsertAnchorExtension.InsertAnchorNode;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class MarkupReferenceScannerTest {
+
+  @Test
+  void testNoReferences() {
+    MarkupMultiline markup = MarkupMultiline.fromMarkdown("Plain *text* with no references.");
+    assertFalse(MarkupReferenceScanner.mayContainInserts(markup));
+    assertTrue(MarkupReferenceScanner.getInserts(markup, insert -> true).isEmpty());
+
+    List<Object> found = new LinkedList<>();
+    MarkupReferenceScanner.forEachReference(markup, found::add, found::add);
+    assertTrue(found.isEmpty());
+  }
+
+  @Test
+  void testFilteredInserts() {
+    MarkupLine markup = MarkupLine.fromMarkdown("Set {{ insert: param, p1 }} and {{ insert: param, p2 }}.");
+    assertTrue(MarkupReferenceScanner.mayContainInserts(markup));
+
+    List<String> ids = MarkupReferenceScanner
+        .getInserts(markup, insert -> "p2".equals(insert.getIdReference().toString()))
+        .stream()
+        .map(insert -> insert.getIdReference().toString())
+        .collect(Collectors.toList());
+    assertEquals(List.of("p2"), ids);
+  }
+
+  @Test
+  void testInsertsAndLinks() {
+    MarkupMultiline markup = MarkupMultiline.fromMarkdown(
+        "Do {{ insert: param, p1 }} as described in [the guide](#guide).\n\nThen see [more](#more).");
+
+    List<InsertAnchorNode> inserts = new LinkedList<>();
+    List<InlineLinkNode> links = new LinkedList<>();
+    MarkupReferenceScanner.forEachReference(markup, inserts::add, links::add);
+
+    assertEquals(1, inserts.size());
+    assertEquals("p1", inserts.get(0).getIdReference().toString());
+    assertEquals(List.of("#guide", "#more"), links.stream()
+        .map(link -> link.getUrl().toString())
+        .collect(Collectors.toList()));
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import gov.nist.secauto.oscal.lib.model.AssessmentResults;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.Profile;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import javax.xml.namespace.QName;
+
+class RootNameScannerTest {
+  private static QName scan(String text) {
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    return RootNameScanner.scan(bytes, bytes.length);
+  }
+
+  @Test
+  void testXml() {
+    assertEquals(new QName("http://csrc.nist.gov/ns/oscal/1.0", "catalog"),
+        scan("<?xml version=\"1.0\"?>\n<!-- comment -->\n<!DOCTYPE catalog [ <!ENTITY a \"b\"> ]>\n"
+            + "<?xml-model href=\"catalog.xsd\"?>\n"
+            + "<catalog uuid='1' xmlns=\"http://csrc.nist.gov/ns/oscal/1.0\"><metadata/></catalog>"));
+    assertEquals(new QName("http://csrc.nist.gov/ns/oscal/1.0", "profile"),
+        scan("<o:profile xmlns=\"urn:other\" xmlns:o=\"http://csrc.nist.gov/ns/oscal/1.0\">"));
+    // no namespace
+    assertNull(scan("<catalog uuid=\"1\">"));
+    // incomplete start tag
+    assertNull(scan("<catalog xmlns=\"http://csrc.nist.gov/ns/oscal/1.0\""));
+  }
+
+  @Test
+  void testJson() {
+    assertEquals(new QName("catalog"), scan("{\n  \"$schema\": \"oscal_catalog_schema.json\",\n  \"catalog\": {"));
+    assertEquals(new QName("profile"), scan("\uFEFF{\"profile\":{\"uuid\":\"1\"}}"));
+    assertNull(scan("{\"$schema\": 1, \"catalog\": {}}"));
+    assertNull(scan("[1, 2]"));
+  }
+
+  @Test
+  void testYaml() {
+    assertEquals(new QName("catalog"), scan("---\n# comment\n$schema: schema.json\ncatalog:\n  uuid: 1\n"));
+    assertEquals(new QName("assessment-results"), scan("\"assessment-results\":\n  uuid: 1\n"));
+    assertNull(scan("  indented: true\n"));
+    assertNull(scan("plain text"));
+  }
+
+  @Test
+  void testDetectModel() throws IOException {
+    OscalBindingContext bindingContext = OscalBindingContext.instance();
+    assertEquals(Catalog.class,
+        bindingContext.detectModel(Paths.get("src/test/resources/content/test-catalog.xml")));
+    assertEquals(Profile.class,
+        bindingContext.detectModel(Paths.get("src/test/resources/content/test-oscal-version-profile.xml")));
+    assertEquals(AssessmentResults.class,
+        bindingContext.detectModel(Paths.get("src/test/resources/content/test-assessment-results.xml")));
+
+    // unknown content is not recognized
+    assertNull(bindingContext.detectModel(
+        new ByteArrayInputStream("{\"unknown\": {}}".getBytes(StandardCharsets.UTF_8))));
+    assertNull(bindingContext.detectModel(new ByteArrayInputStream(new byte[] { 0, 1, 2, 3 })));
+    assertNull(bindingContext.detectModel(new ByteArrayInputStream(new byte[0])));
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.lib.model.AssessmentResults;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.profile.resolver.TestUtil;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+class BinarySerializerTest {
+  @NonNull
+  private static <CLASS> String serialize(@NonNull Format format, @NonNull Class<CLASS> clazz, @NonNull CLASS data)
+      throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    OscalBindingContext.instance().newSerializer(format, clazz).serialize(data, os);
+    return os.toString(StandardCharsets.UTF_8);
+  }
+
+  @NonNull
+  private static <CLASS> byte[] toBinary(@NonNull Class<CLASS> clazz, @NonNull CLASS data) throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    OscalBindingContext.instance().newBinarySerializer(clazz).serialize(data, os);
+    return os.toByteArray();
+  }
+
+  @ParameterizedTest
+  @EnumSource(Format.class)
+  void testCatalogRoundTrip(Format format) throws IOException {
+    Catalog catalog = (Catalog) ObjectUtils.requireNonNull(TestUtil.newImportedCatalog().getValue());
+
+    byte[] binary = toBinary(Catalog.class, catalog);
+    Catalog copy = OscalBindingContext.instance().newBinaryDeserializer(Catalog.class)
+        .deserialize(new ByteArrayInputStream(binary));
+
+    assertEquals(serialize(format, Catalog.class, catalog), serialize(format, Catalog.class, copy));
+  }
+
+  @Test
+  void testAssessmentResultsRoundTrip() throws IOException {
+    OscalBindingContext bindingContext = OscalBindingContext.instance();
+    AssessmentResults results = bindingContext.loadAssessmentResults(
+        Paths.get("src/test/resources/content/test-assessment-results.xml"));
+
+    byte[] binary = toBinary(AssessmentResults.class, results);
+    AssessmentResults copy = bindingContext.newBinaryDeserializer(AssessmentResults.class)
+        .deserialize(new ByteArrayInputStream(binary));
+
+    String json = serialize(Format.JSON, AssessmentResults.class, results);
+    assertEquals(json, serialize(Format.JSON, AssessmentResults.class, copy));
+    // repeated names and values are stored once
+    assertTrue(binary.length < json.getBytes(StandardCharsets.UTF_8).length / 2);
+  }
+
+  @Test
+  void testInvalidContent() throws IOException {
+    BinaryDeserializer<Catalog> deserializer = OscalBindingContext.instance().newBinaryDeserializer(Catalog.class);
+    assertThrows(IOException.class, () -> deserializer.deserialize(
+        new ByteArrayInputStream("{\"catalog\": {}}".getBytes(StandardCharsets.UTF_8))));
+    // truncated content
+    Catalog catalog = (Catalog) ObjectUtils.requireNonNull(TestUtil.newImportedCatalog().getValue());
+    byte[] binary = toBinary(Catalog.class, catalog);
+    assertThrows(IOException.class, () -> deserializer.deserialize(
+        new ByteArrayInputStream(binary, 0, binary.length / 2)));
+  }
+}
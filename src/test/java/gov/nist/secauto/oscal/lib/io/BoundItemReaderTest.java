@@ -0,0 +1,113 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.lib.model.AssessmentResults;
+import gov.nist.secauto.oscal.lib.model.Finding;
+import gov.nist.secauto.oscal.lib.model.Observation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+class BoundItemReaderTest {
+  private static final Path ASSESSMENT_RESULTS = ObjectUtils.notNull(
+      Paths.get("src/test/resources/content/test-assessment-results.xml"));
+
+  @ParameterizedTest
+  @EnumSource(Format.class)
+  void testReadFindings(Format format, @TempDir Path tempDir) throws IOException {
+    OscalBindingContext bindingContext = OscalBindingContext.instance();
+    Path path = ASSESSMENT_RESULTS;
+    if (!Format.XML.equals(format)) {
+      AssessmentResults results = bindingContext.loadAssessmentResults(ASSESSMENT_RESULTS);
+      path = ObjectUtils.notNull(tempDir.resolve("assessment-results." + format.getDefaultExtension()));
+      bindingContext.newSerializer(format, AssessmentResults.class).serialize(results, path);
+    }
+
+    List<String> titles = new ArrayList<>();
+    new BoundItemReader(bindingContext).read(path, "result/finding", Finding.class,
+        finding -> titles.add(finding.getTitle().toMarkdown()));
+
+    assertEquals(List.of("Finding 1", "Finding 2", "Finding 3"), titles);
+  }
+
+  @Test
+  void testReadObservations() throws IOException {
+    List<Observation> observations = new ArrayList<>();
+    new BoundItemReader(OscalBindingContext.instance()).read(ASSESSMENT_RESULTS, "result/observation",
+        Observation.class, observations::add);
+
+    assertEquals(1, observations.size());
+    assertEquals(List.of("TEST"), observations.get(0).getMethods());
+  }
+
+  @Test
+  void testInvalidItemPath() {
+    BoundItemReader reader = new BoundItemReader(OscalBindingContext.instance());
+    assertThrows(IllegalArgumentException.class,
+        () -> reader.read(ASSESSMENT_RESULTS, "result/poam-item", Finding.class, finding -> {
+        }));
+    assertThrows(IllegalArgumentException.class,
+        () -> reader.read(ASSESSMENT_RESULTS, "result/observation", Finding.class, finding -> {
+        }));
+  }
+
+  @Test
+  void testUnrecognizedRoot() {
+    BoundItemReader reader = new BoundItemReader(OscalBindingContext.instance());
+    for (String document : List.of(
+        "{ \"$schema\": \"schema.json\", \"not-a-model\": {} }",
+        "not-a-model:\n  uuid: 1",
+        "<not-a-model xmlns=\"http://csrc.nist.gov/ns/oscal/1.0\"/>",
+        "  ")) {
+      assertThrows(IOException.class,
+          () -> reader.read(
+              new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)),
+              "result/finding",
+              Finding.class,
+              finding -> {
+              }),
+          document);
+    }
+  }
+}
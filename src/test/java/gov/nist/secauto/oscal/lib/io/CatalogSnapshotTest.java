@@ -0,0 +1,97 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.profile.resolver.TestUtil;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+class CatalogSnapshotTest {
+  @NonNull
+  private static String toJson(@NonNull Catalog catalog) throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    OscalBindingContext.instance().newSerializer(Format.JSON, Catalog.class).serialize(catalog, os);
+    return os.toString(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void testSnapshot(@TempDir Path tempDir) throws IOException {
+    OscalBindingContext bindingContext = OscalBindingContext.instance();
+    IDocumentNodeItem document = TestUtil.newImportedCatalog();
+    Catalog catalog = (Catalog) document.getValue();
+    String expected = toJson(catalog);
+
+    Path file = tempDir.resolve("catalog.snapshot");
+    CatalogSnapshot.write(bindingContext, document, file);
+    // the source catalog is not changed
+    assertEquals(expected, toJson(catalog));
+
+    CatalogSnapshot snapshot = CatalogSnapshot.open(bindingContext, file);
+    assertEquals(document.getDocumentUri(), snapshot.getDocumentUri());
+    // a group's controls are ordered before its child groups
+    assertEquals(List.of("control1", "control2", "control3", "control4", "control6", "control7", "control8",
+        "control5"), List.copyOf(snapshot.getControlIds()));
+
+    // a child control is read with its parent
+    Control control7 = snapshot.getControl("control7");
+    assertNotNull(control7);
+    assertEquals("control8", control7.getControls().get(0).getId());
+    assertSame(control7, control7.getControls().get(0).getParentControl());
+    assertNull(snapshot.getControl("missing"));
+
+    assertEquals(expected, toJson(snapshot.getCatalog()));
+    assertEquals(expected, toJson((Catalog) snapshot.getDocument().getValue()));
+  }
+
+  @Test
+  void testInvalidSnapshot(@TempDir Path tempDir) throws IOException {
+    Path file = tempDir.resolve("catalog.json");
+    Files.writeString(file, "{\"catalog\": {}}");
+    assertThrows(IOException.class, () -> CatalogSnapshot.open(OscalBindingContext.instance(), file));
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.model.metadata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import gov.nist.secauto.oscal.lib.model.Property;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+
+import javax.xml.namespace.QName;
+
+class ValueInternerTest {
+  @Test
+  void testIntern() {
+    ValueInterner interner = new ValueInterner();
+    String first = new String("label"); // NOPMD - distinct instance needed
+    String second = new String("label"); // NOPMD - distinct instance needed
+    assertSame(first, interner.intern(first));
+    assertSame(first, interner.intern(second));
+
+    URI ns = URI.create("http://example.com/ns");
+    assertSame(ns, interner.intern(ns));
+    assertSame(ns, interner.intern(URI.create("http://example.com/ns")));
+    assertNull(interner.intern((String) null));
+    assertEquals(2, interner.size());
+  }
+
+  @Test
+  void testMaxEntries() {
+    ValueInterner interner = new ValueInterner(1);
+    interner.intern("first");
+    String second = new String("second"); // NOPMD - distinct instance needed
+    assertSame(second, interner.intern(second));
+    assertNotSame(second, interner.intern(new String("second"))); // NOPMD - distinct instance needed
+    assertEquals(1, interner.size());
+  }
+
+  @SuppressWarnings("try") // the scopes are only closed
+  @Test
+  void testActivate() {
+    ValueInterner outer = new ValueInterner();
+    ValueInterner inner = new ValueInterner();
+    assertNull(ValueInterner.active());
+    try (ValueInterner.Scope outerScope = outer.activate()) {
+      try (ValueInterner.Scope innerScope = inner.activate()) {
+        assertSame(inner, ValueInterner.active());
+      }
+      assertSame(outer, ValueInterner.active());
+    }
+    assertNull(ValueInterner.active());
+  }
+
+  @Test
+  void testPropertyQNameCache() {
+    Property prop = AbstractProperty.builder("label").value("first").build();
+    QName qname = prop.getQName();
+    assertEquals(new QName(IProperty.OSCAL_NAMESPACE.toString(), "label"), qname);
+    assertSame(qname, prop.getQName());
+
+    URI ns = URI.create("http://example.com/ns");
+    prop.setNs(ns);
+    assertEquals(new QName(ns.toString(), "label"), prop.getQName());
+    assertEquals(true, prop.isNamespaceEqual(ns));
+
+    prop.setName("sort-id");
+    assertEquals(new QName(ns.toString(), "sort-id"), prop.getQName());
+  }
+}
@@ -60,6 +60,49 @@ class ModifyPhaseUtilsTest {
             .collect(Collectors.toList()));
   }
 
+  @Test
+  void testMergeOrderingLarge() {
+    List<TestItem> originalItems = List.of(
+        item("A"),
+        item("id1", "B"),
+        item("C"),
+        item("id2", "D"),
+        item("E"),
+        item("F"));
+
+    List<TestItem> newItems = List.of(
+        item("id2", "G"),
+        item("H"),
+        item("id1", "I"),
+        item("J"),
+        item("id2", "K"));
+
+    List<TestItem> result
+        = ModifyPhaseUtils.merge(originalItems, newItems, ModifyPhaseUtils.identifierKey(TestItem::getIdentifier));
+
+    assertEquals(
+        List.of("A", "C", "E", "F", "H", "I", "J", "K"),
+        result.stream()
+            .map(item -> item.getValue())
+            .collect(Collectors.toList()));
+  }
+
+  @Test
+  void testMergeIdentity() {
+    TestItem itemA = item("A");
+    TestItem itemB = item("B");
+    List<TestItem> originalItems = List.of(itemA, itemB);
+    List<TestItem> newItems = List.of(item("C"), itemA);
+
+    List<TestItem> result = ModifyPhaseUtils.merge(originalItems, newItems, ModifyPhaseUtils.itemKey());
+
+    assertEquals(
+        List.of("B", "C", "A"),
+        result.stream()
+            .map(item -> item.getValue())
+            .collect(Collectors.toList()));
+  }
+
   private static TestItem item(@NonNull String value) {
     return item(null, value);
   }
@@ -0,0 +1,198 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.CatalogGroup;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.ControlPart;
+import gov.nist.secauto.oscal.lib.model.Merge;
+import gov.nist.secauto.oscal.lib.model.Parameter;
+import gov.nist.secauto.oscal.lib.model.Profile;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+class ProfileResolverCombineTest {
+  private static final String PROFILE = "src/test/resources/content/combine-profile.xml";
+
+  @Test
+  void testMergeCountsReferencesOfKeptContent() throws IOException, ProfileResolutionException {
+    // both imports contain the part 'c1_smt', which inserts 'c1_prm1'
+    Map<String, Integer> counts = resolveParameterReferenceCounts();
+
+    // the duplicate part is dropped by the merge, along with its reference
+    assertEquals(1, counts.get("c1_prm1"));
+    // the merged guidance part of the second control is kept, along with its reference
+    assertEquals(1, counts.get("c1_prm2"));
+    assertEquals(1, counts.get("c2_prm1"));
+    assertEquals(1, counts.get("c3_prm1"));
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "use-first, false",
+      "use-first, true",
+      "merge, false",
+      "merge, true" })
+  void testCombineOverlappingControls(String method, boolean flat) throws IOException, ProfileResolutionException {
+    // both imports contain the control 'c1'
+    Catalog catalog = resolve(ObjectUtils.notNull(method), flat);
+
+    List<Control> controls;
+    if (flat) {
+      assertTrue(CollectionUtil.listOrEmpty(catalog.getGroups()).isEmpty());
+      controls = CollectionUtil.listOrEmpty(catalog.getControls());
+      assertEquals(List.of("c1", "c2", "c3"), ids(controls, Control::getId));
+    } else {
+      List<CatalogGroup> groups = CollectionUtil.listOrEmpty(catalog.getGroups());
+      assertEquals(List.of("g1", "g2"), ids(groups, CatalogGroup::getId));
+      controls = CollectionUtil.listOrEmpty(groups.get(0).getControls());
+      assertEquals(List.of("c1", "c2"), ids(controls, Control::getId));
+      assertEquals(List.of("c3"), ids(CollectionUtil.listOrEmpty(groups.get(1).getControls()), Control::getId));
+    }
+
+    // the first control is kept
+    Control control = controls.get(0);
+    assertEquals("Control 1 from A", control.getTitle().toMarkdown());
+    List<String> paramIds = ids(CollectionUtil.listOrEmpty(control.getParams()), Parameter::getId);
+    List<String> partIds = ids(CollectionUtil.listOrEmpty(control.getParts()), ControlPart::getId);
+    if ("merge".equals(method)) {
+      // the content of the second control that is not a duplicate is added
+      assertEquals(List.of("c1_prm1", "c1_prm2"), paramIds);
+      assertEquals(List.of("c1_smt", "c1_gdn"), partIds);
+    } else {
+      assertEquals(List.of("c1_prm1"), paramIds);
+      assertEquals(List.of("c1_smt"), partIds);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = { false, true })
+  void testKeepReassignsCollidingIdentifiers(boolean flat) throws IOException, ProfileResolutionException {
+    ProfileResolver resolver = new ProfileResolver();
+    resolver.setReassignIdentifiers(true);
+    Catalog catalog = resolve(resolver, "keep", flat);
+
+    List<Control> controls;
+    if (flat) {
+      controls = CollectionUtil.listOrEmpty(catalog.getControls());
+    } else {
+      controls = CollectionUtil.listOrEmpty(catalog.getGroups()).stream()
+          .flatMap(group -> CollectionUtil.listOrEmpty(group.getControls()).stream())
+          .collect(Collectors.toList());
+    }
+    // the second import's colliding control, parameter, and part are renamed
+    assertEquals(List.of("c1", "c2", "c1_2", "c3"), ids(controls, Control::getId));
+    Control renamed = controls.get(2);
+    assertEquals("Control 1 from B", renamed.getTitle().toMarkdown());
+    assertEquals(List.of("c1_prm1_2", "c1_prm2"),
+        ids(CollectionUtil.listOrEmpty(renamed.getParams()), Parameter::getId));
+    assertEquals(List.of("c1_smt_2", "c1_gdn"),
+        ids(CollectionUtil.listOrEmpty(renamed.getParts()), ControlPart::getId));
+
+    // the insert is rewritten to match, while the first control's insert is unchanged
+    String renamedProse = renamed.getParts().get(0).getProse().toHtml();
+    assertTrue(renamedProse.contains("id-ref=\"c1_prm1_2\""), renamedProse);
+    String firstProse = controls.get(0).getParts().get(0).getProse().toHtml();
+    assertTrue(firstProse.contains("id-ref=\"c1_prm1\""), firstProse);
+  }
+
+  @NonNull
+  private static Catalog resolve(@NonNull String method, boolean flat) throws IOException, ProfileResolutionException {
+    return resolve(new ProfileResolver(), method, flat);
+  }
+
+  @NonNull
+  private static Catalog resolve(@NonNull ProfileResolver resolver, @NonNull String method, boolean flat)
+      throws IOException, ProfileResolutionException {
+    IDocumentNodeItem profileDocument = resolver.getBoundLoader().loadAsNodeItem(
+        ObjectUtils.notNull(Paths.get(PROFILE)));
+
+    Merge merge = ObjectUtils.requireNonNull(((Profile) profileDocument.getValue()).getMerge());
+    merge.getCombine().setMethod(method);
+    if (!flat) {
+      merge.setFlat(null);
+      merge.setAsIs(true);
+    }
+    return ObjectUtils.requireNonNull((Catalog) resolver.resolve(profileDocument).getValue());
+  }
+
+  @NonNull
+  private static <T> List<String> ids(@NonNull List<T> items, @NonNull Function<T, String> idFunction) {
+    return ObjectUtils.notNull(items.stream()
+        .map(idFunction)
+        .collect(Collectors.toList()));
+  }
+
+  /**
+   * Resolve the test profile, returning the reference count of each parameter once the catalog has
+   * been merged.
+   *
+   * @return the parameter identifiers mapped to their reference count
+   */
+  @NonNull
+  private static Map<String, Integer> resolveParameterReferenceCounts()
+      throws IOException, ProfileResolutionException {
+    Map<String, Integer> retval = new LinkedHashMap<>();
+    ProfileResolver resolver = new ProfileResolver() {
+      @Override
+      protected void handleModify(
+          Catalog resolvedCatalog,
+          IDocumentNodeItem profileDocument,
+          IIndexer indexer)
+          throws ProfileResolutionException {
+        for (IEntityItem entity : indexer.getEntitiesByItemType(IEntityItem.ItemType.PARAMETER)) {
+          retval.put(entity.getIdentifier(), entity.getReferenceCount());
+        }
+        super.handleModify(resolvedCatalog, profileDocument, indexer);
+      }
+    };
+    resolver.resolveProfile(ObjectUtils.notNull(Paths.get(PROFILE)));
+    return retval;
+  }
+}
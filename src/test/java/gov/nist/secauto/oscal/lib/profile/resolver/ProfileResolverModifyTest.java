@@ -0,0 +1,242 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.binding.model.IAssemblyClassBinding;
+import gov.nist.secauto.metaschema.model.common.IRootAssemblyDefinition;
+import gov.nist.secauto.metaschema.model.common.metapath.item.DefaultNodeItemFactory;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.ControlPart;
+import gov.nist.secauto.oscal.lib.model.Modify;
+import gov.nist.secauto.oscal.lib.model.Profile;
+import gov.nist.secauto.oscal.lib.model.Property;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.BasicIndexer;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.ControlIndexingVisitor;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Paths;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+class ProfileResolverModifyTest {
+  private static final UUID CATALOG_UUID = UUID.fromString("3c8a2d4e-8d1a-4f3b-9a57-3f0b4c2d1e6a");
+
+  @Test
+  void testParallelModifyMatchesSequential() throws IOException, ProfileResolutionException {
+    Modify modify = new Modify();
+    modify.addSetParameter(setParameter("param1", "first"));
+    modify.addSetParameter(setParameter("param3", "third"));
+    modify.addSetParameter(setParameter("param5", "fifth"));
+    modify.addSetParameter(setParameter("param1", "replaced"));
+    modify.addAlter(alter("control1", add(null, prop("status"))));
+    modify.addAlter(alter("control8", add(part("control8_smt"), null)));
+    modify.addAlter(alter("control7", add(null, prop("status"))));
+    modify.addAlter(alter("control3", add(part("control3_smt"), null)));
+    modify.addAlter(alter("control8", add(null, prop("status"))));
+
+    assertEquals(modifyAsXml(modify, false), modifyAsXml(modify, true));
+  }
+
+  @Test
+  void testParallelModifyReportsFirstFailure() {
+    Modify setParameters = new Modify();
+    setParameters.addSetParameter(setParameter("param1", "first"));
+    setParameters.addSetParameter(setParameter("missing1", "value"));
+    setParameters.addSetParameter(setParameter("param3", "third"));
+    setParameters.addSetParameter(setParameter("missing2", "value"));
+
+    ProfileResolutionException ex = assertThrows(ProfileResolutionException.class,
+        () -> modify(setParameters, true));
+    assertTrue(ex.getMessage().contains("'missing1'"), ex.getMessage());
+
+    Modify alters = new Modify();
+    Modify.Alter.Add add = add(null, prop("status"));
+    add.setById("missing1");
+    alters.addAlter(alter("control6", add));
+    add = add(null, prop("status"));
+    add.setById("missing2");
+    alters.addAlter(alter("control3", add));
+
+    ex = assertThrows(ProfileResolutionException.class, () -> modify(alters, true));
+    assertTrue(ex.getMessage().contains("'missing1'"), ex.getMessage());
+  }
+
+  @Test
+  void testImportIndexMatchesReindexing() throws IOException, ProfileResolutionException {
+    // the profile combines duplicate controls and flattens groups before modifying the catalog
+    String resolved = resolveAsXml(false);
+    assertEquals(resolveAsXml(true), resolved);
+
+    assertTrue(resolved.contains("Control 2 from A"), resolved);
+    assertFalse(resolved.contains("Control 2 from B"), resolved);
+    assertFalse(resolved.contains("<group"), resolved);
+    assertTrue(resolved.contains("third value"), resolved);
+  }
+
+  /**
+   * Resolve the test profile, checking that the import index passed to the modify phase matches an
+   * index built by traversing the resolved catalog.
+   *
+   * @param reindex
+   *          {@code true} if the modify phase should use the index built by traversing the resolved
+   *          catalog, or {@code false} if it should use the import index
+   * @return the resolved catalog as XML
+   */
+  @NonNull
+  private static String resolveAsXml(boolean reindex) throws IOException, ProfileResolutionException {
+    ProfileResolver resolver = new ProfileResolver() {
+      @Override
+      protected void handleModify(
+          Catalog resolvedCatalog,
+          IDocumentNodeItem profileDocument,
+          IIndexer indexer)
+          throws ProfileResolutionException {
+        IIndexer reindexed = new BasicIndexer();
+        new ControlIndexingVisitor(
+            ObjectUtils.notNull(EnumSet.of(IEntityItem.ItemType.CONTROL, IEntityItem.ItemType.PARAMETER)))
+                .visitCatalog(TestUtil.newCatalogDocument(resolvedCatalog), reindexed);
+
+        for (IEntityItem.ItemType itemType : List.of(IEntityItem.ItemType.CONTROL, IEntityItem.ItemType.PARAMETER)) {
+          assertEquals(toInstanceMap(reindexed, itemType), toInstanceMap(indexer, itemType), itemType.name());
+        }
+        super.handleModify(resolvedCatalog, profileDocument, reindex ? reindexed : indexer);
+      }
+    };
+
+    Catalog catalog = (Catalog) resolver.resolveProfile(
+        ObjectUtils.notNull(Paths.get("src/test/resources/content/modify-index-profile.xml"))).getValue();
+    assert catalog != null;
+    // clear the generated values
+    catalog.setUuid(CATALOG_UUID);
+    catalog.getMetadata().setLastModified(ZonedDateTime.of(2023, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+
+    StringWriter writer = new StringWriter();
+    OscalBindingContext.instance().newSerializer(Format.XML, Catalog.class).serialize(catalog, writer);
+    return ObjectUtils.notNull(writer.toString());
+  }
+
+  @NonNull
+  private static Map<String, Object> toInstanceMap(@NonNull IIndexer indexer, @NonNull IEntityItem.ItemType itemType) {
+    return indexer.getEntitiesByItemType(itemType).stream()
+        .collect(Collectors.toMap(IEntityItem::getIdentifier, item -> item.getInstanceValue()));
+  }
+
+  @NonNull
+  private static Catalog modify(@NonNull Modify modify, boolean parallel) throws ProfileResolutionException {
+    Catalog catalog = (Catalog) TestUtil.newImportedCatalog().getValue();
+    catalog.setUuid(CATALOG_UUID);
+
+    Profile profile = new Profile();
+    profile.setUuid(UUID.randomUUID());
+    profile.setModify(modify);
+    IDocumentNodeItem profileDocument = DefaultNodeItemFactory.instance().newDocumentNodeItem(
+        IRootAssemblyDefinition.toRootAssemblyDefinition(
+            ObjectUtils.notNull(
+                (IAssemblyClassBinding) OscalBindingContext.instance().getClassBinding(Profile.class))),
+        profile,
+        ObjectUtils.notNull(Paths.get("").toUri()));
+
+    ProfileResolver resolver = new ProfileResolver();
+    resolver.setParallelModify(parallel);
+    resolver.handleModify(ObjectUtils.notNull(catalog), profileDocument);
+    return ObjectUtils.notNull(catalog);
+  }
+
+  @NonNull
+  private static String modifyAsXml(@NonNull Modify modify, boolean parallel)
+      throws IOException, ProfileResolutionException {
+    StringWriter writer = new StringWriter();
+    OscalBindingContext.instance().newSerializer(Format.XML, Catalog.class)
+        .serialize(modify(modify, parallel), writer);
+    return ObjectUtils.notNull(writer.toString());
+  }
+
+  @NonNull
+  private static Modify.ProfileSetParameter setParameter(@NonNull String paramId, @NonNull String value) {
+    Modify.ProfileSetParameter setParameter = new Modify.ProfileSetParameter();
+    setParameter.setParamId(paramId);
+    setParameter.setValues(List.of(value));
+    return setParameter;
+  }
+
+  @NonNull
+  private static Modify.Alter alter(@NonNull String controlId, @NonNull Modify.Alter.Add add) {
+    Modify.Alter alter = new Modify.Alter();
+    alter.setControlId(controlId);
+    alter.addAdd(add);
+    return alter;
+  }
+
+  @NonNull
+  private static Modify.Alter.Add add(ControlPart part, Property prop) {
+    Modify.Alter.Add add = new Modify.Alter.Add();
+    if (part != null) {
+      add.addPart(part);
+    }
+    if (prop != null) {
+      add.addProp(prop);
+    }
+    return add;
+  }
+
+  @NonNull
+  private static ControlPart part(@NonNull String id) {
+    ControlPart part = new ControlPart();
+    part.setId(id);
+    part.setName("statement");
+    return part;
+  }
+
+  @NonNull
+  private static Property prop(@NonNull String name) {
+    Property prop = new Property();
+    prop.setName(name);
+    prop.setValue("value");
+    return prop;
+  }
+}
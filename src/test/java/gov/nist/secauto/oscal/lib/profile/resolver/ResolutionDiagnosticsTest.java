@@ -0,0 +1,71 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.nist.secauto.oscal.lib.profile.resolver.IResolutionDiagnostics.IDiagnostic;
+import gov.nist.secauto.oscal.lib.profile.resolver.IResolutionDiagnostics.Kind;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class ResolutionDiagnosticsTest {
+
+  @Test
+  void testAggregation() {
+    IResolutionDiagnostics diagnostics = new ResolutionDiagnostics(2);
+
+    IntStream.range(0, 1000).parallel()
+        .forEach(index -> diagnostics.record(Kind.UNSUPPORTED_PROPERTY, "{urn:example}marking", null));
+    diagnostics.record(Kind.UNSUPPORTED_LINK, "related", null);
+    diagnostics.record(Kind.UNSUPPORTED_PROPERTY, "{urn:example}other", null);
+    diagnostics.record(Kind.UNSUPPORTED_LINK, "related", null);
+
+    List<IDiagnostic> result = new ArrayList<>(diagnostics.getDiagnostics());
+
+    // ordered by first occurrence
+    assertEquals(
+        List.of("{urn:example}marking", "related", "{urn:example}other"),
+        result.stream()
+            .map(IDiagnostic::getKey)
+            .collect(Collectors.toList()));
+    assertEquals(
+        List.of(1000L, 2L, 1L),
+        result.stream()
+            .map(IDiagnostic::getOccurrenceCount)
+            .collect(Collectors.toList()));
+    assertEquals(Kind.UNSUPPORTED_LINK, result.get(1).getKind());
+    // no locations were provided
+    assertTrue(result.get(0).getSampleLocations().isEmpty());
+  }
+}
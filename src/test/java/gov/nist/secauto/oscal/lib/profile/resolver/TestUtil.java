@@ -180,11 +180,16 @@ public final class TestUtil {
             .build())
         .build());
 
+    return newCatalogDocument(importedCatalog);
+  }
+
+  @NonNull
+  public static IDocumentNodeItem newCatalogDocument(@NonNull Catalog catalog) {
     return DefaultNodeItemFactory.instance().newDocumentNodeItem(
         IRootAssemblyDefinition.toRootAssemblyDefinition(
             ObjectUtils.notNull(
                 (IAssemblyClassBinding) OscalBindingContext.instance().getClassBinding(Catalog.class))),
-        importedCatalog,
+        catalog,
         ObjectUtils.notNull(Paths.get("").toUri()));
   }
 }
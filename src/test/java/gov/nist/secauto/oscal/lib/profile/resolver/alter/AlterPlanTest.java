@@ -0,0 +1,130 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.alter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.ControlPart;
+import gov.nist.secauto.oscal.lib.model.Property;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class AlterPlanTest {
+
+  @Test
+  void testLaterDirectivesSeeEarlierAdditions() {
+    Control control = control(part("a"), part("c"));
+
+    AlterPlan plan = new AlterPlan(control);
+    plan.add(AddVisitor.Position.AFTER, "a", null, List.of(), List.of(), List.of(), List.of(part("b")));
+    plan.add(AddVisitor.Position.BEFORE, "b", null, List.of(), List.of(), List.of(), List.of(part("d")));
+    plan.remove(null, null, "a", null, RemoveVisitor.TargetType.PART);
+
+    BitSet applied = plan.apply();
+
+    assertEquals(3, applied.cardinality());
+    assertEquals(List.of("d", "b", "c"), partIds(control));
+  }
+
+  @Test
+  void testEarlierDirectivesDoNotSeeLaterAdditions() {
+    Control control = control(part("a"));
+
+    AlterPlan plan = new AlterPlan(control);
+    plan.remove("status", null, null, null, RemoveVisitor.TargetType.PROP);
+    plan.add(null, null, null, List.of(), List.of(prop("status")), List.of(), List.of());
+
+    BitSet applied = plan.apply();
+
+    assertFalse(applied.get(0));
+    assertTrue(applied.get(1));
+    assertEquals(
+        List.of("status"),
+        CollectionUtil.listOrEmpty(control.getProps()).stream()
+            .map(Property::getName)
+            .collect(Collectors.toList()));
+  }
+
+  @Test
+  void testTargetAddedWithinNestedPart() {
+    ControlPart nested = part("b");
+    ControlPart container = part("a");
+    container.setParts(new LinkedList<>(List.of(nested)));
+    Control control = control(container, part("c"));
+
+    ControlPart added = part("d");
+    AlterPlan plan = new AlterPlan(control);
+    // the target of the second add only exists once the first add is applied
+    plan.add(AddVisitor.Position.ENDING, "b", null, List.of(), List.of(), List.of(), List.of(added));
+    plan.add(AddVisitor.Position.ENDING, "d", null, List.of(), List.of(prop("status")), List.of(), List.of());
+    plan.add(AddVisitor.Position.ENDING, "missing", null, List.of(), List.of(prop("status")), List.of(), List.of());
+
+    BitSet applied = plan.apply();
+
+    assertTrue(applied.get(0));
+    assertTrue(applied.get(1));
+    assertFalse(applied.get(2));
+    assertEquals(List.of(added), nested.getParts());
+    assertEquals(1, CollectionUtil.listOrEmpty(added.getProps()).size());
+  }
+
+  private static Control control(ControlPart... parts) {
+    Control control = new Control();
+    control.setId("control1");
+    control.setParts(new LinkedList<>(List.of(parts)));
+    return control;
+  }
+
+  private static ControlPart part(String id) {
+    ControlPart part = new ControlPart();
+    part.setId(id);
+    part.setName("item");
+    return part;
+  }
+
+  private static Property prop(String name) {
+    Property prop = new Property();
+    prop.setName(name);
+    prop.setValue("value");
+    return prop;
+  }
+
+  private static List<String> partIds(Control control) {
+    return CollectionUtil.listOrEmpty(control.getParts()).stream()
+        .map(part -> part.getId().toString())
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.merge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.Parameter;
+import gov.nist.secauto.oscal.lib.model.Property;
+import gov.nist.secauto.oscal.lib.model.control.AbstractParameter;
+import gov.nist.secauto.oscal.lib.model.control.catalog.AbstractControl;
+import gov.nist.secauto.oscal.lib.model.metadata.AbstractProperty;
+import gov.nist.secauto.oscal.lib.profile.resolver.TestUtil;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.BasicIndexer;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.ControlIndexingVisitor;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+class ControlCombinerTest {
+
+  @Test
+  void testMethodForName() {
+    assertEquals(ControlCombiner.Method.USE_FIRST, ControlCombiner.Method.forName("use-first"));
+    assertEquals(ControlCombiner.Method.MERGE, ControlCombiner.Method.forName("merge"));
+    assertEquals(ControlCombiner.Method.KEEP, ControlCombiner.Method.forName("keep"));
+    assertNull(ControlCombiner.Method.forName("other"));
+  }
+
+  @Test
+  void testUseFirst() {
+    Catalog resolved = new Catalog();
+    IIndexer combinedIndex = importControls(resolved, firstImport());
+    Control first = resolved.getControls().get(0);
+    IIndexer importIndex = importControls(resolved, secondImport());
+
+    new ControlCombiner(ControlCombiner.Method.USE_FIRST, combinedIndex).combine(resolved, 1, 0, importIndex);
+
+    assertEquals(List.of("a", "a-1", "b"), controlIds(resolved.getControls()));
+    assertEquals(List.of("p1"), paramIds(first.getParams()));
+    // the discarded control and its parameters are no longer indexed
+    assertNull(importIndex.getEntity(IEntityItem.ItemType.CONTROL, "a", false));
+    assertNull(importIndex.getEntity(IEntityItem.ItemType.PARAMETER, "p2", false));
+    assertNotNull(importIndex.getEntity(IEntityItem.ItemType.CONTROL, "a-1", false));
+  }
+
+  @Test
+  void testMerge() {
+    Catalog resolved = new Catalog();
+    IIndexer combinedIndex = importControls(resolved, firstImport());
+    Control first = resolved.getControls().get(0);
+    IIndexer importIndex = importControls(resolved, secondImport());
+
+    new ControlCombiner(ControlCombiner.Method.MERGE, combinedIndex).combine(resolved, 1, 0, importIndex);
+
+    assertEquals(List.of("a", "b"), controlIds(resolved.getControls()));
+    assertEquals(List.of("p1", "p2"), paramIds(first.getParams()));
+    assertEquals(List.of("one", "two"), first.getProps().stream()
+        .map(Property::getValue)
+        .collect(Collectors.toList()));
+    assertEquals(List.of("a-1"), controlIds(first.getControls()));
+    // the first parameter is kept, while the merged parameter remains indexed
+    assertSame(first.getParams().get(0),
+        combinedIndex.getEntity(IEntityItem.ItemType.PARAMETER, "p1", false).getInstanceValue());
+    assertNull(importIndex.getEntity(IEntityItem.ItemType.PARAMETER, "p1", false));
+    assertNotNull(importIndex.getEntity(IEntityItem.ItemType.PARAMETER, "p2", false));
+  }
+
+  @Test
+  void testKeep() {
+    Catalog resolved = new Catalog();
+    IIndexer combinedIndex = importControls(resolved, firstImport());
+    IIndexer importIndex = importControls(resolved, secondImport());
+
+    new ControlCombiner(ControlCombiner.Method.KEEP, combinedIndex).combine(resolved, 1, 0, importIndex);
+
+    assertEquals(List.of("a", "a", "b"), controlIds(resolved.getControls()));
+  }
+
+  @NonNull
+  private static List<Control> firstImport() {
+    return List.of(AbstractControl.builder("a")
+        .title("A")
+        .param(param("p1"))
+        .prop(AbstractProperty.builder("label").value("one").build())
+        .build());
+  }
+
+  @NonNull
+  private static List<Control> secondImport() {
+    return List.of(
+        AbstractControl.builder("a")
+            .title("A")
+            .param(param("p1"))
+            .param(param("p2"))
+            .prop(AbstractProperty.builder("label").value("one").build())
+            .prop(AbstractProperty.builder("label").value("two").build())
+            .control(AbstractControl.builder("a-1")
+                .title("A-1")
+                .build())
+            .build(),
+        AbstractControl.builder("b")
+            .title("B")
+            .build());
+  }
+
+  @NonNull
+  private static Parameter param(@NonNull String id) {
+    return AbstractParameter.builder(id)
+        .label(id)
+        .build();
+  }
+
+  /**
+   * Add the controls to the resolved catalog and index them, as an import would.
+   */
+  @NonNull
+  private static IIndexer importControls(@NonNull Catalog resolved, @NonNull List<Control> controls) {
+    Catalog imported = new Catalog();
+    imported.setUuid(UUID.randomUUID());
+    controls.forEach(imported::addControl);
+
+    IIndexer index = new BasicIndexer();
+    new ControlIndexingVisitor(
+        ObjectUtils.notNull(EnumSet.of(IEntityItem.ItemType.CONTROL, IEntityItem.ItemType.PARAMETER)))
+            .visitCatalog(TestUtil.newCatalogDocument(imported), index);
+
+    controls.forEach(resolved::addControl);
+    return index;
+  }
+
+  @NonNull
+  private static List<String> controlIds(List<Control> controls) {
+    return CollectionUtil.listOrEmpty(controls).stream()
+        .map(Control::getId)
+        .collect(Collectors.toList());
+  }
+
+  @NonNull
+  private static List<String> paramIds(List<Parameter> params) {
+    return CollectionUtil.listOrEmpty(params).stream()
+        .map(Parameter::getId)
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.merge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import gov.nist.secauto.metaschema.binding.model.IAssemblyClassBinding;
+import gov.nist.secauto.metaschema.model.common.IRootAssemblyDefinition;
+import gov.nist.secauto.metaschema.model.common.datatype.markup.MarkupLine;
+import gov.nist.secauto.metaschema.model.common.metapath.item.DefaultNodeItemFactory;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.CatalogGroup;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.IncludeAll;
+import gov.nist.secauto.oscal.lib.model.InsertControls;
+import gov.nist.secauto.oscal.lib.model.Matching;
+import gov.nist.secauto.oscal.lib.model.Merge;
+import gov.nist.secauto.oscal.lib.model.ProfileGroup;
+import gov.nist.secauto.oscal.lib.model.ProfileSelectControlById;
+import gov.nist.secauto.oscal.lib.model.control.catalog.AbstractCatalogGroup;
+import gov.nist.secauto.oscal.lib.model.control.catalog.AbstractControl;
+import gov.nist.secauto.oscal.lib.model.control.profile.AbstractProfileSelectControlById;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.BasicIndexer;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.ControlIndexingVisitor;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+class CustomStructuringBuilderTest {
+
+  @Test
+  void testBuild() {
+    Catalog catalog = newCatalog();
+    CustomStructuringBuilder builder = new CustomStructuringBuilder(catalog);
+    IIndexer index = flatten(catalog);
+
+    ProfileGroup first = group("first");
+    first.addInsertControls(insert(null, AbstractProfileSelectControlById.builder()
+        .withId("a")
+        .withChildControls(true)
+        .build(),
+        AbstractProfileSelectControlById.builder()
+            .withId("a1x")
+            .build()));
+    ProfileGroup nested = group("nested");
+    Matching singleCharacter = new Matching();
+    singleCharacter.setPattern("?");
+    ProfileSelectControlById matching = new ProfileSelectControlById();
+    matching.addMatching(singleCharacter);
+    nested.addInsertControls(insert("descending", matching, null));
+    ProfileGroup second = group("second");
+    second.addGroup(nested);
+
+    InsertControls remainder = new InsertControls();
+    remainder.setIncludeAll(new IncludeAll());
+
+    Merge.Custom custom = new Merge.Custom();
+    custom.addGroup(first);
+    custom.addGroup(second);
+    custom.addInsertControls(remainder);
+
+    builder.build(custom, index);
+
+    List<CatalogGroup> groups = CollectionUtil.listOrEmpty(catalog.getGroups());
+    assertEquals(2, groups.size());
+    assertEquals(List.of("a", "a1"), controlIds(groups.get(0).getControls()));
+    assertNull(groups.get(1).getControls());
+    assertEquals(List.of("d", "c", "b"), controlIds(groups.get(1).getGroups().get(0).getControls()));
+    assertEquals(List.of("a1x"), controlIds(catalog.getControls()));
+  }
+
+  @Test
+  void testUnplacedControlsRemoved() {
+    Catalog catalog = newCatalog();
+    CustomStructuringBuilder builder = new CustomStructuringBuilder(catalog);
+    IIndexer index = flatten(catalog);
+
+    Merge.Custom custom = new Merge.Custom();
+    // the order of the identifiers does not affect the order of the controls
+    custom.addInsertControls(insert(null, AbstractProfileSelectControlById.builder()
+        .withId("d")
+        .withId("b")
+        .build(), null));
+
+    builder.build(custom, index);
+
+    assertNull(catalog.getGroups());
+    assertEquals(List.of("b", "d"), controlIds(catalog.getControls()));
+    assertNotNull(index.getEntity(IEntityItem.ItemType.CONTROL, "b", false));
+    assertNull(index.getEntity(IEntityItem.ItemType.CONTROL, "a", false));
+    assertNull(index.getEntity(IEntityItem.ItemType.CONTROL, "c", false));
+  }
+
+  @NonNull
+  private static Catalog newCatalog() {
+    Catalog catalog = new Catalog();
+    catalog.setUuid(UUID.randomUUID());
+    catalog.addGroup(AbstractCatalogGroup.builder("group")
+        .title("Group")
+        .control(AbstractControl.builder("a")
+            .title("A")
+            .control(AbstractControl.builder("a1")
+                .title("A1")
+                .control(AbstractControl.builder("a1x")
+                    .title("A1X")
+                    .build())
+                .build())
+            .build())
+        .control(AbstractControl.builder("b")
+            .title("B")
+            .build())
+        .build());
+    catalog.addControl(AbstractControl.builder("c")
+        .title("C")
+        .build());
+    catalog.addControl(AbstractControl.builder("d")
+        .title("D")
+        .build());
+    return catalog;
+  }
+
+  /**
+   * Flatten the catalog in document order and index its controls, as the flat structuring directive
+   * would.
+   */
+  @NonNull
+  private static IIndexer flatten(@NonNull Catalog catalog) {
+    List<Control> controls = new LinkedList<>();
+    for (CatalogGroup group : catalog.getGroups()) {
+      flatten(group.getControls(), controls);
+    }
+    flatten(catalog.getControls(), controls);
+    catalog.setGroups(null);
+    catalog.setControls(controls);
+
+    IIndexer index = new BasicIndexer();
+    new ControlIndexingVisitor(ObjectUtils.notNull(EnumSet.of(IEntityItem.ItemType.CONTROL)))
+        .visitCatalog(DefaultNodeItemFactory.instance().newDocumentNodeItem(
+            IRootAssemblyDefinition.toRootAssemblyDefinition(
+                ObjectUtils.notNull(
+                    (IAssemblyClassBinding) OscalBindingContext.instance().getClassBinding(Catalog.class))),
+            catalog,
+            ObjectUtils.notNull(Paths.get("").toUri())), index);
+    return index;
+  }
+
+  private static void flatten(List<Control> children, @NonNull List<Control> controls) {
+    for (Control control : CollectionUtil.listOrEmpty(children)) {
+      controls.add(control);
+      flatten(control.getControls(), controls);
+      // the flattening visitor removes the children in place
+      CollectionUtil.listOrEmpty(control.getControls()).clear();
+    }
+  }
+
+  @NonNull
+  private static ProfileGroup group(@NonNull String id) {
+    ProfileGroup group = new ProfileGroup();
+    group.setId(id);
+    group.setTitle(MarkupLine.fromMarkdown(id));
+    return group;
+  }
+
+  @NonNull
+  private static InsertControls insert(
+      String order,
+      @NonNull ProfileSelectControlById include,
+      ProfileSelectControlById exclude) {
+    InsertControls insert = new InsertControls();
+    insert.setOrder(order);
+    insert.addIncludeControls(include);
+    if (exclude != null) {
+      insert.addExcludeControls(exclude);
+    }
+    return insert;
+  }
+
+  @NonNull
+  private static List<String> controlIds(List<Control> controls) {
+    return CollectionUtil.listOrEmpty(controls).stream()
+        .map(Control::getId)
+        .collect(Collectors.toList());
+  }
+}
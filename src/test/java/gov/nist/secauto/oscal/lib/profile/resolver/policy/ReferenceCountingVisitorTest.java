@@ -26,17 +26,38 @@
 
 package gov.nist.secauto.oscal.lib.profile.resolver.policy;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.model.common.datatype.markup.MarkupLine;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
 import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.lib.model.BackMatter;
 import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.CatalogGroup;
+import gov.nist.secauto.oscal.lib.model.Control;
+import gov.nist.secauto.oscal.lib.model.ControlPart;
+import gov.nist.secauto.oscal.lib.model.Metadata;
+import gov.nist.secauto.oscal.lib.model.Property;
+import gov.nist.secauto.oscal.lib.model.control.AbstractParameter;
+import gov.nist.secauto.oscal.lib.model.control.AbstractPart;
+import gov.nist.secauto.oscal.lib.model.metadata.AbstractLink;
+import gov.nist.secauto.oscal.lib.model.metadata.AbstractProperty;
+import gov.nist.secauto.oscal.lib.model.metadata.IProperty;
+import gov.nist.secauto.oscal.lib.profile.resolver.IResolutionDiagnostics;
+import gov.nist.secauto.oscal.lib.profile.resolver.ResolutionDiagnostics;
 import gov.nist.secauto.oscal.lib.profile.resolver.TestUtil;
+import gov.nist.secauto.oscal.lib.profile.resolver.merge.FlatteningStructuringVisitor;
 import gov.nist.secauto.oscal.lib.profile.resolver.selection.ControlSelectionState;
 import gov.nist.secauto.oscal.lib.profile.resolver.selection.ControlSelectionVisitor;
 import gov.nist.secauto.oscal.lib.profile.resolver.selection.IControlFilter;
 import gov.nist.secauto.oscal.lib.profile.resolver.selection.IControlSelectionFilter;
 import gov.nist.secauto.oscal.lib.profile.resolver.selection.IControlSelectionState;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.BasicIndexer;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IIdentifierMapper;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
 import gov.nist.secauto.oscal.lib.profile.resolver.support.ReassignmentIndexer;
@@ -45,6 +66,18 @@ import org.apache.logging.log4j.Level;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
 
 class ReferenceCountingVisitorTest {
   @SuppressWarnings("null")
@@ -77,4 +110,243 @@ class ReferenceCountingVisitorTest {
         .serialize(ObjectUtils.requireNonNull((Catalog) importedCatalogDocumentItem.getValue()), System.out);
   }
 
+  @Test
+  void testCountRecordedReferences() {
+    IDocumentNodeItem importedCatalogDocumentItem = TestUtil.newImportedCatalog();
+    // a parameter referenced only by group content
+    CatalogGroup group = ((Catalog) importedCatalogDocumentItem.getValue()).getGroups().get(0);
+    group.addParam(AbstractParameter.builder("group-param")
+        .build());
+    group.addPart(AbstractPart.builder("overview")
+        .prose("Uses {{ insert: param, group-param }}.")
+        .build());
+
+    IIndexer indexer = new BasicIndexer();
+    ControlSelectionVisitor.instance().visitCatalog(importedCatalogDocumentItem, new ControlSelectionState(
+        indexer,
+        IControlFilter.newInstance(IControlSelectionFilter.ALL_MATCH, IControlSelectionFilter.NONE_MATCH)));
+    ReferenceCountingVisitor.instance()
+        .visitCatalog(importedCatalogDocumentItem, indexer, importedCatalogDocumentItem.getBaseUri());
+
+    assertEquals(1, indexer.getEntity(IEntityItem.ItemType.PARAMETER, "group-param").getReferenceCount());
+
+    // unselect the groups, as flattening does
+    for (IEntityItem groupEntity : indexer.getEntitiesByItemType(IEntityItem.ItemType.GROUP)) {
+      indexer.setSelectionStatus(groupEntity.getInstance(), IIndexer.SelectionStatus.UNSELECTED);
+    }
+
+    ReferenceCountingVisitor.instance().countRecordedReferences(indexer, importedCatalogDocumentItem.getBaseUri());
+    Map<IEntityItem, Integer> recounted = referenceCounts(indexer);
+
+    // the recorded references must produce the same counts as visiting the catalog again
+    for (IEntityItem entity : recounted.keySet()) {
+      entity.resetReferenceCount();
+    }
+    ReferenceCountingVisitor.instance()
+        .visitCatalog(importedCatalogDocumentItem, indexer, importedCatalogDocumentItem.getBaseUri());
+
+    assertEquals(referenceCounts(indexer), recounted);
+    assertEquals(0, indexer.getEntity(IEntityItem.ItemType.PARAMETER, "group-param").getReferenceCount());
+  }
+
+  @Test
+  void testOrphanedGroupLinksAfterFlattening() {
+    IDocumentNodeItem importedCatalogDocumentItem = TestUtil.newImportedCatalog();
+    Catalog catalog = (Catalog) importedCatalogDocumentItem.getValue();
+    ControlPart guidance = AbstractPart.builder("guidance")
+        .prose("See [group 2](#group2) and [control 3](#control3).")
+        .build();
+    catalog.getGroups().get(0).getControls().get(0).addPart(guidance);
+
+    IIndexer indexer = new BasicIndexer();
+    ControlSelectionVisitor.instance().visitCatalog(importedCatalogDocumentItem, new ControlSelectionState(
+        indexer,
+        IControlFilter.newInstance(IControlSelectionFilter.ALL_MATCH, IControlSelectionFilter.NONE_MATCH)));
+    ReferenceCountingVisitor.instance()
+        .visitCatalog(importedCatalogDocumentItem, indexer, importedCatalogDocumentItem.getBaseUri());
+
+    IEntityItem group = indexer.getEntity(IEntityItem.ItemType.GROUP, "group2");
+    IEntityItem control = indexer.getEntity(IEntityItem.ItemType.CONTROL, "control3");
+    assert group != null;
+    assert control != null;
+    assertEquals(1, group.getReferenceCount());
+    assertEquals(1, control.getReferenceCount());
+
+    // the groups are unselected and removed when flattening, orphaning the link to the group
+    FlatteningStructuringVisitor.instance().visitCatalog(TestUtil.newCatalogDocument(catalog), indexer);
+
+    String prose = guidance.getProse().toHtml();
+    assertTrue(prose.contains("<a href=\"" + group.getSource().resolve("#group2") + "\">"), prose);
+    // the link to the selected control is unchanged
+    assertTrue(prose.contains("<a href=\"#control3\">"), prose);
+    assertEquals(1, control.getReferenceCount());
+    assertTrue(catalog.getGroups() == null || catalog.getGroups().isEmpty());
+  }
+
+  @Test
+  void testIndexMissDiagnostics() {
+    IDocumentNodeItem importedCatalogDocumentItem = TestUtil.newImportedCatalog();
+    Catalog catalog = (Catalog) importedCatalogDocumentItem.getValue();
+    // the same missing control is linked from two controls
+    for (Control control : List.of(
+        catalog.getGroups().get(0).getControls().get(0),
+        catalog.getGroups().get(1).getControls().get(0))) {
+      control.addLink(AbstractLink.builder(ObjectUtils.notNull(URI.create("#missing")))
+          .relation("related")
+          .build());
+    }
+    catalog.getGroups().get(1).getParams().get(0).addProp(AbstractProperty.builder("aggregates")
+        .namespace(IProperty.RMF_NAMESPACE)
+        .value("missing-param")
+        .build());
+
+    IResolutionDiagnostics diagnostics = new ResolutionDiagnostics();
+    IIndexer indexer = new BasicIndexer(diagnostics);
+    ControlSelectionVisitor.instance().visitCatalog(importedCatalogDocumentItem, new ControlSelectionState(
+        indexer,
+        IControlFilter.newInstance(IControlSelectionFilter.ALL_MATCH, IControlSelectionFilter.NONE_MATCH)));
+    ReferenceCountingVisitor.instance()
+        .visitCatalog(importedCatalogDocumentItem, indexer, importedCatalogDocumentItem.getBaseUri());
+
+    IResolutionDiagnostics.IDiagnostic link = diagnostics.getDiagnostics().stream()
+        .filter(diagnostic -> diagnostic.getKind() == IResolutionDiagnostics.Kind.UNRESOLVED_LINK)
+        .findFirst()
+        .orElseThrow();
+    assertEquals("with rel 'related' referencing a control identified by 'missing'", link.getKey());
+    assertEquals(2, link.getOccurrenceCount());
+    assertEquals(2, link.getSampleLocations().size());
+
+    IResolutionDiagnostics.IDiagnostic prop = diagnostics.getDiagnostics().stream()
+        .filter(diagnostic -> diagnostic.getKind() == IResolutionDiagnostics.Kind.UNRESOLVED_PROPERTY)
+        .findFirst()
+        .orElseThrow();
+    assertEquals(1, prop.getOccurrenceCount());
+    assertTrue(prop.getKey().contains("'missing-param'"));
+  }
+
+  @Test
+  void testConcurrentEntityResolution() throws InterruptedException, ExecutionException {
+    // a single worker resolves the entities one at a time
+    Map<String, Integer> sequential = countReferences(newCatalogWithMetadata(200, 100), 1);
+    Map<String, Integer> parallel = countReferences(newCatalogWithMetadata(200, 100), 8);
+
+    assertEquals(sequential, parallel);
+    // each resource is linked from two parties
+    assertEquals(2, sequential.get("RESOURCE:" + newUuid("resource", 0)));
+  }
+
+  @NonNull
+  private static Catalog newCatalogWithMetadata(int partyCount, int resourceCount) {
+    Catalog catalog = (Catalog) TestUtil.newImportedCatalog().getValue();
+
+    BackMatter backMatter = new BackMatter();
+    List<UUID> resourceUuids = new ArrayList<>(resourceCount);
+    for (int i = 0; i < resourceCount; i++) {
+      BackMatter.Resource resource = new BackMatter.Resource();
+      UUID uuid = newUuid("resource", i);
+      resource.setUuid(uuid);
+      if (i % 2 == 0) {
+        // half are resolved directly, the rest only when referenced
+        resource.addProp(keepAlways());
+      }
+      backMatter.addResource(resource);
+      resourceUuids.add(uuid);
+    }
+    catalog.setBackMatter(backMatter);
+
+    Metadata metadata = new Metadata();
+    metadata.setTitle(MarkupLine.fromMarkdown("Metadata"));
+    for (int i = 0; i < partyCount; i++) {
+      Metadata.Party party = new Metadata.Party();
+      party.setUuid(newUuid("party", i));
+      party.setType("organization");
+      party.addProp(keepAlways());
+      party.addLink(AbstractLink.builder(ObjectUtils.notNull(URI.create("#" + resourceUuids.get(i % resourceCount))))
+          .relation("reference")
+          .build());
+      metadata.addParty(party);
+    }
+    catalog.setMetadata(metadata);
+    return catalog;
+  }
+
+  @NonNull
+  private static UUID newUuid(@NonNull String type, int index) {
+    return ObjectUtils.notNull(UUID.nameUUIDFromBytes((type + index).getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @NonNull
+  private static Property keepAlways() {
+    return AbstractProperty.builder("keep").value("always").build();
+  }
+
+  @NonNull
+  private static Map<String, Integer> countReferences(@NonNull Catalog catalog, int parallelism)
+      throws InterruptedException, ExecutionException {
+    IDocumentNodeItem document = TestUtil.newCatalogDocument(catalog);
+    IIndexer indexer = new BasicIndexer();
+    ControlSelectionVisitor.instance().visitCatalog(document, new ControlSelectionState(
+        indexer,
+        IControlFilter.newInstance(IControlSelectionFilter.ALL_MATCH, IControlSelectionFilter.NONE_MATCH)));
+
+    // parallel streams started from a pool's worker run in that pool
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      pool.submit(() -> ReferenceCountingVisitor.instance()
+          .visitCatalog(document, indexer, document.getBaseUri())).get();
+    } finally {
+      pool.shutdown();
+    }
+
+    Map<String, Integer> retval = new LinkedHashMap<>();
+    referenceCounts(indexer).forEach((entity, count) -> retval.put(
+        entity.getItemType().name() + ":" + entity.getIdentifier(),
+        count));
+    return retval;
+  }
+
+  @Test
+  void testMarkResolvedAfterAppend() {
+    IIndexer imported = new ReassignmentIndexer(TestUtil.UUID_CONCAT_ID_MAPPER);
+    IIndexer indexer = new BasicIndexer();
+    for (IIndexer index : List.of(imported, indexer)) {
+      ControlSelectionVisitor.instance().visitCatalog(TestUtil.newImportedCatalog(), new ControlSelectionState(
+          index,
+          IControlFilter.newInstance(IControlSelectionFilter.ALL_MATCH, IControlSelectionFilter.NONE_MATCH)));
+    }
+    indexer.append(imported);
+
+    List<IEntityItem> entities = new ArrayList<>(referenceCounts(indexer).keySet());
+    ReferenceCountingVisitor.Context context = new ReferenceCountingVisitor.Context(
+        indexer,
+        ObjectUtils.notNull(URI.create("urn:test")));
+
+    // each entity is marked by several threads, but only one mark may succeed
+    long marked = IntStream.range(0, entities.size() * 4).parallel()
+        .filter(index -> context.markResolved(ObjectUtils.notNull(entities.get(index % entities.size()))))
+        .count();
+    assertEquals(entities.size(), marked);
+    assertTrue(entities.stream().allMatch(context::isResolved));
+
+    // an entity added after the context was created is tracked separately
+    IEntityItem added = indexer.addParameter(TestUtil.newImportedCatalog().getModelItemsByName("catalog").stream()
+        .flatMap(catalog -> catalog.getModelItemsByName("param").stream())
+        .findFirst()
+        .orElseThrow());
+    assertTrue(indexer.getEntityOrdinal(added) >= 0);
+    assertFalse(context.isResolved(added));
+    assertTrue(context.markResolved(added));
+    assertFalse(context.markResolved(added));
+  }
+
+  @NonNull
+  private static Map<IEntityItem, Integer> referenceCounts(@NonNull IIndexer indexer) {
+    Map<IEntityItem, Integer> retval = new LinkedHashMap<>();
+    for (IEntityItem.ItemType itemType : IEntityItem.ItemType.values()) {
+      for (IEntityItem entity : indexer.getEntitiesByItemType(ObjectUtils.notNull(itemType))) {
+        retval.put(entity, entity.getReferenceCount());
+      }
+    }
+    return retval;
+  }
 }
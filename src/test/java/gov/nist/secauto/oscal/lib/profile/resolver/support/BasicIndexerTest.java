@@ -0,0 +1,173 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.profile.resolver.TestUtil;
+import gov.nist.secauto.oscal.lib.profile.resolver.selection.ControlSelectionState;
+import gov.nist.secauto.oscal.lib.profile.resolver.selection.ControlSelectionVisitor;
+import gov.nist.secauto.oscal.lib.profile.resolver.selection.IControlFilter;
+import gov.nist.secauto.oscal.lib.profile.resolver.selection.IControlSelectionFilter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+class BasicIndexerTest {
+  @Test
+  void testOrdinalsAreDense() {
+    IIndexer indexer = newIndexedCatalog("a");
+    List<IEntityItem> entities = entities(indexer);
+
+    assertEquals(entities.size(), indexer.getEntityOrdinalLimit());
+    assertEquals(
+        IntStream.range(0, entities.size()).boxed().collect(Collectors.toSet()),
+        entities.stream().map(indexer::getEntityOrdinal).collect(Collectors.toSet()));
+  }
+
+  @Test
+  void testAppendReassignsOrdinals() {
+    IIndexer imported = newIndexedCatalog("a");
+    Map<IEntityItem, Integer> importedOrdinals = ordinals(imported);
+
+    IIndexer indexer = newIndexedCatalog("b");
+    int ownCount = indexer.getEntityOrdinalLimit();
+    indexer.append(imported);
+
+    // the appended entities are numbered after this indexer's own, and are no longer numbered in the
+    // index they came from
+    List<IEntityItem> entities = entities(indexer);
+    assertEquals(ownCount + importedOrdinals.size(), entities.size());
+    assertEquals(entities.size(), indexer.getEntityOrdinalLimit());
+    assertEquals(
+        IntStream.range(0, entities.size()).boxed().collect(Collectors.toSet()),
+        entities.stream().map(indexer::getEntityOrdinal).collect(Collectors.toSet()));
+    assertTrue(ordinals(imported).values().stream().allMatch(ordinal -> ordinal == -1));
+
+    IEntityItem foreign = entities(newIndexedCatalog("c")).get(0);
+    assertEquals(-1, indexer.getEntityOrdinal(ObjectUtils.notNull(foreign)));
+  }
+
+  @Test
+  void testCopyAssignsOrdinals() {
+    IIndexer original = newIndexedCatalog("a");
+    BasicIndexer copy = new BasicIndexer(original);
+
+    List<IEntityItem> entities = entities(copy);
+    assertEquals(entities.size(), copy.getEntityOrdinalLimit());
+    assertEquals(
+        IntStream.range(0, entities.size()).boxed().collect(Collectors.toSet()),
+        entities.stream().map(copy::getEntityOrdinal).collect(Collectors.toSet()));
+  }
+
+  @Test
+  void testConcurrentReferenceCounts() {
+    IEntityItem entity = ObjectUtils.notNull(entities(newIndexedCatalog("a")).get(0));
+
+    IntStream.range(0, 10_000).parallel().forEach(index -> entity.incrementReferenceCount());
+    assertEquals(10_000, entity.getReferenceCount());
+
+    entity.resetReferenceCount();
+    assertEquals(0, entity.getReferenceCount());
+  }
+
+  @NonNull
+  private static IIndexer newIndexedCatalog(@NonNull String prefix) {
+    IIndexer retval = new ReassignmentIndexer(new PrefixMapper(prefix));
+    ControlSelectionVisitor.instance().visitCatalog(TestUtil.newImportedCatalog(), new ControlSelectionState(
+        retval,
+        IControlFilter.newInstance(IControlSelectionFilter.ALL_MATCH, IControlSelectionFilter.NONE_MATCH)));
+    return retval;
+  }
+
+  @NonNull
+  private static List<IEntityItem> entities(@NonNull IIndexer indexer) {
+    List<IEntityItem> retval = new ArrayList<>();
+    for (IEntityItem.ItemType itemType : IEntityItem.ItemType.values()) {
+      retval.addAll(indexer.getEntitiesByItemType(ObjectUtils.notNull(itemType)));
+    }
+    return retval;
+  }
+
+  @NonNull
+  private static Map<IEntityItem, Integer> ordinals(@NonNull IIndexer indexer) {
+    Map<IEntityItem, Integer> retval = new HashMap<>();
+    for (IEntityItem entity : entities(indexer)) {
+      retval.put(entity, indexer.getEntityOrdinal(ObjectUtils.notNull(entity)));
+    }
+    return retval;
+  }
+
+  private static final class PrefixMapper implements IIdentifierMapper {
+    @NonNull
+    private final String prefix;
+
+    private PrefixMapper(@NonNull String prefix) {
+      this.prefix = prefix;
+    }
+
+    @NonNull
+    private String map(@NonNull String identifier) {
+      return prefix + "-" + identifier;
+    }
+
+    @Override
+    public String mapRoleIdentifier(@NonNull String identifier) {
+      return map(identifier);
+    }
+
+    @Override
+    public String mapControlIdentifier(@NonNull String identifier) {
+      return map(identifier);
+    }
+
+    @Override
+    public String mapGroupIdentifier(@NonNull String identifier) {
+      return map(identifier);
+    }
+
+    @Override
+    public String mapParameterIdentifier(@NonNull String identifier) {
+      return map(identifier);
+    }
+
+    @Override
+    public String mapPartIdentifier(@NonNull String identifier) {
+      return map(identifier);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.control.catalog.AbstractControl;
+import gov.nist.secauto.oscal.lib.profile.resolver.TestUtil;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IEntityItem.ItemType;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.UUID;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+class CompiledIdentifierMapperTest {
+
+  @Test
+  void testForCollisions() {
+    IIndexer existing = index(TestUtil.newImportedCatalog());
+
+    Catalog catalog = (Catalog) TestUtil.newImportedCatalog().getValue();
+    // the first suffix is already used by the catalog, so the next one must be used
+    catalog.addControl(AbstractControl.builder("control1_2")
+        .title("Control 1_2")
+        .build());
+
+    IIdentifierMapper mapper = CompiledIdentifierMapper.forCollisions(catalog, existing);
+
+    assertEquals("control1_3", mapper.mapControlIdentifier("control1"));
+    assertEquals("control1_2", mapper.mapControlIdentifier("control1_2"));
+    assertEquals("group1_2", mapper.mapByItemType(ItemType.GROUP, "group1"));
+    assertEquals("param1_2", mapper.mapParameterIdentifier("param1"));
+    // identifiers of other item types are never reassigned
+    assertEquals("param1", mapper.mapByItemType(ItemType.CONTROL, "param1"));
+    assertEquals("unknown", mapper.mapPartIdentifier("unknown"));
+  }
+
+  @Test
+  void testNoCollisions() {
+    Catalog catalog = new Catalog();
+    catalog.setUuid(UUID.randomUUID());
+    catalog.addControl(AbstractControl.builder("other")
+        .title("Other")
+        .build());
+
+    assertSame(IIdentifierMapper.IDENTITY,
+        CompiledIdentifierMapper.forCollisions(catalog, index(TestUtil.newImportedCatalog())));
+  }
+
+  @NonNull
+  private static IIndexer index(@NonNull IDocumentNodeItem catalogDocument) {
+    IIndexer index = new BasicIndexer();
+    new ControlIndexingVisitor(ObjectUtils.notNull(EnumSet.allOf(ItemType.class)))
+        .visitCatalog(catalogDocument, index);
+    return index;
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.lib.profile.resolver.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import gov.nist.secauto.metaschema.model.common.metapath.MetapathExpression;
+import gov.nist.secauto.metaschema.model.common.metapath.MetapathExpression.ResultType;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.INodeItem;
+import gov.nist.secauto.oscal.lib.profile.resolver.TestUtil;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer.SelectionStatus;
+
+import org.jmock.junit5.JUnit5Mockery;
+import org.jmock.lib.concurrent.Synchroniser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+class SelectionStatusStoreTest {
+  @RegisterExtension
+  final JUnit5Mockery context = new JUnit5Mockery() {
+    {
+      // the node mocks are hashed by concurrent readers
+      setThreadingPolicy(new Synchroniser());
+    }
+  };
+
+  @Test
+  void testSetGetAndRemove() {
+    List<INodeItem> nodes = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      nodes.add(context.mock(INodeItem.class, "node" + i));
+    }
+
+    SelectionStatusStore store = new SelectionStatusStore();
+    SelectionStatus[] values = SelectionStatus.values();
+    for (int i = 0; i < nodes.size(); i++) {
+      store.set(nodes.get(i), values[i % values.length]);
+    }
+    // overwrite an existing status
+    store.set(nodes.get(0), SelectionStatus.UNSELECTED);
+
+    assertEquals(SelectionStatus.UNSELECTED, store.get(nodes.get(0)));
+    for (int i = 1; i < nodes.size(); i++) {
+      assertEquals(values[i % values.length], store.get(nodes.get(i)));
+    }
+
+    store.remove(nodes.get(1));
+    assertEquals(SelectionStatus.UNKNOWN, store.get(nodes.get(1)));
+
+    Map<INodeItem, SelectionStatus> map = store.toMap();
+    assertEquals(nodes.size() - 1, map.size());
+    assertEquals(values[2 % values.length], map.get(nodes.get(2)));
+
+    store.clear();
+    assertEquals(SelectionStatus.UNKNOWN, store.get(nodes.get(0)));
+    assertTrue(store.toMap().isEmpty());
+  }
+
+  @Test
+  void testContainerStatus() {
+    IDocumentNodeItem document = TestUtil.newImportedCatalog();
+    INodeItem control = MetapathExpression.compile("//control[@id='control1']")
+        .evaluateAs(document, ResultType.NODE);
+    INodeItem part = MetapathExpression.compile("//control[@id='control1']/part[1]")
+        .evaluateAs(document, ResultType.NODE);
+    assert control != null;
+    assert part != null;
+
+    SelectionStatusStore store = new SelectionStatusStore();
+    assertEquals(SelectionStatus.UNKNOWN, store.getOrContainerStatus(part));
+
+    store.set(control, SelectionStatus.SELECTED);
+    assertEquals(SelectionStatus.SELECTED, store.getOrContainerStatus(part));
+    // the part's own status is unchanged
+    assertEquals(SelectionStatus.UNKNOWN, store.get(part));
+
+    // changes to the container are reflected
+    store.set(control, SelectionStatus.UNSELECTED);
+    assertEquals(SelectionStatus.UNSELECTED, store.getOrContainerStatus(part));
+
+    // the part's own status takes precedence
+    store.set(part, SelectionStatus.SELECTED);
+    assertEquals(SelectionStatus.SELECTED, store.getOrContainerStatus(part));
+  }
+
+  @Test
+  void testConcurrentReadsDuringWrites() {
+    List<INodeItem> nodes = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      nodes.add(context.mock(INodeItem.class, "node" + i));
+    }
+
+    SelectionStatusStore store = new SelectionStatusStore();
+    SelectionStatus[] values = { SelectionStatus.SELECTED, SelectionStatus.UNSELECTED };
+
+    CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+      for (int i = 0; i < nodes.size(); i++) {
+        store.set(nodes.get(i), values[i % values.length]);
+      }
+    });
+
+    while (!writer.isDone()) {
+      IntStream.range(0, nodes.size()).parallel().forEach(i -> {
+        SelectionStatus status = store.get(nodes.get(i));
+        if (!SelectionStatus.UNKNOWN.equals(status) && !values[i % values.length].equals(status)) {
+          fail(String.format("node%d has status %s", i, status));
+        }
+      });
+    }
+    writer.join();
+
+    for (int i = 0; i < nodes.size(); i++) {
+      assertEquals(values[i % values.length], store.get(nodes.get(i)));
+    }
+  }
+}